@@ -1,9 +1,16 @@
 package com.example.lab1;
 
+import com.example.lab1.repository.CountCachingRepositoryFactoryBean;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
-@SpringBootApplication
+// The R2DBC connection factory of the reactive reads is not a bean, which would replace the JDBC data source
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@ConfigurationPropertiesScan
+@EnableJpaRepositories(repositoryFactoryBeanClass = CountCachingRepositoryFactoryBean.class)
 public class Lab1Application {
 
     public static void main(String[] args) {
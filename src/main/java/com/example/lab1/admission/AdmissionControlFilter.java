@@ -0,0 +1,146 @@
+package com.example.lab1.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits API requests before they reach the handlers, and so before they tie up a database connection: each client,
+ * identified by its remote address, draws from its own {@link TokenBucket}, and gets a {@code 429 Too Many Requests}
+ * once it is empty; each {@link EndpointClass} has its own {@link ConcurrencyLimit}, past which requests get a
+ * {@code 503 Service Unavailable} straight away rather than queueing for a thread. Both carry a {@code Retry-After}
+ * header. Decisions are counted by the {@code http.server.admission} counter.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final long RETRY_AFTER_SHED_SECONDS = 1;
+
+    private final String basePath;
+
+    private final double permitsPerSecond;
+
+    private final int burst;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Map<EndpointClass, ConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    private volatile Map<EndpointClass, Map<Outcome, Counter>> decisions;
+
+    /**
+     * @param clientIdleTimeout time after which the bucket of an idle client is forgotten, which amounts to refilling it
+     */
+    public AdmissionControlFilter(String basePath, double permitsPerSecond, int burst, Duration clientIdleTimeout,
+                                  int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.basePath = StringUtils.trimTrailingCharacter(basePath, '/');
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(clientIdleTimeout)
+                .build();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, new ConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance));
+        }
+    }
+
+    public ConcurrencyLimit limit(EndpointClass endpointClass) {
+        return limits.get(endpointClass);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<EndpointClass, Map<Outcome, Counter>> counters = new EnumMap<>(EndpointClass.class);
+        limits.forEach((endpointClass, limit) -> {
+            String tag = endpointClass.name().toLowerCase();
+            Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, Counter.builder("http.server.admission")
+                        .description("Number of API requests admitted or rejected by admission control")
+                        .tag("class", tag)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(registry));
+            }
+            counters.put(endpointClass, outcomes);
+            Gauge.builder("http.server.admission.limit", limit, ConcurrencyLimit::limit)
+                    .description("Current concurrency limit of the API requests of a class")
+                    .tag("class", tag)
+                    .register(registry);
+            Gauge.builder("http.server.admission.in.flight", limit, ConcurrencyLimit::inFlight)
+                    .description("Number of API requests of a class being handled")
+                    .tag("class", tag)
+                    .register(registry);
+        });
+        decisions = counters;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(basePath) && !path.startsWith(basePath + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + basePath.length());
+        EndpointClass endpointClass = EndpointClass.of(request, path);
+
+        long start = System.nanoTime();
+        long waitNanos = buckets.get(request.getRemoteAddr(), client -> new TokenBucket(permitsPerSecond, burst, start))
+                .tryAcquire(start);
+        if (waitNanos > 0) {
+            record(endpointClass, Outcome.RATE_LIMITED);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+            return;
+        }
+
+        ConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            record(endpointClass, Outcome.SHED);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, RETRY_AFTER_SHED_SECONDS);
+            return;
+        }
+
+        record(endpointClass, Outcome.ADMITTED);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    private void record(EndpointClass endpointClass, Outcome outcome) {
+        Map<EndpointClass, Map<Outcome, Counter>> counters = decisions;
+        if (counters != null) {
+            counters.get(endpointClass).get(outcome).increment();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds)
+            throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+
+    private enum Outcome {
+        ADMITTED, RATE_LIMITED, SHED
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.example.lab1.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on the number of requests handled at once, adapted to their latency along the lines of the gradient algorithm
+ * of Netflix's concurrency-limits: while the short-term average latency stays within {@code tolerance} times the
+ * long-term one, the limit grows by its square root, leaving room for some queueing; as latency rises beyond, the
+ * limit shrinks in proportion. The limit only grows while at least half of it is in use, so that it does not drift
+ * upwards while the load is light.
+ */
+public final class ConcurrencyLimit {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;
+
+    private static final double SMOOTHING = 0.2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private volatile int limit;
+
+    /**
+     * Guarded by this, like the average latencies.
+     */
+    private double estimatedLimit;
+
+    private double shortRttNanos;
+
+    private double longRttNanos;
+
+    ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return whether the request may be handled, in which case {@link #release} must be called once it is
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos time the request took to be handled
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(latencyNanos, inFlightBefore);
+    }
+
+    private synchronized void update(long latencyNanos, int inFlightBefore) {
+        // Keeps the ratio of latencies defined
+        latencyNanos = Math.max(1, latencyNanos);
+        if (longRttNanos == 0) {
+            shortRttNanos = latencyNanos;
+            longRttNanos = latencyNanos;
+        } else {
+            shortRttNanos += (latencyNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+            longRttNanos += (latencyNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        }
+        // Latency dropped for good, e.g. after a slow start: let the baseline catch up faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        if (inFlightBefore < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+}
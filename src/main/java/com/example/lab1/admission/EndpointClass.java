@@ -0,0 +1,25 @@
+package com.example.lab1.admission;
+
+import org.springframework.http.HttpMethod;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Kinds of API requests, each limited on its own so that e.g. a flood of searches does not starve writes.
+ */
+public enum EndpointClass {
+
+    READ, SEARCH, WRITE;
+
+    /**
+     * @param path path of the request, relative to the base path of the API
+     */
+    static EndpointClass of(HttpServletRequest request, String path) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return WRITE;
+        }
+        return path.contains("/search/") || path.endsWith("/lookup") ? SEARCH : READ;
+    }
+
+}
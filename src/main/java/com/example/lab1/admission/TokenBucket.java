@@ -0,0 +1,41 @@
+package com.example.lab1.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: its only state is the theoretical arrival
+ * time of the next request, which each admitted request pushes back by one emission interval with a compare-and-set. A
+ * request is admitted as long as that time is no further ahead than the burst allows.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000 / permitsPerSecond));
+        this.burstToleranceNanos = (burst - 1) * emissionIntervalNanos;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, or else the time, in nanoseconds, until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrivalTime = theoreticalArrivalTime.get();
+            long start = arrivalTime - nowNanos > 0 ? arrivalTime : nowNanos;
+            long wait = start - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.lab1.config;
+
+import com.example.lab1.admission.AdmissionControlFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Protects the API from overload when {@code lab1.admission-control.enabled} is set, see
+ * {@link AdmissionControlFilter}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.admission-control", name = "enabled")
+public class AdmissionControlConfiguration {
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(@Value("${spring.data.rest.base-path:}") String basePath,
+                                                         AdmissionControlProperties properties) {
+        AdmissionControlProperties.RateLimit rateLimit = properties.getRateLimit();
+        AdmissionControlProperties.Concurrency concurrency = properties.getConcurrency();
+        return new AdmissionControlFilter(basePath, rateLimit.getRequestsPerSecond(), rateLimit.getBurst(),
+                rateLimit.getClientIdleTimeout(), concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                concurrency.getMaxLimit(), concurrency.getTolerance());
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(admissionControlFilter);
+        // Before any filter doing work on behalf of the request, but after the metrics filter recording its response
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+}
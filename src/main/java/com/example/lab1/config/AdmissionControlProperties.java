@@ -0,0 +1,99 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.admission-control")
+@Validated
+@Data
+public class AdmissionControlProperties {
+
+    /**
+     * Whether to rate limit the API requests of each client and limit the number of API requests handled at once.
+     */
+    private boolean enabled = false;
+
+    @Valid
+    private RateLimit rateLimit = new RateLimit(50, 100, Duration.ofMinutes(5));
+
+    @Valid
+    private Concurrency concurrency = new Concurrency(20, 4, 200, 1.5);
+
+    @Data
+    public static class RateLimit {
+
+        /**
+         * Sustained number of API requests per second allowed to each client.
+         */
+        @DecimalMin(value = "0", inclusive = false)
+        private double requestsPerSecond;
+
+        /**
+         * Number of API requests a client may make at once, on top of its sustained rate.
+         */
+        @Min(1)
+        private int burst;
+
+        /**
+         * Time after which the limit of a client not making any request is forgotten.
+         */
+        private Duration clientIdleTimeout;
+
+        public RateLimit() {
+        }
+
+        public RateLimit(double requestsPerSecond, int burst, Duration clientIdleTimeout) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.clientIdleTimeout = clientIdleTimeout;
+        }
+
+    }
+
+    @Data
+    public static class Concurrency {
+
+        /**
+         * Number of API requests of each class, i.e. reads, searches and writes, handled at once before the limit
+         * adapts to their latency.
+         */
+        @Min(1)
+        private int initialLimit;
+
+        /**
+         * Lowest limit the number of API requests of each class handled at once may adapt to.
+         */
+        @Min(1)
+        private int minLimit;
+
+        /**
+         * Highest limit the number of API requests of each class handled at once may adapt to.
+         */
+        @Min(1)
+        private int maxLimit;
+
+        /**
+         * Ratio of the recent to the long-term latency of the requests of a class above which their limit is lowered.
+         */
+        @DecimalMin("1")
+        private double tolerance;
+
+        public Concurrency() {
+        }
+
+        public Concurrency(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.tolerance = tolerance;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.lab1.config;
+
+import com.example.lab1.job.BatchJobEndpoint;
+import com.example.lab1.job.CityTotalsJob;
+import com.example.lab1.job.OrphanedContactsJob;
+import com.example.lab1.job.PowerBandJob;
+import com.example.lab1.job.RangeJob;
+import com.example.lab1.job.RangeJobRunner;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Runs the {@link RangeJob}s recomputing derived data over all installations or contacts, on demand through the
+ * {@link BatchJobEndpoint}, unless {@code lab1.batch-jobs.enabled} is unset.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.batch-jobs", name = "enabled", matchIfMissing = true)
+public class BatchJobConfiguration {
+
+    @Bean
+    public PowerBandJob powerBandJob(ProductionInstallationRepository repository) {
+        return new PowerBandJob(repository);
+    }
+
+    @Bean
+    public CityTotalsJob cityTotalsJob(ProductionInstallationRepository repository) {
+        return new CityTotalsJob(repository);
+    }
+
+    @Bean
+    public OrphanedContactsJob orphanedContactsJob(ContactRepository repository) {
+        return new OrphanedContactsJob(repository);
+    }
+
+    @Bean(initMethod = "createTables", destroyMethod = "close")
+    public RangeJobRunner rangeJobRunner(List<RangeJob<?, ?>> jobs, BatchJobProperties properties,
+                                         JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                         ObjectMapper objectMapper) {
+        return new RangeJobRunner(jobs, properties.getParallelism(), properties.getRangeSize(), jdbcTemplate,
+                transactionManager, objectMapper);
+    }
+
+    @Bean
+    public BatchJobEndpoint batchJobEndpoint(RangeJobRunner runner) {
+        return new BatchJobEndpoint(runner);
+    }
+
+}
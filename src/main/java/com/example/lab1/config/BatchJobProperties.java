@@ -0,0 +1,31 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.batch-jobs")
+@Validated
+@Data
+public class BatchJobProperties {
+
+    /**
+     * Whether to offer the batch jobs recomputing derived data, through the {@code jobs} actuator endpoint.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of ID ranges read concurrently by a job, by default the number of available processors.
+     */
+    @Min(1)
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of IDs per range, a run of a job being resumed from the ranges it completed.
+     */
+    @Min(1)
+    private long rangeSize = 10_000;
+
+}
@@ -0,0 +1,107 @@
+package com.example.lab1.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes a binary Jackson format with the serializers of a JSON {@link ObjectMapper}, so that e.g. the HAL
+ * object mapper of Spring Data REST renders the same {@code _links} and {@code _embedded} structure in CBOR or Smile.
+ * Only the parsers and generators come from the binary format; all other configuration is the mapper's.
+ * <p>
+ * Spring Data REST restricts the media types its handlers produce to JSON flavours, so a client preferring a binary
+ * format has its request negotiated as JSON, with the {@link #NEGOTIATED_MEDIA_TYPE_ATTRIBUTE} request attribute
+ * telling this converter to write JSON content in its own format instead.
+ */
+public class BinaryJacksonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    public static final String NEGOTIATED_MEDIA_TYPE_ATTRIBUTE =
+            BinaryJacksonHttpMessageConverter.class.getName() + ".negotiatedMediaType";
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonFactory factory;
+
+    public BinaryJacksonHttpMessageConverter(ObjectMapper objectMapper, JsonFactory factory, MediaType mediaType) {
+        super(mediaType);
+        this.objectMapper = objectMapper;
+        this.factory = factory
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    public static BinaryJacksonHttpMessageConverter cbor(ObjectMapper objectMapper) {
+        return new BinaryJacksonHttpMessageConverter(objectMapper, new CBORFactory(), MediaType.APPLICATION_CBOR);
+    }
+
+    public static BinaryJacksonHttpMessageConverter smile(ObjectMapper objectMapper) {
+        return new BinaryJacksonHttpMessageConverter(objectMapper, new SmileFactory(), APPLICATION_SMILE);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return mediaType != null && super.canRead(mediaType);
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return super.canWrite(mediaType) || (isJson(mediaType) && isNegotiated());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = factory.createParser(inputMessage.getBody())) {
+            return objectMapper.readValue(parser, objectMapper.constructType(GenericTypeResolver.resolveType(type, contextClass)));
+        } catch (JsonProcessingException exc) {
+            throw new HttpMessageNotReadableException("Could not read document: " + exc.getOriginalMessage(), exc,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().setContentType(getSupportedMediaTypes().get(0));
+        try (JsonGenerator generator = factory.createGenerator(outputMessage.getBody())) {
+            // Pretty printing writes raw whitespace, which binary generators reject
+            objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValue(generator, object);
+        } catch (JsonProcessingException exc) {
+            throw new HttpMessageNotWritableException("Could not write content: " + exc.getOriginalMessage(), exc);
+        }
+    }
+
+    private boolean isNegotiated() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && getSupportedMediaTypes().get(0).equals(
+                attributes.getAttribute(NEGOTIATED_MEDIA_TYPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return mediaType != null && "application".equals(mediaType.getType())
+                && ("json".equals(mediaType.getSubtype()) || mediaType.getSubtype().endsWith("+json"));
+    }
+
+}
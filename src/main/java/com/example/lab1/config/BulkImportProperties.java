@@ -0,0 +1,20 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.bulk-import")
+@Validated
+@Data
+public class BulkImportProperties {
+
+    /**
+     * Number of NDJSON lines inserted per transaction.
+     */
+    @Min(1)
+    private int chunkSize = 500;
+
+}
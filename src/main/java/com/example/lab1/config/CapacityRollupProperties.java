@@ -0,0 +1,15 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("lab1.capacity-rollups")
+@Data
+public class CapacityRollupProperties {
+
+    /**
+     * Whether to maintain output power rollups in memory rather than aggregating them from the database on each read.
+     */
+    private boolean enabled = true;
+
+}
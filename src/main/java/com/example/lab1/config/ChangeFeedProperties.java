@@ -0,0 +1,50 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.change-feed")
+@Validated
+@Data
+public class ChangeFeedProperties {
+
+    /**
+     * Whether to publish changes made through the REST API as server-sent events.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of most recent changes retained for clients resuming with Last-Event-ID.
+     */
+    @Min(1)
+    private int logSize = 10_000;
+
+    /**
+     * Number of changes a client may lag behind before being disconnected.
+     */
+    @Min(1)
+    private int clientBufferSize = 1_000;
+
+    /**
+     * Number of threads sending changes to clients, which a client slow to read its changes keeps busy.
+     */
+    @Min(1)
+    private int senderThreads = 4;
+
+    /**
+     * Number of clients with changes to send that may wait for a sender thread; clients with changes beyond it are
+     * disconnected.
+     */
+    @Min(1)
+    private int senderQueueSize = 1_000;
+
+    /**
+     * Time after which a client connection is closed, prompting the client to reconnect.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+}
@@ -0,0 +1,20 @@
+package com.example.lab1.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Provides the clock that components comparing timestamps with the current time share, e.g. the retention of the
+ * telemetry store and the resolution picked by its controller.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ClockConfiguration {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.collection-counts")
+@Validated
+@Data
+public class CollectionCountProperties {
+
+    /**
+     * Whether to keep the number of installations and contacts in memory, rather than counting them for every page,
+     * and to estimate the number of installations within output power ranges.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of output power histogram buckets per power of two, the relative width of a bucket being the inverse.
+     */
+    @Min(1)
+    @Max(1024)
+    private int histogramBuckets = 16;
+
+    /**
+     * Share of the installations whose output power may have been updated since the histogram was built, beyond which
+     * it is rebuilt in the background.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double histogramRebuildRatio = 0.1;
+
+}
@@ -0,0 +1,29 @@
+package com.example.lab1.config;
+
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets Tomcat compress responses carrying a strong {@code ETag}, which it refuses by default. The entity tags of this
+ * API identify versions of installations, contacts and collections, whatever their encoding, and conditional requests
+ * are answered before any content is written; compressing them is what {@code server.compression} is meant for, as
+ * most large responses are tagged.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(AbstractHttp11Protocol.class)
+public class CompressionConfiguration {
+
+    @Bean
+    @SuppressWarnings("deprecation")
+    public TomcatConnectorCustomizer strongETagCompressionCustomizer() {
+        return connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol<?> protocol) {
+                protocol.setNoCompressionStrongETag(false);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.contact-search")
+@Validated
+@Data
+public class ContactSearchProperties {
+
+    /**
+     * Whether to answer contact lookups from an in-memory full-text index rather than from the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of ID ranges of contacts read concurrently when building the index.
+     */
+    @Min(1)
+    private int rebuildParallelism = 4;
+
+}
@@ -0,0 +1,25 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.contact-upsert")
+@Validated
+@Data
+public class ContactUpsertProperties {
+
+    /**
+     * Whether to offer the upsert of contacts by name and address, looked up from an in-memory index.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of locks serializing concurrent upserts of contacts whose name and address hash alike.
+     */
+    @Min(1)
+    private int lockStripes = 64;
+
+}
@@ -2,11 +2,17 @@ package com.example.lab1.config;
 
 import com.example.lab1.model.Contact;
 import com.example.lab1.model.ProductionInstallation;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
 import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 
+import java.util.List;
+
 @Component
 public class CustomRepositoryRestConfigurer implements RepositoryRestConfigurer {
 
@@ -15,4 +21,21 @@ public class CustomRepositoryRestConfigurer implements RepositoryRestConfigurer
         config.exposeIdsFor(Contact.class, ProductionInstallation.class);
     }
 
+    /**
+     * Adds CBOR and Smile, rendered with the HAL object mapper. They come first so as to take over JSON content once
+     * negotiated by the {@link com.example.lab1.rest.BinaryContentNegotiationFilter}, and write nothing otherwise.
+     */
+    @Override
+    public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+        ObjectMapper halObjectMapper = messageConverters.stream()
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(AbstractJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON))
+                .map(AbstractJackson2HttpMessageConverter::getObjectMapper)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No HAL converter to derive binary converters from"));
+        messageConverters.add(0, BinaryJacksonHttpMessageConverter.cbor(halObjectMapper));
+        messageConverters.add(1, BinaryJacksonHttpMessageConverter.smile(halObjectMapper));
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.example.lab1.config;
 
+import com.example.lab1.service.BulkImportException;
+import com.example.lab1.service.ContactProblemException;
 import lombok.AllArgsConstructor;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.servlet.error.ErrorAttributes;
@@ -11,6 +13,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.validation.ConstraintViolationException;
+import java.util.List;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -21,14 +24,33 @@ public class CustomResponseEntityExceptionHandler extends ResponseEntityExceptio
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Map<String, Object>> constraintViolationException(ConstraintViolationException exc, WebRequest request) {
-        Map<String, Object> body = errorAttributes.getErrorAttributes(request, ErrorAttributeOptions.defaults());
         HttpStatus status = HttpStatus.BAD_REQUEST;
-        body.put("status", status.value());
-        body.put("error", status.getReasonPhrase());
-        body.put("problems", exc.getConstraintViolations().stream().map(constraintViolation ->
+        Map<String, Object> body = problemsBody(status, exc.getConstraintViolations().stream().map(constraintViolation ->
                 String.format("Property \"%s\": %s.", constraintViolation.getPropertyPath(),
                         constraintViolation.getMessage())
-        ).toList());
+        ).toList(), request);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    @ExceptionHandler(BulkImportException.class)
+    public ResponseEntity<Map<String, Object>> bulkImportException(BulkImportException exc, WebRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        Map<String, Object> body = problemsBody(status, exc.getResult().problems(), request);
+        body.put("imported", exc.getResult().imported());
         return ResponseEntity.status(status).body(body);
     }
+
+    @ExceptionHandler(ContactProblemException.class)
+    public ResponseEntity<Map<String, Object>> contactProblemException(ContactProblemException exc, WebRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(problemsBody(status, exc.getProblems(), request));
+    }
+
+    private Map<String, Object> problemsBody(HttpStatus status, List<String> problems, WebRequest request) {
+        Map<String, Object> body = errorAttributes.getErrorAttributes(request, ErrorAttributeOptions.defaults());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("problems", problems);
+        return body;
+    }
 }
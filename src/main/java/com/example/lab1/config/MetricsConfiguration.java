@@ -0,0 +1,49 @@
+package com.example.lab1.config;
+
+import com.example.lab1.metrics.QueryMetrics;
+import com.example.lab1.metrics.StatementsPerRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Instrumentation on top of what Spring Boot Actuator provides: JDBC statement counts and slow query logging through a
+ * proxy of the data source.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+
+    @Bean
+    public QueryMetrics queryMetrics(SlowQueryLogProperties properties) {
+        return new QueryMetrics(properties);
+    }
+
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(queryMetrics.getObject())
+                            .build();
+                }
+                return bean;
+            }
+
+        };
+    }
+
+    @Bean
+    public StatementsPerRequestFilter statementsPerRequestFilter(QueryMetrics queryMetrics, MeterRegistry meterRegistry) {
+        return new StatementsPerRequestFilter(queryMetrics, meterRegistry);
+    }
+
+}
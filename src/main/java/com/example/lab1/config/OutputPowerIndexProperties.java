@@ -0,0 +1,15 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("lab1.output-power-index")
+@Data
+public class OutputPowerIndexProperties {
+
+    /**
+     * Whether to answer output power range searches from an in-memory index rather than from the database.
+     */
+    private boolean enabled = true;
+
+}
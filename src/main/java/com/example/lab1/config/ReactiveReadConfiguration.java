@@ -0,0 +1,47 @@
+package com.example.lab1.config;
+
+import com.example.lab1.reactive.ReactiveReadRepository;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the non-blocking read API unless {@code lab1.reactive-reads.enabled} is false, over an R2DBC connection pool
+ * to the H2 database of the application data source. The pool is kept out of the application context: a
+ * {@code ConnectionFactory} bean would make Spring Boot back off from configuring the JDBC data source.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.reactive-reads", name = "enabled", matchIfMissing = true)
+public class ReactiveReadConfiguration {
+
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    @Bean(destroyMethod = "close")
+    public ReactiveReadRepository reactiveReadRepository(DataSourceProperties dataSourceProperties,
+                                                         ReactiveReadProperties properties) {
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith(H2_URL_PREFIX)) {
+            throw new IllegalStateException("Reactive reads need an H2 database, not " + url);
+        }
+        H2ConnectionConfiguration.Builder configuration = H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_URL_PREFIX.length()))
+                .username(dataSourceProperties.determineUsername());
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            configuration.password(password);
+        }
+        ConnectionPool connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder()
+                .connectionFactory(new H2ConnectionFactory(configuration.build()))
+                .name("reactive-reads")
+                .maxSize(properties.getMaxConnections())
+                .initialSize(0)
+                .build());
+        return new ReactiveReadRepository(connectionPool, properties.getBatchSize());
+    }
+
+}
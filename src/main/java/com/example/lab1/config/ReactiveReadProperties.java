@@ -0,0 +1,31 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@ConfigurationProperties("lab1.reactive-reads")
+@Validated
+@Data
+public class ReactiveReadProperties {
+
+    /**
+     * Whether to serve the non-blocking read API under {@code /api/reactive}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of R2DBC connections to the database.
+     */
+    @Min(1)
+    private int maxConnections = 10;
+
+    /**
+     * Number of rows read at once while streaming a collection.
+     */
+    @Min(1)
+    private int batchSize = 500;
+
+}
@@ -0,0 +1,79 @@
+package com.example.lab1.config;
+
+import com.example.lab1.replica.ReadReplica;
+import com.example.lab1.replica.ReadReplicas;
+import com.example.lab1.replica.ReadRoutingFilter;
+import com.example.lab1.replica.ReplicaRoutingDataSource;
+import com.example.lab1.replica.ReplicationLog;
+import com.example.lab1.replica.ReplicationLoggingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the reads of GET requests from local H2 read replicas when {@code lab1.read-replicas.enabled} is set. The
+ * application data source then routes connections between the primary database, whose write statements are logged as
+ * transactions commit, and the replicas, which replay them in the background.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.read-replicas", name = "enabled")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    public ReplicationLog replicationLog(ReadReplicaProperties properties) {
+        return new ReplicationLog(properties.getLogSize());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicas readReplicas(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties,
+                                     ReplicationLog replicationLog,
+                                     @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        HikariDataSource primary = pool(dataSourceProperties, dataSourceProperties.determineUrl(), "primary");
+        List<ReadReplica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.add(new ReadReplica(name, pool(dataSourceProperties, properties.getUrls().get(i), name), primary,
+                    replicationLog, taskExecutor));
+        }
+        return new ReadReplicas(primary, replicas, replicationLog);
+    }
+
+    @Bean
+    public DataSource dataSource(ReadReplicas readReplicas, ReadReplicaProperties properties,
+                                 ReplicationLog replicationLog) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                new ReplicationLoggingDataSource(readReplicas.primary(), replicationLog), readReplicas.replicas(),
+                properties.getMaxStaleness()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadRoutingFilter> readRoutingFilter(ReplicationLog replicationLog,
+                                                                      ReadReplicaProperties properties) {
+        FilterRegistrationBean<ReadRoutingFilter> registration = new FilterRegistrationBean<>(
+                new ReadRoutingFilter(replicationLog, properties.getMaxStaleness()));
+        // Before the filters reading from the database, e.g. for conditional requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        return registration;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties, String url, String name) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        pool.setPoolName(name);
+        return pool;
+    }
+
+}
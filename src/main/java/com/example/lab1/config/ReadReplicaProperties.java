@@ -0,0 +1,41 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties("lab1.read-replicas")
+@Validated
+@Data
+public class ReadReplicaProperties {
+
+    /**
+     * Whether to serve the reads of GET requests from read replicas of the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URLs of the local H2 databases holding the replicas, accessed with the credentials of the primary.
+     */
+    @NotEmpty
+    private List<String> urls = new ArrayList<>(List.of("jdbc:h2:mem:memdb-replica-1"));
+
+    /**
+     * Longest time a replica may lag behind the primary while still serving reads.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(1);
+
+    /**
+     * Number of committed transactions retained for replicas to catch up with; a replica lagging further behind is
+     * copied over from the primary again.
+     */
+    @Min(1)
+    private int logSize = 100_000;
+
+}
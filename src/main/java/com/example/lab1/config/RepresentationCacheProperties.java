@@ -0,0 +1,20 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("lab1.representation-cache")
+@Data
+public class RepresentationCacheProperties {
+
+    /**
+     * Whether to cache the rendered representations of installation and contact item resources.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of representations held in the cache.
+     */
+    private long maximumSize = 10_000;
+
+}
@@ -0,0 +1,77 @@
+package com.example.lab1.config;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import javax.persistence.SharedCacheMode;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.Properties;
+
+/**
+ * Backs the Hibernate second-level and query caches with bounded, expiring Caffeine caches when
+ * {@code lab1.cache.enabled} is set. The update timestamps region is never bounded nor expired, since evicting from it
+ * would let the query cache return stale results.
+ * <p>
+ * The caches belong to a cache manager of their own, rather than to the JVM-wide default one, so that several
+ * application contexts, e.g. of tests, can each create and close theirs.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.cache", name = "enabled")
+public class SecondLevelCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties, ApplicationContext applicationContext) {
+        CachingProvider cachingProvider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager(
+                URI.create("lab1:hibernate:" + ObjectUtils.getIdentityHexString(applicationContext)),
+                applicationContext.getClassLoader(), new Properties());
+
+        for (Class<?> entityType : new Class<?>[]{Contact.class, ProductionInstallation.class}) {
+            cacheManager.createCache(entityType.getName(), regionConfiguration(properties.getEntities()));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                regionConfiguration(properties.getQueries()));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                regionConfiguration(null));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernatePropertiesCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            hibernateProperties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (region != null) {
+            configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+            configuration.setExpireAfterWrite(OptionalLong.of(region.getTimeToLive().toNanos()));
+        }
+        return configuration;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.cache")
+@Data
+public class SecondLevelCacheProperties {
+
+    /**
+     * Whether to enable the Hibernate second-level and query caches.
+     */
+    private boolean enabled = false;
+
+    private Region entities = new Region(10_000, Duration.ofMinutes(10));
+
+    private Region queries = new Region(1_000, Duration.ofMinutes(1));
+
+    @Data
+    public static class Region {
+
+        /**
+         * Maximum number of entries held by each cache region.
+         */
+        private long maximumSize;
+
+        /**
+         * Time after which an entry is evicted from the cache region, counted from its last write.
+         */
+        private Duration timeToLive;
+
+        public Region() {
+        }
+
+        public Region(long maximumSize, Duration timeToLive) {
+            this.maximumSize = maximumSize;
+            this.timeToLive = timeToLive;
+        }
+
+    }
+
+}
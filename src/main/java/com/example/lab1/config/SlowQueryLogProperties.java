@@ -0,0 +1,27 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.slow-query-log")
+@Data
+public class SlowQueryLogProperties {
+
+    /**
+     * Whether to log the JDBC statements slower than the threshold.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Execution time from which a statement is logged, with its bind parameters.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Minimum time between two captures of a query plan, as running EXPLAIN costs a round trip to the database.
+     */
+    private Duration planInterval = Duration.ofSeconds(10);
+
+}
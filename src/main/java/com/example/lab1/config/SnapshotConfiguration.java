@@ -0,0 +1,35 @@
+package com.example.lab1.config;
+
+import com.example.lab1.snapshot.SnapshotDatabaseInitializer;
+import com.example.lab1.snapshot.SnapshotEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Initializes the database from a binary snapshot when {@code lab1.snapshot.enabled} is set, in place of the SQL
+ * scripts, which are still run when there is no snapshot yet.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.snapshot", name = "enabled")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class SnapshotConfiguration {
+
+    @Bean
+    public SnapshotDatabaseInitializer snapshotDatabaseInitializer(DataSource dataSource,
+                                                                   SqlInitializationProperties sqlInitializationProperties,
+                                                                   SnapshotProperties properties) {
+        return new SnapshotDatabaseInitializer(dataSource, sqlInitializationProperties, properties.getPath(),
+                properties.getBatchSize());
+    }
+
+    @Bean
+    public SnapshotEndpoint snapshotEndpoint(DataSource dataSource, SnapshotProperties properties) {
+        return new SnapshotEndpoint(dataSource, properties.getPath());
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.nio.file.Path;
+
+@ConfigurationProperties("lab1.snapshot")
+@Validated
+@Data
+public class SnapshotProperties {
+
+    /**
+     * Whether to initialize the database from a binary snapshot, when there is one, instead of {@code data.sql}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * File holding the snapshot, loaded at startup and written by the {@code snapshot} actuator endpoint.
+     */
+    @NotNull
+    private Path path = Path.of("lab1.snapshot");
+
+    /**
+     * Number of rows inserted per JDBC batch while loading the snapshot.
+     */
+    @Min(1)
+    private int batchSize = 5_000;
+
+}
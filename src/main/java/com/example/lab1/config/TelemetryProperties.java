@@ -0,0 +1,46 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.telemetry")
+@Validated
+@Data
+public class TelemetryProperties {
+
+    /**
+     * Whether to accept output power readings of installations.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of NDJSON readings written per transaction.
+     */
+    @Min(1)
+    private int batchSize = 5_000;
+
+    /**
+     * Longest time range answered with raw readings.
+     */
+    private Duration rawMaxSpan = Duration.ofHours(6);
+
+    /**
+     * Longest time range answered with 1-minute rollups; longer ranges are answered with 1-hour rollups.
+     */
+    private Duration minuteMaxSpan = Duration.ofDays(7);
+
+    /**
+     * Time after which raw readings are dropped, rounded up to whole days.
+     */
+    private Duration rawRetention = Duration.ofDays(7);
+
+    /**
+     * Time after which 1-minute rollups are dropped. 1-hour rollups are kept.
+     */
+    private Duration minuteRetention = Duration.ofDays(90);
+
+}
@@ -0,0 +1,52 @@
+package com.example.lab1.config;
+
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.example.lab1.writebehind.OutputPowerWriteBuffer;
+import com.example.lab1.writebehind.WriteBehindFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.validation.Validator;
+
+/**
+ * Coalesces the output power PATCHes of installations in an {@link OutputPowerWriteBuffer} when
+ * {@code lab1.write-behind.enabled} is set.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "lab1.write-behind", name = "enabled")
+public class WriteBehindConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public OutputPowerWriteBuffer outputPowerWriteBuffer(WriteBehindProperties properties,
+                                                         ProductionInstallationRepository repository,
+                                                         EntityManager entityManager,
+                                                         TransactionTemplate transactionTemplate,
+                                                         EntityManagerFactory entityManagerFactory,
+                                                         ApplicationEventPublisher eventPublisher) {
+        return new OutputPowerWriteBuffer(properties.getStripes(), properties.getBatchSize(),
+                properties.getFlushInterval(), repository, entityManager, transactionTemplate, entityManagerFactory,
+                eventPublisher);
+    }
+
+    @Bean
+    public FilterRegistrationBean<WriteBehindFilter> writeBehindFilterRegistration(
+            @Value("${spring.data.rest.base-path:}") String basePath, OutputPowerWriteBuffer writeBuffer,
+            ProductionInstallationRepository repository, Validator validator, ObjectMapper objectMapper) {
+        FilterRegistrationBean<WriteBehindFilter> registration = new FilterRegistrationBean<>(
+                new WriteBehindFilter(basePath, writeBuffer, repository, validator, objectMapper));
+        // After the read routing filter, so that flushes on behalf of reads set the last write of the client, and the
+        // reads following them skip the replicas which have not replayed it yet
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 60);
+        return registration;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.lab1.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+@ConfigurationProperties("lab1.write-behind")
+@Validated
+@Data
+public class WriteBehindProperties {
+
+    /**
+     * Whether to accept PATCHes setting only the output power of an installation right away, and write them later.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Interval between writes of the pending output powers.
+     */
+    @NotNull
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Number of maps the pending output powers are spread over, by installation ID.
+     */
+    @Min(1)
+    private int stripes = 16;
+
+    /**
+     * Maximum number of output powers written per batched statement.
+     */
+    @Min(1)
+    private int batchSize = 500;
+
+}
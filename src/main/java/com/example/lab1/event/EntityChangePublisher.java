@@ -0,0 +1,34 @@
+package com.example.lab1.event;
+
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener turning lifecycle callbacks into {@link EntityChangedEvent}s. Instantiated by Hibernate through
+ * the Spring bean container.
+ */
+@AllArgsConstructor
+public class EntityChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    void postPersist(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(entity, EntityChangedEvent.Type.CREATED));
+    }
+
+    @PostUpdate
+    void postUpdate(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(entity, EntityChangedEvent.Type.UPDATED));
+    }
+
+    @PostRemove
+    void postRemove(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(entity, EntityChangedEvent.Type.DELETED));
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.lab1.event;
+
+import org.hibernate.Hibernate;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Published whenever a {@link EntityChangePublisher listened} entity is persisted, updated or removed, whatever the
+ * code path (Spring Data REST, repositories or plain {@code EntityManager}). Listeners can narrow on the entity type,
+ * e.g. {@code EntityChangedEvent<Contact>}, and usually want {@code @TransactionalEventListener} so that they only
+ * see committed changes.
+ */
+public record EntityChangedEvent<T>(T entity, Type type) implements ResolvableTypeProvider {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forClass(Hibernate.getClass(entity)));
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.example.lab1.feed;
+
+/**
+ * @param sequence the position of the change in the {@link ChangeLog}
+ * @param id       the event ID sent to clients, i.e. the epoch of the {@link ChangeLog} and the sequence number
+ * @param type     the event name sent to clients
+ * @param data     the event data sent to clients, serialized once for all of them
+ */
+record ChangeEvent(long sequence, String id, String type, String data) {
+}
@@ -0,0 +1,282 @@
+package com.example.lab1.feed;
+
+import com.example.lab1.config.ChangeFeedProperties;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.core.event.AfterDeleteEvent;
+import org.springframework.data.rest.core.event.AfterLinkDeleteEvent;
+import org.springframework.data.rest.core.event.AfterLinkSaveEvent;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the changes made to installations and contacts through the REST API, as signalled by Spring Data REST
+ * repository events, to server-sent event clients.
+ * <p>
+ * Changes are appended to a {@link ChangeLog} shared by all clients, and sent to each client from a dedicated, bounded
+ * pool of {@code lab1.change-feed.sender-threads} threads, so that writers never wait for clients, and slow clients
+ * cannot hold up the rest of the application. A client whose backlog of unsent changes grows beyond
+ * {@code lab1.change-feed.client-buffer-size}, which is checked whenever a change is published, or whose changes
+ * cannot be queued for sending, is disconnected. Clients reconnecting with {@code Last-Event-ID} resume
+ * after that event if the log still retains the following changes; otherwise, they are sent a {@code reset} event,
+ * telling them to re-read the collection resources, and carry on from the latest change.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.change-feed", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class ChangeFeed implements Closeable {
+
+    private static final int SEND_BATCH_SIZE = 100;
+
+    private final ChangeLog changeLog;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolExecutor senders;
+
+    private final int clientBufferSize;
+
+    private final long timeoutMillis;
+
+    public ChangeFeed(ChangeFeedProperties properties, ObjectMapper objectMapper) {
+        this.changeLog = new ChangeLog(properties.getLogSize());
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(properties.getSenderThreads(), properties.getSenderThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getSenderQueueSize()), runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.clientBufferSize = properties.getClientBufferSize();
+        this.timeoutMillis = properties.getTimeout().toMillis();
+    }
+
+    /**
+     * @param lastEventId the ID of the last event received by the client, if it is reconnecting
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        long lastSequence = changeLog.lastSequence();
+        Long resumedSequence = lastEventId != null ? parseSequence(lastEventId) : null;
+        boolean resumable = resumedSequence != null && resumedSequence <= lastSequence;
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis),
+                resumable ? resumedSequence : lastSequence, lastEventId != null && !resumable);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        try {
+            // Gets the response headers flushed before the first change
+            subscriber.emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        subscriber.schedule();
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    void onCreated(AfterCreateEvent event) {
+        publish("created", event.getSource(), null);
+    }
+
+    @EventListener
+    void onSaved(AfterSaveEvent event) {
+        publish("updated", event.getSource(), null);
+    }
+
+    @EventListener
+    void onDeleted(AfterDeleteEvent event) {
+        publish("deleted", event.getSource(), null);
+    }
+
+    @EventListener
+    void onLinkSaved(AfterLinkSaveEvent event) {
+        publish("linked", event.getSource(), event.getLinked());
+    }
+
+    @EventListener
+    void onLinkDeleted(AfterLinkDeleteEvent event) {
+        publish("unlinked", event.getSource(), event.getLinked());
+    }
+
+    private void publish(String type, Object entity, Object linked) {
+        Reference reference = Reference.of(entity);
+        if (reference == null) {
+            return;
+        }
+        Long version = entity instanceof ProductionInstallation installation ? installation.getVersion()
+                : ((Contact) entity).getVersion();
+
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(new ChangeData(reference.resource(), reference.id(),
+                    "deleted".equals(type) ? null : version, Reference.of(linked)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        changeLog.append(type, data);
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    /**
+     * Stops sending changes; connected clients are left to time out.
+     */
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    private Long parseSequence(String eventId) {
+        String prefix = changeLog.epoch() + "-";
+        if (!eventId.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record ChangeData(String resource, long id, Long version, Reference linked) {
+    }
+
+    private record Reference(String resource, long id) {
+
+        static Reference of(Object entity) {
+            if (entity instanceof ProductionInstallation installation) {
+                return new Reference("production-installations", installation.getId());
+            } else if (entity instanceof Contact contact) {
+                return new Reference("contacts", contact.getId());
+            }
+            return null;
+        }
+
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Sequence number of the last change sent, only written by the (single) running {@link #drain}.
+         */
+        private volatile long cursor;
+
+        private boolean resetPending;
+
+        /**
+         * Backlog the subscriber is allowed, which shrinks down to the client buffer size as a resuming client
+         * catches up; only written by the running {@link #drain}.
+         */
+        private volatile long allowedBacklog;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, long cursor, boolean resetPending) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.resetPending = resetPending;
+            this.allowedBacklog = Long.MAX_VALUE;
+        }
+
+        /**
+         * Gets the changes appended so far sent, unless the client lags too far behind, in which case the running
+         * {@link #drain}, or a new one, disconnects it.
+         */
+        void schedule() {
+            if (closed) {
+                return;
+            }
+            if (!resetPending && changeLog.lastSequence() - cursor > allowedBacklog) {
+                log.debug("Disconnecting change feed client lagging {} change(s) behind",
+                        changeLog.lastSequence() - cursor);
+                close();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Disconnecting change feed client, too many clients waiting for changes");
+                    close();
+                    emitter.complete();
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    if (resetPending) {
+                        cursor = changeLog.lastSequence();
+                        resetPending = false;
+                        emitter.send(SseEmitter.event().id(changeLog.epoch() + "-" + cursor).name("reset").data("{}"));
+                    }
+
+                    long backlog = changeLog.lastSequence() - cursor;
+                    allowedBacklog = Math.max(clientBufferSize, Math.min(allowedBacklog, backlog));
+                    if (backlog > allowedBacklog) {
+                        log.debug("Disconnecting change feed client lagging {} change(s) behind", backlog);
+                        close();
+                        break;
+                    }
+
+                    List<ChangeEvent> events = changeLog.after(cursor, SEND_BATCH_SIZE);
+                    if (events == null) {
+                        resetPending = true;
+                    } else if (events.isEmpty()) {
+                        scheduled.set(false);
+                        // Changes appended since the read above found this subscriber still scheduled
+                        if (changeLog.lastSequence() == cursor || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                    } else {
+                        for (ChangeEvent event : events) {
+                            emitter.send(SseEmitter.event().id(event.id()).name(event.type()).data(event.data()));
+                            cursor = event.sequence();
+                        }
+                    }
+                }
+                // Closed, e.g. for lagging behind
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change feed client disconnected", e);
+                close();
+            }
+        }
+
+    }
+
+}
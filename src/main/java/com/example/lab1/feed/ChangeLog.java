@@ -0,0 +1,51 @@
+package com.example.lab1.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer of the most recent changes, numbered by a sequence which starts over with each {@link #epoch()}.
+ */
+class ChangeLog {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ChangeEvent[] events;
+
+    private long lastSequence;
+
+    ChangeLog(int size) {
+        this.events = new ChangeEvent[size];
+    }
+
+    String epoch() {
+        return epoch;
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    synchronized ChangeEvent append(String type, String data) {
+        long sequence = ++lastSequence;
+        ChangeEvent event = new ChangeEvent(sequence, epoch + "-" + sequence, type, data);
+        events[(int) (sequence % events.length)] = event;
+        return event;
+    }
+
+    /**
+     * @return at most {@code limit} changes following the given sequence number, or {@code null} if some of them are no
+     * longer retained
+     */
+    synchronized List<ChangeEvent> after(long sequence, int limit) {
+        if (lastSequence - sequence > events.length) {
+            return null;
+        }
+        List<ChangeEvent> result = new ArrayList<>((int) Math.min(limit, lastSequence - sequence));
+        for (long next = sequence + 1; next <= lastSequence && result.size() < limit; next++) {
+            result.add(events[(int) (next % events.length)]);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.example.lab1.index;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ContactAddressKey;
+import com.example.lab1.repository.ContactNameAndAddress;
+import com.example.lab1.repository.ContactRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory lookup of contacts by {@link ContactAddressKey}, i.e. by normalized name and address.
+ * <p>
+ * The index is loaded in the background once the application is ready and kept up to date from committed
+ * {@link EntityChangedEvent}s; until then, {@link #find} returns {@code null}. Contacts inserted with SQL, e.g. by
+ * {@code data.sql} or a snapshot from an earlier version, get their address hash computed at startup, so that they can
+ * be looked up from the database as well.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.contact-upsert", name = "enabled", matchIfMissing = true)
+@DependsOnDatabaseInitialization
+@Slf4j
+public class ContactAddressIndex {
+
+    private static final int HASHES_PER_BATCH = 1_000;
+
+    private final ContactRepository contactRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private State state;
+
+    private final List<Consumer<State>> pendingChanges = new ArrayList<>();
+
+    public ContactAddressIndex(ContactRepository contactRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.contactRepository = contactRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.taskExecutor = taskExecutor;
+    }
+
+    public synchronized boolean isReady() {
+        return state != null;
+    }
+
+    /**
+     * @return the lowest ID of the contacts with each of the given keys, for the keys of existing contacts, or
+     * {@code null} if the index is still being loaded
+     */
+    public synchronized Map<ContactAddressKey, Long> find(Collection<ContactAddressKey> keys) {
+        if (state == null) {
+            return null;
+        }
+        Map<ContactAddressKey, Long> ids = new HashMap<>();
+        for (ContactAddressKey key : keys) {
+            NavigableSet<Long> keyIds = state.idsByKey.get(key);
+            if (keyIds != null) {
+                ids.put(key, keyIds.first());
+            }
+        }
+        return ids;
+    }
+
+    @PostConstruct
+    void computeMissingHashes() {
+        List<Object[]> hashes = jdbcTemplate.query(
+                "SELECT ID, NAME, ZIP_CODE, HOUSE_NUMBER, CITY FROM CONTACT WHERE ADDRESS_HASH IS NULL",
+                (resultSet, rowNum) -> new Object[]{
+                        ContactAddressKey.of(resultSet.getString("NAME"), resultSet.getString("ZIP_CODE"),
+                                resultSet.getString("HOUSE_NUMBER"), resultSet.getString("CITY")).hash(),
+                        resultSet.getLong("ID")});
+        if (hashes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE CONTACT SET ADDRESS_HASH = ? WHERE ID = ?", hashes, HASHES_PER_BATCH,
+                (statement, hash) -> {
+                    statement.setLong(1, (Long) hash[0]);
+                    statement.setLong(2, (Long) hash[1]);
+                });
+        log.info("Address hashes computed for {} contact(s)", hashes.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        taskExecutor.execute(this::load);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onContactChanged(EntityChangedEvent<Contact> event) {
+        Contact contact = event.entity();
+        long id = contact.getId();
+        ContactAddressKey key = event.type() == EntityChangedEvent.Type.DELETED ? null : ContactAddressKey.of(contact);
+        apply(current -> current.put(id, key));
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        State loaded = new State();
+        snapshotTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ContactNameAndAddress> contacts = contactRepository.streamNamesAndAddresses()) {
+                contacts.forEach(contact -> loaded.put(contact.getId(), ContactAddressKey.of(contact.getName(),
+                        contact.getZipCode(), contact.getHouseNumber(), contact.getCity())));
+            }
+        });
+
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(loaded));
+            pendingChanges.clear();
+            state = loaded;
+        }
+        log.info("Contact address index loaded with {} contact(s) in {} ms", loaded.keysById.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        if (state != null) {
+            change.accept(state);
+        } else {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static final class State {
+
+        private final Map<ContactAddressKey, NavigableSet<Long>> idsByKey = new HashMap<>();
+
+        private final Map<Long, ContactAddressKey> keysById = new HashMap<>();
+
+        /**
+         * @param key the new key of the contact, or {@code null} if it was deleted
+         */
+        void put(long id, ContactAddressKey key) {
+            ContactAddressKey previous = key != null ? keysById.put(id, key) : keysById.remove(id);
+            if (previous != null && !previous.equals(key)) {
+                NavigableSet<Long> ids = idsByKey.get(previous);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    idsByKey.remove(previous);
+                }
+            }
+            if (key != null) {
+                idsByKey.computeIfAbsent(key, newKey -> new TreeSet<>()).add(id);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,332 @@
+package com.example.lab1.index;
+
+import com.example.lab1.config.ContactSearchProperties;
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.Contact;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ContactSearchFields;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory full-text index of contacts over their name, city and zip code.
+ * <p>
+ * Names and cities are split into lowercase tokens without diacritics, held in sorted inverted indexes which answer
+ * both exact and prefix lookups; zip codes are held whole, without separators, in a {@link ZipCodeTrie}. A query
+ * matches the contacts matching all of its terms, each term scoring by field (name over city and zip code) and by
+ * match (exact over prefix). A term matching nothing is retried with the tokens at an edit distance of 1.
+ * <p>
+ * The index is rebuilt in the background once the application is ready, reading ranges of contacts in parallel, and
+ * is kept up to date from committed {@link EntityChangedEvent}s; until then, {@link #search} returns {@code null}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.contact-search", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class ContactSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final double NAME_WEIGHT = 3.0;
+
+    private static final double CITY_WEIGHT = 2.0;
+
+    private static final double ZIP_CODE_WEIGHT = 2.0;
+
+    private static final double EXACT_MATCH = 1.0;
+
+    private static final double PREFIX_MATCH = 0.5;
+
+    private static final double FUZZY_MATCH = 0.25;
+
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private final ContactRepository contactRepository;
+
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private final ContactSearchProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment;
+
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    public ContactSearchIndex(ContactRepository contactRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                              ContactSearchProperties properties) {
+        this.contactRepository = contactRepository;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return segment != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the contacts matching every term of the query, by descending score then ID, or {@code null} if the index
+     * is still being built
+     */
+    public List<Hit> search(String query) {
+        List<String> terms = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if (segment == null) {
+                return null;
+            }
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = segment.score(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> previousScores = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        Double previousScore = previousScores.get(entry.getKey());
+                        if (previousScore != null) {
+                            scores.put(entry.getKey(), previousScore + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null) {
+                return List.of();
+            }
+            return scores.entrySet().stream()
+                    .map(entry -> new Hit(entry.getKey(), entry.getValue()))
+                    .sorted(Hit.ORDER)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onContactChanged(EntityChangedEvent<Contact> event) {
+        Contact contact = event.entity();
+        long id = contact.getId();
+        Document document = event.type() == EntityChangedEvent.Type.DELETED
+                ? null
+                : Document.of(contact.getName(), contact.getCity(), contact.getZipCode());
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                segment.put(id, document);
+            } else {
+                pendingChanges.add(() -> segment.put(id, document));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        long[] bounds = snapshotTransactionTemplate.execute(status -> new long[]{
+                contactRepository.findMinId().orElse(0L), contactRepository.findMaxId().orElse(-1L)});
+        int parallelism = properties.getRebuildParallelism();
+        long rangeSize = Math.max(1, (bounds[1] - bounds[0] + parallelism) / parallelism);
+
+        // Contacts changed while the ranges are read are indexed from the pending changes afterwards
+        List<CompletableFuture<Segment>> partialSegments = new ArrayList<>();
+        for (long from = bounds[0]; from <= bounds[1]; from += rangeSize) {
+            long fromId = from;
+            long toId = Math.min(bounds[1], from + rangeSize - 1);
+            partialSegments.add(CompletableFuture.supplyAsync(() -> load(fromId, toId), taskExecutor));
+        }
+        Segment loaded = new Segment();
+        partialSegments.forEach(partialSegment -> loaded.merge(partialSegment.join()));
+
+        lock.writeLock().lock();
+        try {
+            segment = loaded;
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Contact search index built with {} contact(s) in {} ms", loaded.documents.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Segment load(long fromId, long toId) {
+        Segment partialSegment = new Segment();
+        snapshotTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ContactSearchFields> contacts = contactRepository.streamSearchFieldsByIdBetween(fromId, toId)) {
+                contacts.forEach(contact -> partialSegment.put(contact.getId(),
+                        Document.of(contact.getName(), contact.getCity(), contact.getZipCode())));
+            }
+        });
+        return partialSegment;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(normalize(text))).filter(token -> !token.isEmpty()).distinct().toList();
+    }
+
+    private static String normalize(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return whether {@code left} and {@code right} are at a Levenshtein distance of exactly 1
+     */
+    static boolean isOneEditAway(String left, String right) {
+        if (left.length() > right.length()) {
+            return isOneEditAway(right, left);
+        }
+        if (right.length() - left.length() > 1) {
+            return false;
+        }
+        int prefix = 0;
+        while (prefix < left.length() && left.charAt(prefix) == right.charAt(prefix)) {
+            prefix++;
+        }
+        if (left.length() == right.length()) {
+            return prefix < left.length()
+                    && left.regionMatches(prefix + 1, right, prefix + 1, left.length() - prefix - 1);
+        }
+        return left.regionMatches(prefix, right, prefix + 1, left.length() - prefix);
+    }
+
+    public record Hit(long id, double score) {
+
+        static final Comparator<Hit> ORDER = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::id);
+
+    }
+
+    private record Document(List<String> nameTokens, List<String> cityTokens, String zipCode) {
+
+        static Document of(String name, String city, String zipCode) {
+            return new Document(tokenize(name), tokenize(city), String.join("", tokenize(zipCode)));
+        }
+
+    }
+
+    private static final class Segment {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        private final NavigableMap<String, Set<Long>> nameTokens = new TreeMap<>();
+
+        private final NavigableMap<String, Set<Long>> cityTokens = new TreeMap<>();
+
+        private final ZipCodeTrie zipCodes = new ZipCodeTrie();
+
+        void put(long id, Document document) {
+            Document previous = document != null ? documents.put(id, document) : documents.remove(id);
+            if (previous != null) {
+                previous.nameTokens.forEach(token -> removePosting(nameTokens, token, id));
+                previous.cityTokens.forEach(token -> removePosting(cityTokens, token, id));
+                zipCodes.remove(previous.zipCode, id);
+            }
+            if (document != null) {
+                document.nameTokens.forEach(token -> nameTokens.computeIfAbsent(token, key -> new HashSet<>()).add(id));
+                document.cityTokens.forEach(token -> cityTokens.computeIfAbsent(token, key -> new HashSet<>()).add(id));
+                zipCodes.add(document.zipCode, id);
+            }
+        }
+
+        void merge(Segment other) {
+            other.documents.forEach(this::put);
+        }
+
+        Map<Long, Double> score(String term) {
+            Map<Long, Double> scores = new HashMap<>();
+            score(nameTokens, term, NAME_WEIGHT, scores);
+            score(cityTokens, term, CITY_WEIGHT, scores);
+            zipCodes.collect(term, (ids, exact) ->
+                    accumulate(scores, ids, ZIP_CODE_WEIGHT * (exact ? EXACT_MATCH : PREFIX_MATCH)));
+
+            if (scores.isEmpty() && term.length() >= FUZZY_MIN_LENGTH) {
+                scoreFuzzy(nameTokens, term, NAME_WEIGHT, scores);
+                scoreFuzzy(cityTokens, term, CITY_WEIGHT, scores);
+            }
+            return scores;
+        }
+
+        private static void score(NavigableMap<String, Set<Long>> tokens, String term, double weight,
+                                  Map<Long, Double> scores) {
+            tokens.subMap(term, true, term + Character.MAX_VALUE, false).forEach((token, ids) ->
+                    accumulate(scores, ids, weight * (token.equals(term) ? EXACT_MATCH : PREFIX_MATCH)));
+        }
+
+        private static void scoreFuzzy(NavigableMap<String, Set<Long>> tokens, String term, double weight,
+                                       Map<Long, Double> scores) {
+            tokens.forEach((token, ids) -> {
+                if (isOneEditAway(term, token)) {
+                    accumulate(scores, ids, weight * FUZZY_MATCH);
+                }
+            });
+        }
+
+        /**
+         * Keeps the best score of a contact for the current term, e.g. when both its name and city match.
+         */
+        private static void accumulate(Map<Long, Double> scores, Set<Long> ids, double score) {
+            ids.forEach(id -> scores.merge(id, score, Math::max));
+        }
+
+        private static void removePosting(Map<String, Set<Long>> tokens, String token, long id) {
+            Set<Long> ids = tokens.get(token);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                tokens.remove(token);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.example.lab1.index;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.replica.ReadRouting;
+import org.hibernate.Hibernate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Number of rows of each entity type, counted once then kept exact from committed {@link EntityChangedEvent}s, so that
+ * the totals of paged collections need no count query.
+ * <p>
+ * A count is only kept if no transaction creating or deleting entities was committing, nor completed, while it ran:
+ * the count may or may not include the changes of such a transaction, whose events would then be applied to it
+ * regardless. A transaction is tracked from its first such change, published before the database commit, until its
+ * completion, after its committed events were applied. A count is not kept either when read from a lagging replica.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.collection-counts", name = "enabled", matchIfMissing = true)
+public class EntityCounts {
+
+    private final Map<Class<?>, Long> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Number of creations and deletions so far, telling whether one was committed while counting.
+     */
+    private long changes;
+
+    /**
+     * Number of transactions with creations or deletions that did not complete yet.
+     */
+    private int pendingTransactions;
+
+    /**
+     * @param query counts the entities of the given type, when not known yet
+     */
+    public long count(Class<?> type, LongSupplier query) {
+        Long count = counts.get(type);
+        if (count != null) {
+            return count;
+        }
+        long stamp = stamp();
+        long counted = query.getAsLong();
+        if (stamp >= 0 && !ReadRouting.isStaleRead()) {
+            synchronized (this) {
+                if (changes == stamp && pendingTransactions == 0) {
+                    counts.putIfAbsent(type, counted);
+                }
+            }
+        }
+        return counted;
+    }
+
+    /**
+     * Tracks the transaction of a creation or deletion, as soon as it is flushed.
+     */
+    @EventListener
+    void onEntityChanging(EntityChangedEvent<?> event) {
+        if (event.type() == EntityChangedEvent.Type.UPDATED
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        synchronized (this) {
+            pendingTransactions++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(EntityCounts.this);
+                synchronized (EntityCounts.this) {
+                    pendingTransactions--;
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntityChanged(EntityChangedEvent<?> event) {
+        long delta = switch (event.type()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        if (delta != 0) {
+            synchronized (this) {
+                changes++;
+                counts.computeIfPresent(Hibernate.getClass(event.entity()), (type, count) -> count + delta);
+            }
+        }
+    }
+
+    /**
+     * @return the number of changes so far, or -1 if a transaction with changes is pending
+     */
+    private synchronized long stamp() {
+        return pendingTransactions == 0 ? changes : -1;
+    }
+
+}
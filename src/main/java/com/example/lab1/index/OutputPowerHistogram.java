@@ -0,0 +1,181 @@
+package com.example.lab1.index;
+
+import com.example.lab1.config.CollectionCountProperties;
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.InstallationOutputPower;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Histogram of {@link ProductionInstallation#getOutputPower()}, estimating the number of installations within an
+ * output power range without touching the database.
+ * <p>
+ * Buckets are log-linear: each power of two is split into {@code lab1.collection-counts.histogram-buckets} buckets of
+ * equal width, i.e. the leading bits of the floating-point representation of a value select its bucket, so their
+ * relative width is the same over the whole range of values. Ranges partially covering a bucket count a proportional
+ * share of it.
+ * <p>
+ * The histogram is built in the background once the application is ready and follows committed creations and
+ * deletions. Events do not tell the previous output power of an updated installation, so updates only count towards
+ * a rebuild, started once they reach {@code lab1.collection-counts.histogram-rebuild-ratio} of the installations.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.collection-counts", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class OutputPowerHistogram {
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    /**
+     * Number of low-order bits of a value not selecting its bucket.
+     */
+    private final int shift;
+
+    private final double rebuildRatio;
+
+    private volatile NavigableMap<Long, Long> buckets;
+
+    private long total;
+
+    private long updates;
+
+    /**
+     * Changes committed while the histogram is being built, to be applied to it once built, or {@code null}.
+     */
+    private List<Change> pendingChanges = new ArrayList<>();
+
+    public OutputPowerHistogram(ProductionInstallationRepository productionInstallationRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                CollectionCountProperties properties) {
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.taskExecutor = taskExecutor;
+        this.shift = 52 - (32 - Integer.numberOfLeadingZeros(properties.getHistogramBuckets() - 1));
+        this.rebuildRatio = properties.getHistogramRebuildRatio();
+    }
+
+    public boolean isReady() {
+        return buckets != null;
+    }
+
+    /**
+     * @return the estimated number of installations whose output power lies in {@code [lowerLimit, upperLimit]}, or
+     * {@code null} if the histogram is still being built
+     */
+    public Long estimateBetween(double lowerLimit, double upperLimit) {
+        NavigableMap<Long, Long> current = buckets;
+        if (current == null) {
+            return null;
+        }
+        double lower = Math.max(lowerLimit, Double.MIN_VALUE);
+        if (!(lower <= upperLimit)) {
+            return 0L;
+        }
+        double estimate = 0;
+        for (Map.Entry<Long, Long> bucket : current.subMap(key(lower), true, key(upperLimit), true).entrySet()) {
+            double bucketLower = Double.longBitsToDouble(bucket.getKey() << shift);
+            double bucketUpper = Double.longBitsToDouble((bucket.getKey() + 1) << shift);
+            double covered = (Math.min(upperLimit, bucketUpper) - Math.max(lower, bucketLower))
+                    / (bucketUpper - bucketLower);
+            estimate += Math.max(0, bucket.getValue()) * Math.min(1, Math.max(0, covered));
+        }
+        return Math.round(estimate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        taskExecutor.execute(this::build);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onInstallationChanged(EntityChangedEvent<ProductionInstallation> event) {
+        Double outputPower = event.entity().getOutputPower();
+        boolean rebuild;
+        synchronized (this) {
+            switch (event.type()) {
+                case CREATED -> apply(new Change(outputPower, 1));
+                case DELETED -> apply(new Change(outputPower, -1));
+                case UPDATED -> updates++;
+            }
+            rebuild = pendingChanges == null && updates > rebuildRatio * total;
+            if (rebuild) {
+                pendingChanges = new ArrayList<>();
+            }
+        }
+        if (rebuild) {
+            taskExecutor.execute(this::build);
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        NavigableMap<Long, Long> built = new ConcurrentSkipListMap<>();
+        long[] count = new long[1];
+        snapshotTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<InstallationOutputPower> outputPowers =
+                         productionInstallationRepository.streamOutputPowersOrderByOutputPower()) {
+                outputPowers.forEach(entry -> {
+                    built.merge(key(entry.getOutputPower()), 1L, Long::sum);
+                    count[0]++;
+                });
+            }
+        });
+
+        synchronized (this) {
+            List<Change> changes = pendingChanges;
+            pendingChanges = null;
+            buckets = built;
+            total = count[0];
+            updates = 0;
+            changes.forEach(this::apply);
+        }
+        log.info("Output power histogram built over {} installation(s) in {} bucket(s) in {} ms", count[0],
+                built.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void apply(Change change) {
+        if (change.outputPower == null) {
+            return;
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        if (buckets != null) {
+            buckets.merge(key(change.outputPower), change.delta, Long::sum);
+            total += change.delta;
+        }
+    }
+
+    private long key(double value) {
+        return Double.doubleToLongBits(value) >>> shift;
+    }
+
+    private record Change(Double outputPower, long delta) {
+    }
+
+}
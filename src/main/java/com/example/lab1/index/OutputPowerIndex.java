@@ -0,0 +1,274 @@
+package com.example.lab1.index;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.InstallationOutputPower;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of {@link ProductionInstallation#getOutputPower()}, answering range queries by binary search.
+ * <p>
+ * Entries are held in primitive arrays, both sorted on (output power, id) for range queries and on id to find the
+ * previous output power of an updated installation. Readers work on an immutable snapshot; writers replace it under a
+ * lock (copy-on-write). The index is loaded in the background once the application is ready and is kept up to date
+ * from committed {@link EntityChangedEvent}s; until then, {@link #findIdsBetween} returns {@code null}.
+ * <p>
+ * The changes of a transaction are collected as they are flushed and merged into a new snapshot in one pass once it
+ * commits, so that a transaction changing many installations, e.g. a bulk import, copies the arrays only once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.output-power-index", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class OutputPowerIndex {
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private volatile Snapshot snapshot;
+
+    private final List<Change> pendingChanges = new ArrayList<>();
+
+    public OutputPowerIndex(ProductionInstallationRepository productionInstallationRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.taskExecutor = taskExecutor;
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.ids.length : 0;
+    }
+
+    /**
+     * @return the IDs of the installations whose output power lies in {@code [lowerLimit, upperLimit]}, ordered by
+     * output power and ID, or {@code null} if the index is still warming up
+     */
+    public long[] findIdsBetween(double lowerLimit, double upperLimit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int from = current.position(lowerLimit, Long.MIN_VALUE);
+        int to = current.position(upperLimit, Long.MAX_VALUE);
+        return from < to ? Arrays.copyOfRange(current.ids, from, to) : new long[0];
+    }
+
+    /**
+     * @return the number of installations whose output power lies in {@code [lowerLimit, upperLimit]}, or {@code -1}
+     * if the index is still warming up
+     */
+    public int countBetween(double lowerLimit, double upperLimit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return -1;
+        }
+        return Math.max(0, current.position(upperLimit, Long.MAX_VALUE) - current.position(lowerLimit, Long.MIN_VALUE));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        taskExecutor.execute(this::load);
+    }
+
+    @EventListener
+    void onInstallationChanged(EntityChangedEvent<ProductionInstallation> event) {
+        ProductionInstallation installation = event.entity();
+        Double outputPower = event.type() == EntityChangedEvent.Type.DELETED ? null : installation.getOutputPower();
+        Change change = new Change(installation.getId(), outputPower);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(change));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Change> changes = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<Change> transactionChanges = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, transactionChanges);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutputPowerIndex.this);
+                    if (status == STATUS_COMMITTED) {
+                        apply(transactionChanges);
+                    }
+                }
+            });
+            changes = transactionChanges;
+        }
+        changes.add(change);
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        Snapshot loaded = snapshotTransactionTemplate.execute(status -> {
+            try (Stream<InstallationOutputPower> byOutputPower = productionInstallationRepository.streamOutputPowersOrderByOutputPower();
+                 Stream<InstallationOutputPower> byId = productionInstallationRepository.streamOutputPowersOrderById()) {
+                Columns sortedByOutputPower = Columns.collect(byOutputPower);
+                Columns sortedById = Columns.collect(byId);
+                return new Snapshot(sortedByOutputPower.powers, sortedByOutputPower.ids, sortedById.ids, sortedById.powers);
+            }
+        });
+
+        synchronized (this) {
+            snapshot = loaded.with(pendingChanges);
+            pendingChanges.clear();
+        }
+        log.info("Output power index loaded with {} installation(s) in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized void apply(List<Change> changes) {
+        if (snapshot == null) {
+            pendingChanges.addAll(changes);
+        } else {
+            snapshot = snapshot.with(changes);
+        }
+    }
+
+    private record Change(long id, Double outputPower) {
+    }
+
+    private record Snapshot(double[] powers, long[] ids, long[] idsById, double[] powersById) {
+
+        /**
+         * @return the number of entries strictly lower than (outputPower, id)
+         */
+        int position(double outputPower, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = Double.compare(powers[middle], outputPower);
+                if (comparison < 0 || (comparison == 0 && ids[middle] < id)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @param changes in the order they happened, the last change of an installation prevailing
+         * @return a snapshot with the changes merged in, or this one if they change nothing
+         */
+        Snapshot with(List<Change> changes) {
+            Map<Long, Double> outputPowers = new HashMap<>();
+            changes.forEach(change -> outputPowers.put(change.id, change.outputPower));
+            outputPowers.entrySet().removeIf(change -> {
+                int byIdPosition = Arrays.binarySearch(idsById, change.getKey());
+                return byIdPosition >= 0
+                        ? change.getValue() != null && Double.compare(powersById[byIdPosition], change.getValue()) == 0
+                        : change.getValue() == null;
+            });
+            if (outputPowers.isEmpty()) {
+                return this;
+            }
+
+            Change[] added = outputPowers.entrySet().stream()
+                    .filter(change -> change.getValue() != null)
+                    .map(change -> new Change(change.getKey(), change.getValue()))
+                    .toArray(Change[]::new);
+            int removed = 0;
+            for (long id : idsById) {
+                if (outputPowers.containsKey(id)) {
+                    removed++;
+                }
+            }
+            int size = idsById.length - removed + added.length;
+
+            Arrays.sort(added, Comparator.comparingLong(Change::id));
+            long[] newIdsById = new long[size];
+            double[] newPowersById = new double[size];
+            int next = 0;
+            for (int i = 0, a = 0; i < idsById.length || a < added.length; ) {
+                if (i < idsById.length && outputPowers.containsKey(idsById[i])) {
+                    i++;
+                } else if (a == added.length || (i < idsById.length && idsById[i] < added[a].id)) {
+                    newIdsById[next] = idsById[i];
+                    newPowersById[next++] = powersById[i++];
+                } else {
+                    newIdsById[next] = added[a].id;
+                    newPowersById[next++] = added[a++].outputPower;
+                }
+            }
+
+            Arrays.sort(added, Comparator.comparingDouble(Change::outputPower).thenComparingLong(Change::id));
+            double[] newPowers = new double[size];
+            long[] newIds = new long[size];
+            next = 0;
+            for (int i = 0, a = 0; i < ids.length || a < added.length; ) {
+                if (i < ids.length && outputPowers.containsKey(ids[i])) {
+                    i++;
+                } else if (a == added.length || (i < ids.length && (Double.compare(powers[i], added[a].outputPower) < 0
+                        || (Double.compare(powers[i], added[a].outputPower) == 0 && ids[i] < added[a].id)))) {
+                    newPowers[next] = powers[i];
+                    newIds[next++] = ids[i++];
+                } else {
+                    newPowers[next] = added[a].outputPower;
+                    newIds[next++] = added[a++].id;
+                }
+            }
+            return new Snapshot(newPowers, newIds, newIdsById, newPowersById);
+        }
+
+    }
+
+    private static final class Columns {
+
+        private long[] ids = new long[1024];
+
+        private double[] powers = new double[1024];
+
+        private int size;
+
+        static Columns collect(Stream<InstallationOutputPower> entries) {
+            Columns columns = new Columns();
+            entries.forEach(entry -> {
+                if (columns.size == columns.ids.length) {
+                    columns.ids = Arrays.copyOf(columns.ids, columns.size * 2);
+                    columns.powers = Arrays.copyOf(columns.powers, columns.size * 2);
+                }
+                columns.ids[columns.size] = entry.getId();
+                columns.powers[columns.size] = entry.getOutputPower();
+                columns.size++;
+            });
+            columns.ids = Arrays.copyOf(columns.ids, columns.size);
+            columns.powers = Arrays.copyOf(columns.powers, columns.size);
+            return columns;
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.example.lab1.index;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Trie of normalized zip codes, each node holding the IDs of the contacts whose zip code ends there. Children are kept
+ * in sorted parallel arrays, which is compact for the small alphabet of zip codes. Not thread-safe.
+ */
+final class ZipCodeTrie {
+
+    private final Node root = new Node();
+
+    void add(String zipCode, long id) {
+        Node node = root;
+        for (int i = 0; i < zipCode.length(); i++) {
+            node = node.childOrCreate(zipCode.charAt(i));
+        }
+        if (node.ids == null) {
+            node.ids = new HashSet<>();
+        }
+        node.ids.add(id);
+    }
+
+    void remove(String zipCode, long id) {
+        remove(root, zipCode, 0, id);
+    }
+
+    /**
+     * Passes the IDs of every zip code starting with {@code prefix} to {@code consumer}, along with whether the zip
+     * code equals the prefix.
+     */
+    void collect(String prefix, BiConsumer<Set<Long>, Boolean> consumer) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node != null) {
+            if (node.ids != null) {
+                consumer.accept(node.ids, true);
+            }
+            for (int i = 0; i < node.size; i++) {
+                collectAll(node.children[i], consumer);
+            }
+        }
+    }
+
+    private static void collectAll(Node node, BiConsumer<Set<Long>, Boolean> consumer) {
+        if (node.ids != null) {
+            consumer.accept(node.ids, false);
+        }
+        for (int i = 0; i < node.size; i++) {
+            collectAll(node.children[i], consumer);
+        }
+    }
+
+    /**
+     * @return whether the node became empty and can be pruned
+     */
+    private static boolean remove(Node node, String zipCode, int depth, long id) {
+        if (depth == zipCode.length()) {
+            if (node.ids != null && node.ids.remove(id) && node.ids.isEmpty()) {
+                node.ids = null;
+            }
+        } else {
+            Node child = node.child(zipCode.charAt(depth));
+            if (child != null && remove(child, zipCode, depth + 1, id)) {
+                node.removeChild(zipCode.charAt(depth));
+            }
+        }
+        return node.ids == null && node.size == 0;
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private int size;
+
+        private Set<Long> ids;
+
+        Node child(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(children, position, children, position + 1, size - position);
+            Node child = new Node();
+            keys[position] = key;
+            children[position] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(children, position + 1, children, position, size - position - 1);
+            size--;
+            children[size] = null;
+        }
+
+    }
+
+}
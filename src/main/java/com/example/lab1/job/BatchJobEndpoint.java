@@ -0,0 +1,48 @@
+package com.example.lab1.job;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports the progress of the batch jobs with {@code GET /actuator/jobs[/{name}]}, and starts or resumes a job with
+ * {@code POST /actuator/jobs/{name}}.
+ */
+@Endpoint(id = "jobs")
+public class BatchJobEndpoint {
+
+    private final RangeJobRunner runner;
+
+    public BatchJobEndpoint(RangeJobRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * @return the progress of the latest run of each job, {@code null} for the jobs which never ran
+     */
+    @ReadOperation
+    public Map<String, JobProgress> jobs() {
+        Map<String, JobProgress> jobs = new LinkedHashMap<>();
+        runner.jobNames().forEach(name -> jobs.put(name, runner.progress(name)));
+        return jobs;
+    }
+
+    @ReadOperation
+    public JobProgress job(@Selector String name) {
+        return runner.progress(name);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<JobProgress> start(@Selector String name) {
+        JobProgress progress = runner.start(name);
+        return progress != null
+                ? new WebEndpointResponse<>(progress)
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+}
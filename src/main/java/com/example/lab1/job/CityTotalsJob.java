@@ -0,0 +1,71 @@
+package com.example.lab1.job;
+
+import com.example.lab1.repository.InstallationCityAndOutputPower;
+import com.example.lab1.repository.ProductionInstallationRepository;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts installations, and sums their output power, per city of their contact. Installations without an output power
+ * or a contact are left out, as in the capacity rollups.
+ */
+public class CityTotalsJob implements RangeJob<InstallationCityAndOutputPower, CityTotalsJob.CityTotals> {
+
+    private final ProductionInstallationRepository repository;
+
+    public CityTotalsJob(ProductionInstallationRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String name() {
+        return "city-totals";
+    }
+
+    @Override
+    public Class<CityTotals> summaryType() {
+        return CityTotals.class;
+    }
+
+    @Override
+    public IdRange idSpace() {
+        return IdRange.of(repository.findMinId(), repository.findMaxId());
+    }
+
+    @Override
+    public Stream<InstallationCityAndOutputPower> read(IdRange range) {
+        return repository.streamCitiesAndOutputPowersByIdBetween(range.fromId(), range.toId());
+    }
+
+    @Override
+    public CityTotals summarize(Stream<InstallationCityAndOutputPower> rows) {
+        return new CityTotals(rows
+                .filter(row -> row.getOutputPower() != null && row.getCity() != null)
+                .collect(Collectors.groupingBy(InstallationCityAndOutputPower::getCity, TreeMap::new,
+                        Collectors.teeing(Collectors.counting(),
+                                Collectors.summingDouble(InstallationCityAndOutputPower::getOutputPower),
+                                PowerTotals::new))));
+    }
+
+    @Override
+    public CityTotals merge(CityTotals left, CityTotals right) {
+        Map<String, PowerTotals> cities = new TreeMap<>(left.cities());
+        right.cities().forEach((city, totals) -> cities.merge(city, totals, PowerTotals::plus));
+        return new CityTotals(cities);
+    }
+
+    @Override
+    public CityTotals empty() {
+        return new CityTotals(Map.of());
+    }
+
+    /**
+     * @param cities totals per city, by city
+     */
+    public record CityTotals(Map<String, PowerTotals> cities) {
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.example.lab1.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Range of IDs, both bounds included.
+ */
+public record IdRange(long fromId, long toId) {
+
+    /**
+     * @return the range between the given bounds, or {@code null} if there is no lower bound, i.e. no rows
+     */
+    public static IdRange of(Optional<Long> minId, Optional<Long> maxId) {
+        return minId.map(fromId -> new IdRange(fromId, maxId.orElseThrow())).orElse(null);
+    }
+
+    /**
+     * @return consecutive ranges of {@code size} IDs covering this one, the last one being shorter if need be
+     */
+    public List<IdRange> split(long size) {
+        List<IdRange> ranges = new ArrayList<>();
+        for (long from = fromId; from <= toId; from += size) {
+            ranges.add(new IdRange(from, Math.min(toId, from + size - 1)));
+            if (toId - from < size) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+}
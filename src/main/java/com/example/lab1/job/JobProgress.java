@@ -0,0 +1,35 @@
+package com.example.lab1.job;
+
+import java.time.Instant;
+
+/**
+ * Progress of the latest run of a job.
+ *
+ * @param totalRanges     number of ID ranges of the run
+ * @param completedRanges number of ID ranges completed, including the resumed ones
+ * @param resumedRanges   number of ID ranges completed by an earlier attempt of the run, hence not read again
+ * @param rows            number of rows read by the current attempt of the run
+ * @param rowsPerSecond   rows read per second by the current attempt, or {@code null} if it was made by an earlier
+ *                        process
+ * @param result          summary of all the rows, once the run is completed
+ */
+public record JobProgress(String job, long runId, Status status, Instant startedAt, Instant finishedAt,
+                          int totalRanges, int completedRanges, int resumedRanges, long rows, Double rowsPerSecond,
+                          Object result, String error) {
+
+    public enum Status {
+
+        RUNNING,
+
+        COMPLETED,
+
+        FAILED,
+
+        /**
+         * The application stopped while the run was in progress.
+         */
+        INTERRUPTED
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.example.lab1.job;
+
+import com.example.lab1.repository.ContactInstallationCount;
+import com.example.lab1.repository.ContactRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Finds the contacts left without any installation, e.g. after their installations were deleted.
+ */
+public class OrphanedContactsJob implements RangeJob<ContactInstallationCount, OrphanedContactsJob.OrphanedContacts> {
+
+    private final ContactRepository repository;
+
+    public OrphanedContactsJob(ContactRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String name() {
+        return "orphaned-contacts";
+    }
+
+    @Override
+    public Class<OrphanedContacts> summaryType() {
+        return OrphanedContacts.class;
+    }
+
+    @Override
+    public IdRange idSpace() {
+        return IdRange.of(repository.findMinId(), repository.findMaxId());
+    }
+
+    @Override
+    public Stream<ContactInstallationCount> read(IdRange range) {
+        return repository.streamInstallationCountsByIdBetween(range.fromId(), range.toId());
+    }
+
+    @Override
+    public OrphanedContacts summarize(Stream<ContactInstallationCount> rows) {
+        List<Long> ids = rows
+                .filter(row -> row.getInstallationCount() == 0)
+                .map(ContactInstallationCount::getId)
+                .sorted()
+                .toList();
+        return new OrphanedContacts(ids.size(), ids);
+    }
+
+    @Override
+    public OrphanedContacts merge(OrphanedContacts left, OrphanedContacts right) {
+        return new OrphanedContacts(left.count() + right.count(),
+                Stream.concat(left.ids().stream(), right.ids().stream()).toList());
+    }
+
+    @Override
+    public OrphanedContacts empty() {
+        return new OrphanedContacts(0, List.of());
+    }
+
+    /**
+     * @param ids IDs of the contacts without installation, in increasing order
+     */
+    public record OrphanedContacts(long count, List<Long> ids) {
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.example.lab1.job;
+
+import com.example.lab1.repository.InstallationOutputPower;
+import com.example.lab1.repository.ProductionInstallationRepository;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Counts installations, and sums their output power, per decade of output power: the band of an installation is named
+ * after the power of ten at or below its output power, e.g. {@code 10} for 10 up to 100 excluded.
+ */
+public class PowerBandJob implements RangeJob<InstallationOutputPower, PowerBandJob.PowerBands> {
+
+    private static final Comparator<String> BY_LOWER_BOUND = Comparator.comparing(BigDecimal::new);
+
+    private final ProductionInstallationRepository repository;
+
+    public PowerBandJob(ProductionInstallationRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String name() {
+        return "power-bands";
+    }
+
+    @Override
+    public Class<PowerBands> summaryType() {
+        return PowerBands.class;
+    }
+
+    @Override
+    public IdRange idSpace() {
+        return IdRange.of(repository.findMinId(), repository.findMaxId());
+    }
+
+    @Override
+    public Stream<InstallationOutputPower> read(IdRange range) {
+        return repository.streamOutputPowersByIdBetween(range.fromId(), range.toId());
+    }
+
+    @Override
+    public PowerBands summarize(Stream<InstallationOutputPower> rows) {
+        return rows.collect(Collectors.teeing(
+                Collectors.filtering(row -> row.getOutputPower() != null, Collectors.groupingBy(
+                        row -> band(row.getOutputPower()), () -> new TreeMap<>(BY_LOWER_BOUND),
+                        Collectors.teeing(Collectors.counting(),
+                                Collectors.summingDouble(InstallationOutputPower::getOutputPower),
+                                PowerTotals::new))),
+                Collectors.filtering(row -> row.getOutputPower() == null, Collectors.counting()),
+                PowerBands::new));
+    }
+
+    @Override
+    public PowerBands merge(PowerBands left, PowerBands right) {
+        Map<String, PowerTotals> bands = new TreeMap<>(BY_LOWER_BOUND);
+        bands.putAll(left.bands());
+        right.bands().forEach((band, totals) -> bands.merge(band, totals, PowerTotals::plus));
+        return new PowerBands(bands, left.withoutOutputPower() + right.withoutOutputPower());
+    }
+
+    @Override
+    public PowerBands empty() {
+        return new PowerBands(Map.of(), 0);
+    }
+
+    private static String band(double outputPower) {
+        return BigDecimal.ONE.scaleByPowerOfTen((int) Math.floor(Math.log10(outputPower))).toPlainString();
+    }
+
+    /**
+     * @param bands              totals per band, by increasing output power
+     * @param withoutOutputPower number of installations without an output power, hence in no band
+     */
+    public record PowerBands(Map<String, PowerTotals> bands, long withoutOutputPower) {
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.example.lab1.job;
+
+/**
+ * Number and total output power of a group of installations.
+ */
+public record PowerTotals(long count, double sum) {
+
+    public static final PowerTotals ZERO = new PowerTotals(0, 0);
+
+    public PowerTotals plus(double outputPower) {
+        return new PowerTotals(count + 1, sum + outputPower);
+    }
+
+    public PowerTotals plus(PowerTotals other) {
+        return new PowerTotals(count + other.count, sum + other.sum);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.lab1.job;
+
+import java.util.stream.Stream;
+
+/**
+ * Computation over all the rows of a table, summarized range of IDs by range of IDs, so that {@link RangeJobRunner}
+ * can read the ranges in parallel and resume an interrupted run from the summaries of the ranges already completed.
+ * Rows are read as read-only projections rather than managed entities.
+ *
+ * @param <P> type of the projections read
+ * @param <S> type of the summaries, which are recorded as JSON
+ */
+public interface RangeJob<P, S> {
+
+    /**
+     * @return the name of the job, unique among jobs
+     */
+    String name();
+
+    /**
+     * @return the type of the summaries, to read the recorded ones back
+     */
+    Class<S> summaryType();
+
+    /**
+     * @return the IDs to read, or {@code null} if there is no row
+     */
+    IdRange idSpace();
+
+    /**
+     * Reads the rows with IDs in the given range, within a read-only transaction.
+     */
+    Stream<P> read(IdRange range);
+
+    /**
+     * @return the summary of the rows of a range
+     */
+    S summarize(Stream<P> rows);
+
+    /**
+     * @return the summary of the rows of two consecutive ranges, {@code left} having the lower IDs
+     */
+    S merge(S left, S right);
+
+    /**
+     * @return the summary of no row
+     */
+    S empty();
+
+}
@@ -0,0 +1,376 @@
+package com.example.lab1.job;
+
+import com.example.lab1.job.JobProgress.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link RangeJob}s on a fork/join pool. The ID space of a job is cut into ranges of {@code range-size} IDs, which
+ * are split in halves recursively: each range is read in its own read-only transaction and summarized, then the
+ * summaries are merged back up, idle workers stealing halves from busy ones so that ranges of uneven density still
+ * keep every worker busy. Ranges being read in separate transactions, the result of a run is not a snapshot of the
+ * database at a single point in time.
+ * <p>
+ * Each run is recorded in {@code BATCH_JOB_RUN}, and the summary of each completed range in {@code BATCH_JOB_RANGE}.
+ * Starting a job whose latest run did not complete, because it failed or the application stopped meanwhile, resumes
+ * that run over the same ranges, merging the recorded summaries instead of reading their ranges again.
+ */
+@Slf4j
+public class RangeJobRunner implements Closeable {
+
+    private final Map<String, RangeJob<?, ?>> jobs;
+
+    private final long rangeSize;
+
+    private final ForkJoinPool pool;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Execution<?, ?>> executions = new ConcurrentHashMap<>();
+
+    public RangeJobRunner(List<RangeJob<?, ?>> jobs, int parallelism, long rangeSize, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.jobs = jobs.stream().collect(Collectors.toMap(RangeJob::name, Function.identity(),
+                (first, second) -> {
+                    throw new IllegalArgumentException("Duplicate job name " + first.name());
+                }, TreeMap::new));
+        this.rangeSize = rangeSize;
+        ClassLoader classLoader = getClass().getClassLoader();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("batch-job-" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.readOnlyTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+    }
+
+    public void createTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS BATCH_JOB_RUN ("
+                + "ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, JOB_NAME VARCHAR(100) NOT NULL, "
+                + "MIN_ID BIGINT NOT NULL, MAX_ID BIGINT NOT NULL, RANGE_SIZE BIGINT NOT NULL, "
+                + "STATUS VARCHAR(20) NOT NULL, STARTED_AT TIMESTAMP NOT NULL, FINISHED_AT TIMESTAMP, "
+                + "RESULT CLOB, ERROR VARCHAR(1000))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS BATCH_JOB_RUN_JOB_NAME ON BATCH_JOB_RUN (JOB_NAME, ID)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS BATCH_JOB_RANGE ("
+                + "RUN_ID BIGINT NOT NULL, RANGE_START BIGINT NOT NULL, RANGE_END BIGINT NOT NULL, "
+                + "ROW_COUNT BIGINT NOT NULL, SUMMARY CLOB NOT NULL, COMPLETED_AT TIMESTAMP NOT NULL, "
+                + "PRIMARY KEY (RUN_ID, RANGE_START))");
+        // Left running by a previous process
+        jdbcTemplate.update("UPDATE BATCH_JOB_RUN SET STATUS = ? WHERE STATUS = ?",
+                Status.INTERRUPTED.name(), Status.RUNNING.name());
+    }
+
+    public Set<String> jobNames() {
+        return jobs.keySet();
+    }
+
+    /**
+     * @return the progress of the latest run of the job, or {@code null} if there is no such job or it never ran
+     */
+    public JobProgress progress(String name) {
+        RangeJob<?, ?> job = jobs.get(name);
+        if (job == null) {
+            return null;
+        }
+        Execution<?, ?> execution = executions.get(name);
+        if (execution != null) {
+            return execution.progress();
+        }
+        Run run = latestRun(name);
+        return run != null ? recordedProgress(job, run) : null;
+    }
+
+    /**
+     * Starts a new run of the job in the background, or resumes its latest run if that did not complete.
+     *
+     * @return the progress of the run, which may already have been running, or {@code null} if there is no such job
+     */
+    public synchronized JobProgress start(String name) {
+        RangeJob<?, ?> job = jobs.get(name);
+        if (job == null) {
+            return null;
+        }
+        Execution<?, ?> current = executions.get(name);
+        if (current != null && current.status == Status.RUNNING) {
+            return current.progress();
+        }
+        Execution<?, ?> execution = prepare(job);
+        executions.put(name, execution);
+        pool.execute(execution::run);
+        return execution.progress();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Batch jobs still running after shutdown");
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <P, S> Execution<P, S> prepare(RangeJob<P, S> job) {
+        Run run = latestRun(job.name());
+        if (run != null && run.status != Status.COMPLETED) {
+            Map<Long, S> summaries = new HashMap<>();
+            long[] rows = {0};
+            jdbcTemplate.query("SELECT RANGE_START, ROW_COUNT, SUMMARY FROM BATCH_JOB_RANGE WHERE RUN_ID = ?",
+                    resultSet -> {
+                        summaries.put(resultSet.getLong(1), readSummary(job, resultSet.getString(3)));
+                        rows[0] += resultSet.getLong(2);
+                    }, run.id);
+            jdbcTemplate.update("UPDATE BATCH_JOB_RUN SET STATUS = ?, ERROR = NULL WHERE ID = ?",
+                    Status.RUNNING.name(), run.id);
+            log.info("Resuming run {} of batch job {} with {} range(s) completed", run.id, job.name(), summaries.size());
+            return new Execution<>(job, run.id, run.startedAt, run.idSpace.split(run.rangeSize), summaries, rows[0]);
+        }
+
+        IdRange idSpace = Objects.requireNonNullElse(readOnlyTransactionTemplate.execute(status -> job.idSpace()),
+                new IdRange(0, -1));
+        Instant startedAt = Instant.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO BATCH_JOB_RUN "
+                    + "(JOB_NAME, MIN_ID, MAX_ID, RANGE_SIZE, STATUS, STARTED_AT) VALUES (?, ?, ?, ?, ?, ?)",
+                    new String[]{"ID"});
+            statement.setString(1, job.name());
+            statement.setLong(2, idSpace.fromId());
+            statement.setLong(3, idSpace.toId());
+            statement.setLong(4, rangeSize);
+            statement.setString(5, Status.RUNNING.name());
+            statement.setTimestamp(6, Timestamp.from(startedAt));
+            return statement;
+        }, keyHolder);
+        long runId = Objects.requireNonNull(keyHolder.getKey()).longValue();
+        return new Execution<>(job, runId, startedAt, idSpace.split(rangeSize), Map.of(), 0);
+    }
+
+    private Run latestRun(String name) {
+        return jdbcTemplate.query("SELECT ID, MIN_ID, MAX_ID, RANGE_SIZE, STATUS, STARTED_AT, FINISHED_AT, RESULT, "
+                        + "ERROR FROM BATCH_JOB_RUN WHERE JOB_NAME = ? ORDER BY ID DESC LIMIT 1",
+                resultSet -> resultSet.next() ? Run.of(resultSet) : null, name);
+    }
+
+    private JobProgress recordedProgress(RangeJob<?, ?> job, Run run) {
+        Map<String, Object> ranges = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS RANGE_COUNT, COALESCE(SUM(ROW_COUNT), 0) AS ROW_COUNT FROM BATCH_JOB_RANGE "
+                        + "WHERE RUN_ID = ?", run.id);
+        return new JobProgress(job.name(), run.id, run.status, run.startedAt, run.finishedAt,
+                run.idSpace.split(run.rangeSize).size(), ((Number) ranges.get("RANGE_COUNT")).intValue(), 0,
+                ((Number) ranges.get("ROW_COUNT")).longValue(), null,
+                run.result != null ? readSummary(job, run.result) : null, run.error);
+    }
+
+    private <S> S readSummary(RangeJob<?, S> job, String json) {
+        try {
+            return objectMapper.readValue(json, job.summaryType());
+        } catch (JsonProcessingException exc) {
+            throw new IllegalStateException("Could not read summary of batch job " + job.name(), exc);
+        }
+    }
+
+    private String writeSummary(Object summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException exc) {
+            throw new IllegalStateException("Could not write summary " + summary, exc);
+        }
+    }
+
+    private record Run(long id, IdRange idSpace, long rangeSize, Status status, Instant startedAt,
+                       Instant finishedAt, String result, String error) {
+
+        static Run of(ResultSet resultSet) throws SQLException {
+            Timestamp finishedAt = resultSet.getTimestamp("FINISHED_AT");
+            return new Run(resultSet.getLong("ID"),
+                    new IdRange(resultSet.getLong("MIN_ID"), resultSet.getLong("MAX_ID")),
+                    resultSet.getLong("RANGE_SIZE"),
+                    Status.valueOf(resultSet.getString("STATUS")),
+                    resultSet.getTimestamp("STARTED_AT").toInstant(),
+                    finishedAt != null ? finishedAt.toInstant() : null,
+                    resultSet.getString("RESULT"),
+                    resultSet.getString("ERROR"));
+        }
+
+    }
+
+    /**
+     * Attempt of a run, i.e. the run itself unless it resumes an earlier attempt.
+     */
+    private final class Execution<P, S> {
+
+        private final RangeJob<P, S> job;
+
+        private final long runId;
+
+        private final Instant startedAt;
+
+        private final List<IdRange> ranges;
+
+        /**
+         * Summaries recorded by earlier attempts, by first ID of their range.
+         */
+        private final Map<Long, S> recordedSummaries;
+
+        private final long recordedRows;
+
+        private final AtomicInteger completedRanges;
+
+        private final LongAdder rows = new LongAdder();
+
+        private final long startNanos = System.nanoTime();
+
+        private volatile Status status = Status.RUNNING;
+
+        private volatile long elapsedNanos;
+
+        private volatile Instant finishedAt;
+
+        private volatile S result;
+
+        private volatile String error;
+
+        Execution(RangeJob<P, S> job, long runId, Instant startedAt, List<IdRange> ranges,
+                  Map<Long, S> recordedSummaries, long recordedRows) {
+            this.job = job;
+            this.runId = runId;
+            this.startedAt = startedAt;
+            this.ranges = ranges;
+            this.recordedSummaries = recordedSummaries;
+            this.recordedRows = recordedRows;
+            this.completedRanges = new AtomicInteger(recordedSummaries.size());
+        }
+
+        void run() {
+            try {
+                S summary = ranges.isEmpty() ? job.empty() : new RangeTask(0, ranges.size()).invoke();
+                finishedAt = Instant.now();
+                jdbcTemplate.update("UPDATE BATCH_JOB_RUN SET STATUS = ?, FINISHED_AT = ?, RESULT = ? WHERE ID = ?",
+                        Status.COMPLETED.name(), Timestamp.from(finishedAt), writeSummary(summary), runId);
+                result = summary;
+                elapsedNanos = System.nanoTime() - startNanos;
+                status = Status.COMPLETED;
+                log.info("Run {} of batch job {} completed: {} row(s) read in {} ms ({} rows/s)", runId, job.name(),
+                        rows.sum(), elapsedNanos / 1_000_000, Math.round(rowsPerSecond()));
+            } catch (RuntimeException exc) {
+                log.error("Run {} of batch job {} failed after {} of {} range(s)", runId, job.name(),
+                        completedRanges.get(), ranges.size(), exc);
+                finishedAt = Instant.now();
+                error = Objects.requireNonNullElse(exc.getMessage(), exc.getClass().getName());
+                error = error.substring(0, Math.min(error.length(), 1000));
+                jdbcTemplate.update("UPDATE BATCH_JOB_RUN SET STATUS = ?, FINISHED_AT = ?, ERROR = ? WHERE ID = ?",
+                        Status.FAILED.name(), Timestamp.from(finishedAt), error, runId);
+                elapsedNanos = System.nanoTime() - startNanos;
+                status = Status.FAILED;
+            }
+        }
+
+        JobProgress progress() {
+            return new JobProgress(job.name(), runId, status, startedAt, finishedAt, ranges.size(),
+                    completedRanges.get(), recordedSummaries.size(), recordedRows + rows.sum(), rowsPerSecond(),
+                    result, error);
+        }
+
+        private double rowsPerSecond() {
+            long elapsed = status == Status.RUNNING ? System.nanoTime() - startNanos : elapsedNanos;
+            return elapsed > 0 ? rows.sum() * 1e9 / elapsed : 0;
+        }
+
+        private S summarize(IdRange range) {
+            S recordedSummary = recordedSummaries.get(range.fromId());
+            if (recordedSummary != null) {
+                return recordedSummary;
+            }
+
+            long[] rowCount = {0};
+            S summary = readOnlyTransactionTemplate.execute(status -> {
+                try (Stream<P> rangeRows = job.read(range)) {
+                    return job.summarize(rangeRows.peek(row -> rowCount[0]++));
+                }
+            });
+            jdbcTemplate.update("INSERT INTO BATCH_JOB_RANGE (RUN_ID, RANGE_START, RANGE_END, ROW_COUNT, SUMMARY, "
+                            + "COMPLETED_AT) VALUES (?, ?, ?, ?, ?, ?)", runId, range.fromId(), range.toId(),
+                    rowCount[0], writeSummary(summary), Timestamp.from(Instant.now()));
+            rows.add(rowCount[0]);
+
+            int completed = completedRanges.incrementAndGet();
+            if (completed * 10L / ranges.size() > (completed - 1) * 10L / ranges.size()) {
+                log.info("Run {} of batch job {}: {} of {} range(s) completed, {} rows/s", runId, job.name(),
+                        completed, ranges.size(), Math.round(rowsPerSecond()));
+            }
+            return summary;
+        }
+
+        /**
+         * Summary of the ranges from index {@code from} included to {@code to} excluded.
+         */
+        private final class RangeTask extends RecursiveTask<S> {
+
+            private final int from;
+
+            private final int to;
+
+            RangeTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected S compute() {
+                if (to - from == 1) {
+                    return summarize(ranges.get(from));
+                }
+                int middle = (from + to) >>> 1;
+                RangeTask left = new RangeTask(from, middle);
+                left.fork();
+                S right = new RangeTask(middle, to).compute();
+                return job.merge(left.join(), right);
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.example.lab1.metrics;
+
+import com.example.lab1.config.SlowQueryLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listens to the JDBC statements executed through the application data source: counts them per thread, and logs those
+ * slower than {@code lab1.slow-query-log.threshold} with their bind parameters and, at most once every
+ * {@code lab1.slow-query-log.plan-interval}, their H2 query plan.
+ */
+@Slf4j
+public class QueryMetrics implements QueryExecutionListener, MeterBinder {
+
+    /**
+     * Running count of the statements executed by each thread; a mutable holder, so that counting does not allocate.
+     */
+    private static final ThreadLocal<long[]> STATEMENT_COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final boolean slowQueryLogEnabled;
+
+    private final long thresholdMillis;
+
+    private final long planIntervalNanos;
+
+    private final AtomicLong nextPlanCapture = new AtomicLong(System.nanoTime());
+
+    private volatile Counter slowQueries;
+
+    public QueryMetrics(SlowQueryLogProperties properties) {
+        this.slowQueryLogEnabled = properties.isEnabled();
+        this.thresholdMillis = properties.getThreshold().toMillis();
+        this.planIntervalNanos = properties.getPlanInterval().toNanos();
+    }
+
+    /**
+     * @return the number of statements executed so far by the current thread
+     */
+    public long statementCount() {
+        return STATEMENT_COUNT.get()[0];
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        slowQueries = Counter.builder("jdbc.queries.slow")
+                .description("Number of JDBC statements slower than the slow query log threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        STATEMENT_COUNT.get()[0]++;
+        if (!slowQueryLogEnabled || execInfo.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+
+        Counter counter = slowQueries;
+        if (counter != null) {
+            counter.increment();
+        }
+        boolean capturePlan = !execInfo.isBatch() && tryAcquirePlanCapture();
+        for (QueryInfo queryInfo : queryInfoList) {
+            String plan = capturePlan ? explain(execInfo.getStatement(), queryInfo) : null;
+            log.warn("Slow query ({} ms): {} {}{}", execInfo.getElapsedTime(), queryInfo.getQuery(),
+                    parameters(queryInfo), plan != null ? System.lineSeparator() + "Query plan: " + plan : "");
+        }
+    }
+
+    private boolean tryAcquirePlanCapture() {
+        long now = System.nanoTime();
+        long next = nextPlanCapture.get();
+        return now - next >= 0 && nextPlanCapture.compareAndSet(next, now + planIntervalNanos);
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        StringJoiner batches = new StringJoiner(", ");
+        for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+            StringJoiner values = new StringJoiner(", ", "[", "]");
+            operations.stream()
+                    .filter(operation -> operation.getArgs()[0] instanceof Integer)
+                    .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                    .forEach(operation -> values.add(String.valueOf(value(operation))));
+            batches.add(values.toString());
+        }
+        return batches.toString();
+    }
+
+    /**
+     * Runs {@code EXPLAIN} on the connection of the slow statement, so that it sees the same transaction.
+     */
+    private static String explain(Statement statement, QueryInfo queryInfo) {
+        try (PreparedStatement explain = statement.getConnection().prepareStatement("EXPLAIN " + queryInfo.getQuery())) {
+            if (!queryInfo.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                    if (operation.getArgs()[0] instanceof Integer index) {
+                        explain.setObject(index, value(operation));
+                    }
+                }
+            }
+            StringJoiner plan = new StringJoiner(System.lineSeparator());
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.add(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            log.debug("Could not capture the query plan of: {}", queryInfo.getQuery(), e);
+            return null;
+        }
+    }
+
+    private static Object value(ParameterSetOperation operation) {
+        return ParameterSetOperation.isSetNullParameterOperation(operation) ? null : operation.getArgs()[1];
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.example.lab1.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the number of JDBC statements executed by each request, tagged like {@code http.server.requests}. Summaries
+ * are registered once per method and URI pattern, then looked up from a local map.
+ */
+@AllArgsConstructor
+public class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+    private final QueryMetrics queryMetrics;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Tags, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long before = queryMetrics.statementCount();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            summaries.computeIfAbsent(Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response)),
+                            tags -> DistributionSummary.builder("http.server.requests.statements")
+                                    .description("Number of JDBC statements executed per request")
+                                    .tags(tags)
+                                    .register(meterRegistry))
+                    .record(queryMetrics.statementCount() - before);
+        }
+    }
+
+}
@@ -1,17 +1,35 @@
 package com.example.lab1.model;
 
+import com.example.lab1.event.EntityChangePublisher;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 
 @Entity
+@Table(indexes = @Index(name = "CONTACT_ADDRESS_HASH", columnList = "addressHash"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@JsonIgnoreProperties("hibernateLazyInitializer")
+@EntityListeners(EntityChangePublisher.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,9 +37,13 @@ import javax.validation.constraints.NotBlank;
 public class Contact {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_seq")
+        @SequenceGenerator(name = "contact_seq", sequenceName = "CONTACT_SEQ", allocationSize = 50)
         private Long id;
 
+        @Version
+        private Long version;
+
         @NotBlank
         private String name;
 
@@ -34,4 +56,16 @@ public class Contact {
         @NotBlank
         private String houseNumber;
 
+        /**
+         * Hash of the {@link ContactAddressKey}, to look contacts up by name and address.
+         */
+        @JsonIgnore
+        private Long addressHash;
+
+        @PrePersist
+        @PreUpdate
+        void computeAddressHash() {
+                addressHash = ContactAddressKey.of(this).hash();
+        }
+
 }
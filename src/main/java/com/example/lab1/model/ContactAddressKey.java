@@ -0,0 +1,52 @@
+package com.example.lab1.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Natural key of a contact: its name and address, normalized so that the same contact sent with another case, spacing
+ * or Unicode composition gets the same key. Zip codes and house numbers are compared without any whitespace, e.g.
+ * {@code 6811 AB} and {@code 6811ab}.
+ */
+public record ContactAddressKey(String name, String zipCode, String houseNumber, String city) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static ContactAddressKey of(Contact contact) {
+        return of(contact.getName(), contact.getZipCode(), contact.getHouseNumber(), contact.getCity());
+    }
+
+    public static ContactAddressKey of(String name, String zipCode, String houseNumber, String city) {
+        return new ContactAddressKey(normalize(name, " "), normalize(zipCode, ""), normalize(houseNumber, ""),
+                normalize(city, " "));
+    }
+
+    /**
+     * @return the first 64 bits of the SHA-256 digest of the key, stable across processes
+     */
+    public long hash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(exc);
+        }
+        // Separated by a character which normalized fields cannot hold
+        String key = String.join("\n", name, zipCode, houseNumber, city);
+        return ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private static String normalize(String field, String whitespace) {
+        if (field == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(Normalizer.normalize(field, Normalizer.Form.NFKC).strip()).replaceAll(whitespace)
+                .toLowerCase(Locale.ROOT);
+    }
+
+}
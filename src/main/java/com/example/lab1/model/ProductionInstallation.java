@@ -1,20 +1,34 @@
 package com.example.lab1.model;
 
+import com.example.lab1.event.EntityChangePublisher;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(EntityChangePublisher.class)
+@Table(indexes = @Index(columnList = "outputPower, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,9 +36,13 @@ import javax.validation.constraints.NotBlank;
 public class ProductionInstallation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "production_installation_seq")
+    @SequenceGenerator(name = "production_installation_seq", sequenceName = "PRODUCTION_INSTALLATION_SEQ", allocationSize = 50)
     private Long id;
 
+    @Version
+    private Long version;
+
     @NotBlank
     private String name;
 
@@ -32,7 +50,7 @@ public class ProductionInstallation {
     @DecimalMax("999999")
     private Double outputPower;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private Contact contact;
 
 }
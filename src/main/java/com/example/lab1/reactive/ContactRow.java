@@ -0,0 +1,18 @@
+package com.example.lab1.reactive;
+
+import io.r2dbc.spi.Row;
+
+/**
+ * Contact as read by {@link ReactiveReadRepository}.
+ */
+public record ContactRow(Long id, Long version, String name, String zipCode, String city, String houseNumber) {
+
+    static final String COLUMNS = "ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER";
+
+    static ContactRow of(Row row) {
+        return new ContactRow(row.get("ID", Long.class), row.get("VERSION", Long.class),
+                row.get("NAME", String.class), row.get("ZIP_CODE", String.class), row.get("CITY", String.class),
+                row.get("HOUSE_NUMBER", String.class));
+    }
+
+}
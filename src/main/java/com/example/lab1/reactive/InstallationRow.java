@@ -0,0 +1,18 @@
+package com.example.lab1.reactive;
+
+import io.r2dbc.spi.Row;
+
+/**
+ * Production installation as read by {@link ReactiveReadRepository}, referring to its contact by ID.
+ */
+public record InstallationRow(Long id, Long version, String name, Double outputPower, Long contactId) {
+
+    static final String COLUMNS = "ID, VERSION, NAME, OUTPUT_POWER, CONTACT_ID";
+
+    static InstallationRow of(Row row) {
+        return new InstallationRow(row.get("ID", Long.class), row.get("VERSION", Long.class),
+                row.get("NAME", String.class), row.get("OUTPUT_POWER", Double.class),
+                row.get("CONTACT_ID", Long.class));
+    }
+
+}
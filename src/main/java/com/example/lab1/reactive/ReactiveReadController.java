@@ -0,0 +1,118 @@
+package com.example.lab1.reactive;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Read-only API mirroring the Spring Data REST reads of installations and contacts, under {@code /reactive}, served
+ * from {@link ReactiveReadRepository} without holding a request thread while querying. Collections are rendered as
+ * JSON pages or arrays, or streamed in full as {@code application/x-ndjson}, one row per line as the client consumes
+ * them. Streaming is only chosen when requested explicitly, as a Flux is streamed whenever its media type may be.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "lab1.reactive-reads", name = "enabled", matchIfMissing = true)
+@RequestMapping("${spring.data.rest.base-path:}/reactive")
+@AllArgsConstructor
+public class ReactiveReadController {
+
+    private final ReactiveReadRepository repository;
+
+    private final RepositoryRestConfiguration restConfiguration;
+
+    @GetMapping(path = "/production-installations/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<InstallationRow> installation(@PathVariable long id) {
+        return repository.findInstallationById(id).switchIfEmpty(notFound());
+    }
+
+    @GetMapping(path = "/production-installations", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<RowPage<InstallationRow>> installations(@RequestParam(name = "page", defaultValue = "0") int page,
+                                                        @RequestParam(name = "size", required = false) Integer size) {
+        return page(page, size, repository::findInstallations, repository.countInstallations());
+    }
+
+    @GetMapping(path = "/production-installations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<InstallationRow> streamInstallations() {
+        return repository.findAllInstallations();
+    }
+
+    @GetMapping(path = "/production-installations/search/findAllByName", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<InstallationRow>> installationsByName(@RequestParam("name") String name) {
+        return streamInstallationsByName(name).collectList();
+    }
+
+    @GetMapping(path = "/production-installations/search/findAllByName", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<InstallationRow> streamInstallationsByName(@RequestParam("name") String name) {
+        return repository.findInstallationsByName(name);
+    }
+
+    @GetMapping(path = "/production-installations/search/findAllByOutputPowerBetween",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<InstallationRow>> installationsByOutputPowerBetween(
+            @RequestParam("powerGreaterThan") double lowerLimit,
+            @RequestParam("powerLowerThan") double upperLimit) {
+        return streamInstallationsByOutputPowerBetween(lowerLimit, upperLimit).collectList();
+    }
+
+    @GetMapping(path = "/production-installations/search/findAllByOutputPowerBetween",
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<InstallationRow> streamInstallationsByOutputPowerBetween(
+            @RequestParam("powerGreaterThan") double lowerLimit,
+            @RequestParam("powerLowerThan") double upperLimit) {
+        return repository.findInstallationsByOutputPowerBetween(lowerLimit, upperLimit);
+    }
+
+    @GetMapping(path = "/contacts/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ContactRow> contact(@PathVariable long id) {
+        return repository.findContactById(id).switchIfEmpty(notFound());
+    }
+
+    @GetMapping(path = "/contacts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<RowPage<ContactRow>> contacts(@RequestParam(name = "page", defaultValue = "0") int page,
+                                              @RequestParam(name = "size", required = false) Integer size) {
+        return page(page, size, repository::findContacts, repository.countContacts());
+    }
+
+    @GetMapping(path = "/contacts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ContactRow> streamContacts() {
+        return repository.findAllContacts();
+    }
+
+    private <T> Mono<RowPage<T>> page(int page, Integer size, BiFunction<Long, Integer, Flux<T>> content,
+                                      Mono<Long> count) {
+        if (page < 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page index must not be negative"));
+        }
+        int pageSize = size == null || size < 1
+                ? restConfiguration.getDefaultPageSize()
+                : Math.min(size, restConfiguration.getMaxPageSize());
+        return Mono.zip(content.apply((long) page * pageSize, pageSize).collectList(), count,
+                (rows, totalElements) -> new RowPage<>(rows,
+                        new PagedModel.PageMetadata(pageSize, page, totalElements)));
+    }
+
+    private static <T> Mono<T> notFound() {
+        return Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * @param page size, number and totals, as in Spring Data REST collections
+     */
+    public record RowPage<T>(List<T> content, PagedModel.PageMetadata page) {
+    }
+
+}
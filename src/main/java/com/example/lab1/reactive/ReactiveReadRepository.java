@@ -0,0 +1,136 @@
+package com.example.lab1.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+/**
+ * Reads installations and contacts through R2DBC, from the same H2 database as JPA. H2 runs embedded, so queries cost
+ * CPU rather than I/O: they are subscribed to on the parallel scheduler, with one thread per core, leaving the calling
+ * thread free right away.
+ * <p>
+ * Unbounded results are streamed in keyset batches of {@code batchSize} rows, each batch being read on demand with a
+ * connection of its own, so that a slow consumer holds neither a connection nor more than a batch in memory.
+ */
+public class ReactiveReadRepository {
+
+    private final ConnectionPool connectionPool;
+
+    private final int batchSize;
+
+    public ReactiveReadRepository(ConnectionPool connectionPool, int batchSize) {
+        this.connectionPool = connectionPool;
+        this.batchSize = batchSize;
+    }
+
+    public Mono<InstallationRow> findInstallationById(long id) {
+        return query("SELECT " + InstallationRow.COLUMNS + " FROM PRODUCTION_INSTALLATION WHERE ID = $1",
+                InstallationRow::of, id).next();
+    }
+
+    public Flux<InstallationRow> findInstallationsByName(String name) {
+        return query("SELECT " + InstallationRow.COLUMNS + " FROM PRODUCTION_INSTALLATION WHERE NAME = $1 ORDER BY ID",
+                InstallationRow::of, name);
+    }
+
+    /**
+     * @return the installations whose output power is within the given bounds, inclusive, by output power then ID
+     */
+    public Flux<InstallationRow> findInstallationsByOutputPowerBetween(double lowerLimit, double upperLimit) {
+        String columns = InstallationRow.COLUMNS;
+        return batches(
+                query("SELECT " + columns + " FROM PRODUCTION_INSTALLATION WHERE OUTPUT_POWER BETWEEN $1 AND $2"
+                                + " ORDER BY OUTPUT_POWER, ID LIMIT $3",
+                        InstallationRow::of, lowerLimit, upperLimit, batchSize),
+                last -> query("SELECT " + columns + " FROM PRODUCTION_INSTALLATION"
+                                + " WHERE (OUTPUT_POWER > $1 OR (OUTPUT_POWER = $1 AND ID > $2)) AND OUTPUT_POWER <= $3"
+                                + " ORDER BY OUTPUT_POWER, ID LIMIT $4",
+                        InstallationRow::of, last.outputPower(), last.id(), upperLimit, batchSize));
+    }
+
+    /**
+     * @return all installations, by ID
+     */
+    public Flux<InstallationRow> findAllInstallations() {
+        return batches(findInstallationsAfter(0, batchSize), last -> findInstallationsAfter(last.id(), batchSize));
+    }
+
+    public Flux<InstallationRow> findInstallations(long offset, int limit) {
+        return query("SELECT " + InstallationRow.COLUMNS + " FROM PRODUCTION_INSTALLATION"
+                + " ORDER BY ID LIMIT $1 OFFSET $2", InstallationRow::of, limit, offset);
+    }
+
+    public Mono<Long> countInstallations() {
+        return count("PRODUCTION_INSTALLATION");
+    }
+
+    public Mono<ContactRow> findContactById(long id) {
+        return query("SELECT " + ContactRow.COLUMNS + " FROM CONTACT WHERE ID = $1", ContactRow::of, id).next();
+    }
+
+    /**
+     * @return all contacts, by ID
+     */
+    public Flux<ContactRow> findAllContacts() {
+        return batches(findContactsAfter(0, batchSize), last -> findContactsAfter(last.id(), batchSize));
+    }
+
+    public Flux<ContactRow> findContacts(long offset, int limit) {
+        return query("SELECT " + ContactRow.COLUMNS + " FROM CONTACT ORDER BY ID LIMIT $1 OFFSET $2", ContactRow::of,
+                limit, offset);
+    }
+
+    public Mono<Long> countContacts() {
+        return count("CONTACT");
+    }
+
+    private Flux<InstallationRow> findInstallationsAfter(long id, int limit) {
+        return query("SELECT " + InstallationRow.COLUMNS + " FROM PRODUCTION_INSTALLATION"
+                + " WHERE ID > $1 ORDER BY ID LIMIT $2", InstallationRow::of, id, limit);
+    }
+
+    private Flux<ContactRow> findContactsAfter(long id, int limit) {
+        return query("SELECT " + ContactRow.COLUMNS + " FROM CONTACT WHERE ID > $1 ORDER BY ID LIMIT $2",
+                ContactRow::of, id, limit);
+    }
+
+    private Mono<Long> count(String table) {
+        return query("SELECT COUNT(*) FROM " + table, row -> row.get(0, Long.class)).single();
+    }
+
+    /**
+     * Reads the first batch, then each following one once the previous one has been consumed.
+     */
+    private <T> Flux<T> batches(Flux<T> first, Function<T, Flux<T>> next) {
+        return first.collectList()
+                .expand(batch -> batch.size() < batchSize
+                        ? Mono.empty()
+                        : next.apply(batch.get(batch.size() - 1)).collectList())
+                .concatMapIterable(batch -> batch);
+    }
+
+    private <T> Flux<T> query(String sql, Function<Row, T> mapper, Object... parameters) {
+        return Flux.usingWhen(connectionPool.create(),
+                        connection -> {
+                            Statement statement = connection.createStatement(sql);
+                            for (int i = 0; i < parameters.length; i++) {
+                                statement.bind(i, parameters[i]);
+                            }
+                            return Flux.from(statement.execute())
+                                    .flatMap(result -> result.map((row, metadata) -> mapper.apply(row)));
+                        },
+                        Connection::close)
+                .subscribeOn(Schedulers.parallel());
+    }
+
+    public void close() {
+        connectionPool.dispose();
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.example.lab1.replica;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local H2 database kept up to date with the primary database: first copied over with {@code SCRIPT}, then by replaying
+ * the transactions of the {@link ReplicationLog}, several at a time, in the order they were committed. A replica which
+ * fails to replay a transaction, or lags behind the retained log, is copied over again.
+ */
+@Slf4j
+public class ReadReplica {
+
+    private static final long NOT_SYNCHRONIZED = -1;
+
+    private static final int TRANSACTIONS_PER_REPLAY = 100;
+
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private final DataSource primary;
+
+    private final ReplicationLog replicationLog;
+
+    private final Executor executor;
+
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private volatile long appliedLsn = NOT_SYNCHRONIZED;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param primary data source of the primary database, not logging statements
+     */
+    public ReadReplica(String name, DataSource dataSource, DataSource primary, ReplicationLog replicationLog,
+                       Executor executor) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.primary = primary;
+        this.replicationLog = replicationLog;
+        this.executor = executor;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return the LSN of the last transaction replayed, or -1 while the replica is being copied over
+     */
+    public long appliedLsn() {
+        return appliedLsn;
+    }
+
+    /**
+     * @return whether the replica may serve reads needing the given LSN, without lagging more than the given time
+     */
+    boolean canServe(long minLsn, long maxStalenessNanos) {
+        long lsn = appliedLsn;
+        return lsn != NOT_SYNCHRONIZED && lsn >= minLsn && replicationLog.lagNanos(lsn) <= maxStalenessNanos;
+    }
+
+    /**
+     * @return whether some committed transactions have not been replayed yet
+     */
+    boolean isBehind() {
+        return appliedLsn < replicationLog.lastLsn();
+    }
+
+    /**
+     * Replays the transactions logged since the last replay, in the background, unless a replay is already running.
+     */
+    void catchUp() {
+        if (!stopped && replaying.compareAndSet(false, true)) {
+            executor.execute(this::replay);
+        }
+    }
+
+    /**
+     * Stops replaying transactions, e.g. the schema being dropped as the application shuts down.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    private void replay() {
+        boolean failed = false;
+        try {
+            while (!stopped) {
+                if (appliedLsn == NOT_SYNCHRONIZED) {
+                    copyPrimary();
+                }
+                List<ReplicationLog.Entry> entries = replicationLog.after(appliedLsn, TRANSACTIONS_PER_REPLAY);
+                if (entries == null) {
+                    log.info("Replica {} lags behind the replication log, copying the primary database again", name);
+                    appliedLsn = NOT_SYNCHRONIZED;
+                } else if (entries.isEmpty()) {
+                    break;
+                } else {
+                    apply(entries);
+                    appliedLsn = entries.get(entries.size() - 1).lsn();
+                }
+            }
+        } catch (SQLException | RuntimeException exc) {
+            log.warn("Replica {} failed to replay transactions after LSN {}, copying the primary database again",
+                    name, appliedLsn, exc);
+            appliedLsn = NOT_SYNCHRONIZED;
+            failed = true;
+        } finally {
+            replaying.set(false);
+        }
+        // Transactions logged after the last check, whose listener found the replay still running; after a failure,
+        // the next transaction logged triggers the copy
+        if (!failed && appliedLsn < replicationLog.lastLsn()) {
+            catchUp();
+        }
+    }
+
+    /**
+     * Copies the primary database over, as of a LSN: {@code SCRIPT} builds its whole result before returning, so that
+     * commits only wait for that.
+     */
+    private void copyPrimary() throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection source = primary.getConnection(); Statement scriptStatement = source.createStatement()) {
+            long[] lsn = new long[1];
+            ResultSet script = replicationLog.snapshot(snapshotLsn -> {
+                lsn[0] = snapshotLsn;
+                return scriptStatement.executeQuery("SCRIPT");
+            });
+            try (script; Connection target = dataSource.getConnection(); Statement statement = target.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                while (script.next()) {
+                    String sql = script.getString(1);
+                    if (!sql.startsWith("--")) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+            appliedLsn = lsn[0];
+            log.info("Copied the primary database to replica {} as of LSN {} in {} ms", name, lsn[0],
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    private void apply(List<ReplicationLog.Entry> entries) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (ReplicationLog.Entry entry : entries) {
+                    for (RecordedStatement statement : entry.statements()) {
+                        apply(connection, statement);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException exc) {
+                connection.rollback();
+                throw exc;
+            }
+        }
+    }
+
+    private static void apply(Connection connection, RecordedStatement recorded) throws SQLException {
+        if (!recorded.replayable()) {
+            throw new SQLException("Statement bound to stream parameters cannot be replayed: " + recorded.sql());
+        }
+        if (recorded.parameters().isEmpty()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(recorded.sql());
+            }
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(recorded.sql())) {
+            for (Object[] parameters : recorded.parameters()) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                if (recorded.parameters().size() > 1) {
+                    statement.addBatch();
+                }
+            }
+            if (recorded.parameters().size() > 1) {
+                statement.executeBatch();
+            } else {
+                statement.execute();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.example.lab1.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The primary database and its read replicas, which are copied from the primary once the application is ready, and
+ * then catch up with every transaction logged.
+ */
+public class ReadReplicas implements MeterBinder, Closeable {
+
+    private final DataSource primary;
+
+    private final List<ReadReplica> replicas;
+
+    private final ReplicationLog replicationLog;
+
+    public ReadReplicas(DataSource primary, List<ReadReplica> replicas, ReplicationLog replicationLog) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.replicationLog = replicationLog;
+        replicationLog.addListener(() -> this.replicas.forEach(ReadReplica::catchUp));
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public List<ReadReplica> replicas() {
+        return replicas;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void copyPrimary() {
+        replicas.forEach(ReadReplica::catchUp);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stopReplaying() {
+        replicas.forEach(ReadReplica::stop);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        replicas.forEach(replica -> Gauge.builder("jdbc.replica.lag",
+                        () -> replica.appliedLsn() < 0 ? Double.NaN : replicationLog.lastLsn() - replica.appliedLsn())
+                .description("Number of committed transactions a read replica has not replayed yet")
+                .tag("replica", replica.name())
+                .register(registry));
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : replicas.stream().map(ReadReplica::dataSource).toList()) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.example.lab1.replica;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Where the reads of the request handled by the current thread may go: those of a GET or HEAD request may be served by
+ * a replica, provided it has replayed the last transaction the client committed. Threads without a request, e.g.
+ * background jobs, always read from the primary database.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<ReadRouting> CURRENT = new ThreadLocal<>();
+
+    private final boolean replicaAllowed;
+
+    private final LongConsumer writeListener;
+
+    private long minLsn;
+
+    private boolean staleRead;
+
+    ReadRouting(boolean replicaAllowed, long minLsn, LongConsumer writeListener) {
+        this.replicaAllowed = replicaAllowed;
+        this.minLsn = minLsn;
+        this.writeListener = writeListener;
+    }
+
+    static ReadRouting current() {
+        return CURRENT.get();
+    }
+
+    static void bind(ReadRouting routing) {
+        CURRENT.set(routing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Called once a transaction committed by the current thread has been logged, so that its subsequent reads see it.
+     */
+    static void written(long lsn) {
+        ReadRouting routing = CURRENT.get();
+        if (routing != null && lsn > routing.minLsn) {
+            routing.minLsn = lsn;
+            routing.writeListener.accept(lsn);
+        }
+    }
+
+    /**
+     * @return whether the current thread read from a replica which had not replayed every committed transaction yet,
+     * hence whether what it read may not reflect changes already announced, e.g. by entity tags or cache evictions
+     */
+    public static boolean isStaleRead() {
+        ReadRouting routing = CURRENT.get();
+        return routing != null && routing.staleRead;
+    }
+
+    void markStaleRead() {
+        staleRead = true;
+    }
+
+    boolean isReplicaAllowed() {
+        return replicaAllowed;
+    }
+
+    /**
+     * @return the LSN a replica must have replayed to serve the reads of the current thread
+     */
+    long minLsn() {
+        return minLsn;
+    }
+
+}
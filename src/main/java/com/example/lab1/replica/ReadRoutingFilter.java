@@ -0,0 +1,73 @@
+package com.example.lab1.replica;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Lets the reads of GET and HEAD requests go to the read replicas, and gives read-your-writes consistency to clients
+ * through a cookie holding the LSN of their last write: replicas which have not replayed it yet are skipped. The cookie
+ * expires after the staleness bound, by which time every replica serving reads has replayed the write.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "LAB1_LSN";
+
+    private final ReplicationLog replicationLog;
+
+    private final Duration cookieMaxAge;
+
+    public ReadRoutingFilter(ReplicationLog replicationLog, Duration maxStaleness) {
+        this.replicationLog = replicationLog;
+        this.cookieMaxAge = Duration.ofSeconds(Math.max(1, (maxStaleness.toMillis() + 999) / 1000));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean replicaAllowed = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        ReadRouting.bind(new ReadRouting(replicaAllowed, lastWrite(request), lsn -> {
+            if (!response.isCommitted()) {
+                response.addHeader(HttpHeaders.SET_COOKIE,
+                        ResponseCookie.from(COOKIE_NAME, replicationLog.epoch() + "-" + lsn)
+                                .path("/")
+                                .maxAge(cookieMaxAge)
+                                .httpOnly(true)
+                                .build()
+                                .toString());
+            }
+        }));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.unbind();
+        }
+    }
+
+    /**
+     * @return the LSN of the last write of the client, or 0 if none, or if it was made before the application restarted
+     */
+    private long lastWrite(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        String prefix = replicationLog.epoch() + "-";
+        if (cookie == null || !cookie.getValue().startsWith(prefix)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue().substring(prefix.length()));
+        } catch (NumberFormatException exc) {
+            return 0;
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.example.lab1.replica;
+
+import java.util.List;
+
+/**
+ * A write statement executed on the primary database, to be replayed on the replicas.
+ *
+ * @param sql        SQL of the statement
+ * @param parameters bind parameters, indexed from 0, of each execution of a prepared statement (several for a batch),
+ *                   or none for a plain statement
+ * @param replayable whether all parameters could be recorded, e.g. not streams
+ */
+record RecordedStatement(String sql, List<Object[]> parameters, boolean replayable) {
+}
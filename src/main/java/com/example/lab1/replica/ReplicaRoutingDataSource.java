@@ -0,0 +1,67 @@
+package com.example.lab1.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes the connections of read-only transactions, and of reads outside of transactions, of GET and HEAD requests to
+ * the read replicas in turn, skipping those lagging more than the staleness bound or not having replayed the last write
+ * of the client yet; everything else goes to the primary database.
+ * <p>
+ * To be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that connections
+ * are obtained once the transaction is set up, rather than when it begins.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<ReadReplica> replicas;
+
+    private final long maxStalenessNanos;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReadReplica> replicas, Duration maxStaleness) {
+        this.replicas = List.copyOf(replicas);
+        this.maxStalenessNanos = maxStaleness.toNanos();
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        replicas.forEach(replica -> targetDataSources.put(replica.name(), replica.dataSource()));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReadRouting routing = ReadRouting.current();
+        if (routing == null || !routing.isReplicaAllowed()) {
+            return PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica replica = replicas.get((first + i) % replicas.size());
+            if (replica.canServe(routing.minLsn(), maxStalenessNanos)) {
+                if (replica.isBehind()) {
+                    routing.markStaleRead();
+                }
+                return replica.name();
+            }
+        }
+        return PRIMARY;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.example.lab1.replica;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ring buffer of the write statements of the transactions committed on the primary database, numbered in commit order
+ * by a log sequence number (LSN) which starts over with each {@link #epoch()}.
+ * <p>
+ * Write transactions commit through {@link #commit}, one at a time, so that the order of the log is the order in which
+ * the primary applied them; read-only transactions commit without it. Nothing is logged until a replica first takes a
+ * {@link #snapshot} of the primary.
+ */
+public class ReplicationLog {
+
+    record Entry(long lsn, long committedAt, List<RecordedStatement> statements) {
+    }
+
+    @FunctionalInterface
+    interface SqlAction<T> {
+
+        T run() throws SQLException;
+
+    }
+
+    @FunctionalInterface
+    interface SnapshotAction<T> {
+
+        T run(long lsn) throws SQLException;
+
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Entry[] entries;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Guarded by {@link #commitLock}.
+     */
+    private boolean capturing;
+
+    private long lastLsn;
+
+    public ReplicationLog(int size) {
+        this.entries = new Entry[size];
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public synchronized long lastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Registers a listener called, on the committing thread, after each transaction is logged.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs the commit of a transaction which executed the given statements, and logs them once committed.
+     */
+    <T> T commit(List<RecordedStatement> statements, SqlAction<T> commit) throws SQLException {
+        T result;
+        long lsn = 0;
+        commitLock.lock();
+        try {
+            result = commit.run();
+            if (capturing) {
+                lsn = append(List.copyOf(statements));
+            }
+        } finally {
+            commitLock.unlock();
+        }
+        if (lsn > 0) {
+            ReadRouting.written(lsn);
+            listeners.forEach(Runnable::run);
+        }
+        return result;
+    }
+
+    /**
+     * Runs an action, typically reading the whole primary database, while no write transaction commits.
+     *
+     * @param action given the LSN of the last transaction visible to it
+     */
+    <T> T snapshot(SnapshotAction<T> action) throws SQLException {
+        commitLock.lock();
+        try {
+            capturing = true;
+            return action.run(lastLsn());
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * @return at most {@code limit} transactions following the given LSN, or {@code null} if some of them are no longer
+     * retained
+     */
+    synchronized List<Entry> after(long lsn, int limit) {
+        if (lastLsn - lsn > entries.length) {
+            return null;
+        }
+        List<Entry> result = new ArrayList<>((int) Math.min(limit, lastLsn - lsn));
+        for (long next = lsn + 1; next <= lastLsn && result.size() < limit; next++) {
+            result.add(entries[(int) (next % entries.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @return for how long, in nanoseconds, the first transaction following the given LSN has been committed, 0 if there
+     * is none, or {@link Long#MAX_VALUE} if it is no longer retained
+     */
+    synchronized long lagNanos(long lsn) {
+        if (lsn >= lastLsn) {
+            return 0;
+        }
+        if (lastLsn - lsn > entries.length) {
+            return Long.MAX_VALUE;
+        }
+        return System.nanoTime() - entries[(int) ((lsn + 1) % entries.length)].committedAt();
+    }
+
+    private synchronized long append(List<RecordedStatement> statements) {
+        long lsn = ++lastLsn;
+        entries[(int) (lsn % entries.length)] = new Entry(lsn, System.nanoTime(), statements);
+        return lsn;
+    }
+
+}
@@ -0,0 +1,243 @@
+package com.example.lab1.replica;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Data source of the primary database recording the write statements executed through it, with their bind
+ * parameters, and handing them to the {@link ReplicationLog} as transactions commit. Statements executed in auto-commit
+ * mode are logged as transactions of their own.
+ * <p>
+ * Statements are replayed as is, so they must be deterministic: this holds for those of Hibernate and of the
+ * repositories, which bind identifiers drawn from sequences and timestamps computed by the application.
+ */
+public class ReplicationLoggingDataSource extends DelegatingDataSource {
+
+    private static final Pattern WRITE_STATEMENT =
+            Pattern.compile("^\\s*(INSERT|UPDATE|DELETE|MERGE|CREATE|DROP|ALTER|TRUNCATE)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ReplicationLog replicationLog;
+
+    public ReplicationLoggingDataSource(DataSource targetDataSource, ReplicationLog replicationLog) {
+        super(targetDataSource);
+        this.replicationLog = replicationLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new LoggingConnection(obtainTargetDataSource().getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new LoggingConnection(obtainTargetDataSource().getConnection(username, password)));
+    }
+
+    static boolean isWrite(String sql) {
+        return sql != null && WRITE_STATEMENT.matcher(sql).find();
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exc) {
+            throw exc.getCause();
+        }
+    }
+
+    private class LoggingConnection implements InvocationHandler {
+
+        private final Connection target;
+
+        /**
+         * Write statements of the current transaction, executed but not committed yet.
+         */
+        private final List<RecordedStatement> pending = new ArrayList<>();
+
+        private Connection proxy;
+
+        LoggingConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            this.proxy = (Connection) proxy;
+            switch (method.getName()) {
+                case "prepareStatement":
+                    Statement prepared = (Statement) ReplicationLoggingDataSource.invoke(target, method, args);
+                    return proxy(PreparedStatement.class, new LoggingStatement(this, prepared, (String) args[0]));
+                case "createStatement":
+                    Statement created = (Statement) ReplicationLoggingDataSource.invoke(target, method, args);
+                    return proxy(Statement.class, new LoggingStatement(this, created, null));
+                case "commit":
+                    if (pending.isEmpty()) {
+                        target.commit();
+                    } else {
+                        replicationLog.commit(pending, () -> {
+                            target.commit();
+                            return null;
+                        });
+                        pending.clear();
+                    }
+                    return null;
+                case "setAutoCommit":
+                    // Switching auto-commit on commits the current transaction
+                    if ((Boolean) args[0] && !pending.isEmpty() && !target.getAutoCommit()) {
+                        replicationLog.commit(pending, () -> {
+                            target.setAutoCommit(true);
+                            return null;
+                        });
+                        pending.clear();
+                        return null;
+                    }
+                    break;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        pending.clear();
+                    }
+                    break;
+                case "close":
+                    pending.clear();
+                    break;
+                default:
+                    break;
+            }
+            return ReplicationLoggingDataSource.invoke(target, method, args);
+        }
+
+        /**
+         * Executes write statements, logging them right away in auto-commit mode, or along with the transaction
+         * otherwise.
+         */
+        Object execute(List<RecordedStatement> statements, ReplicationLog.SqlAction<Object> execution)
+                throws SQLException {
+            if (statements.isEmpty()) {
+                return execution.run();
+            }
+            if (target.getAutoCommit()) {
+                return replicationLog.commit(statements, execution);
+            }
+            Object result = execution.run();
+            pending.addAll(statements);
+            return result;
+        }
+
+    }
+
+    private static class LoggingStatement implements InvocationHandler {
+
+        private final LoggingConnection connection;
+
+        private final Statement target;
+
+        private final String sql;
+
+        private final List<Object> parameters = new ArrayList<>();
+
+        private final List<Object[]> batchParameters = new ArrayList<>();
+
+        private final List<String> batchSql = new ArrayList<>();
+
+        private boolean replayable = true;
+
+        LoggingStatement(LoggingConnection connection, Statement target, String sql) {
+            this.connection = connection;
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                setParameter(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+                replayable = true;
+            } else if (name.equals("addBatch")) {
+                if (args == null || args.length == 0) {
+                    batchParameters.add(parameters.toArray());
+                } else {
+                    batchSql.add((String) args[0]);
+                }
+            } else if (name.equals("clearBatch")) {
+                batchParameters.clear();
+                batchSql.clear();
+            } else if (name.equals("getConnection")) {
+                return connection.proxy;
+            } else if (EXECUTE_METHODS.contains(name)) {
+                List<RecordedStatement> statements = record(name, args);
+                batchParameters.clear();
+                batchSql.clear();
+                return connection.execute(statements, () -> {
+                    try {
+                        return ReplicationLoggingDataSource.invoke(target, method, args);
+                    } catch (SQLException | RuntimeException | Error exc) {
+                        throw exc;
+                    } catch (Throwable exc) {
+                        throw new SQLException(exc);
+                    }
+                });
+            }
+            return ReplicationLoggingDataSource.invoke(target, method, args);
+        }
+
+        private void setParameter(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+            if (value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob) {
+                replayable = false;
+            }
+        }
+
+        private List<RecordedStatement> record(String method, Object[] args) {
+            boolean batch = method.endsWith("Batch");
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                // Plain statement
+                return isWrite(statementSql) ? List.of(new RecordedStatement(statementSql, List.of(), true)) : List.of();
+            }
+            if (sql == null) {
+                return batch
+                        ? batchSql.stream()
+                        .filter(ReplicationLoggingDataSource::isWrite)
+                        .map(statementSql -> new RecordedStatement(statementSql, List.of(), true))
+                        .toList()
+                        : List.of();
+            }
+            if (!isWrite(sql)) {
+                return List.of();
+            }
+            List<Object[]> executions = batch ? List.copyOf(batchParameters) : List.<Object[]>of(parameters.toArray());
+            return List.of(new RecordedStatement(sql, executions, replayable));
+        }
+
+    }
+
+}
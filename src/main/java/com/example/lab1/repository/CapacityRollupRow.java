@@ -0,0 +1,15 @@
+package com.example.lab1.repository;
+
+public interface CapacityRollupRow {
+
+    String getGroupName();
+
+    Long getCount();
+
+    Double getSum();
+
+    Double getMin();
+
+    Double getMax();
+
+}
@@ -0,0 +1,11 @@
+package com.example.lab1.repository;
+
+public interface ContactAddress {
+
+    Long getId();
+
+    String getZipCode();
+
+    String getCity();
+
+}
@@ -0,0 +1,9 @@
+package com.example.lab1.repository;
+
+public interface ContactInstallationCount {
+
+    Long getId();
+
+    Long getInstallationCount();
+
+}
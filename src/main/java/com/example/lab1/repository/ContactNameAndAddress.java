@@ -0,0 +1,15 @@
+package com.example.lab1.repository;
+
+public interface ContactNameAndAddress {
+
+    Long getId();
+
+    String getName();
+
+    String getZipCode();
+
+    String getHouseNumber();
+
+    String getCity();
+
+}
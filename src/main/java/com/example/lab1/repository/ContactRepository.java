@@ -1,10 +1,90 @@
 package com.example.lab1.repository;
 
 import com.example.lab1.model.Contact;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
 
+    /**
+     * @return the requested page, fetching one more row to tell whether it is the last one instead of counting rows
+     */
+    @RestResource(exported = false)
+    Slice<Contact> findAllBy(Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select c from Contact c where c.id > :id order by c.id asc")
+    List<Contact> findPageAfter(@Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select c from Contact c where c.id < :id order by c.id desc")
+    List<Contact> findPageBefore(@Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select c.id as id, c.zipCode as zipCode, c.city as city from Contact c")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ContactAddress> streamAddresses();
+
+    @RestResource(exported = false)
+    @Query("select c.id as id, c.name as name, c.zipCode as zipCode, c.houseNumber as houseNumber, c.city as city"
+            + " from Contact c")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ContactNameAndAddress> streamNamesAndAddresses();
+
+    /**
+     * @return the contacts whose name and address have one of the given hashes, which distinct keys may share
+     */
+    @RestResource(exported = false)
+    @Query("select c.id as id, c.name as name, c.zipCode as zipCode, c.houseNumber as houseNumber, c.city as city"
+            + " from Contact c where c.addressHash in :hashes order by c.id")
+    List<ContactNameAndAddress> findNamesAndAddressesByAddressHashIn(@Param("hashes") Collection<Long> hashes);
+
+    @RestResource(exported = false)
+    @Query("select c.id as id, c.name as name, c.city as city, c.zipCode as zipCode from Contact c"
+            + " where c.id between :fromId and :toId")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ContactSearchFields> streamSearchFieldsByIdBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @RestResource(exported = false)
+    @Query("select c.id as id, count(i.id) as installationCount from Contact c"
+            + " left join ProductionInstallation i on i.contact = c"
+            + " where c.id between :fromId and :toId group by c.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<ContactInstallationCount> streamInstallationCountsByIdBetween(@Param("fromId") long fromId,
+                                                                         @Param("toId") long toId);
+
+    @RestResource(exported = false)
+    @Query("select min(c.id) from Contact c")
+    Optional<Long> findMinId();
+
+    @RestResource(exported = false)
+    @Query("select max(c.id) from Contact c")
+    Optional<Long> findMaxId();
+
+    @RestResource(exported = false)
+    @Query("select c from Contact c where lower(c.name) like lower(concat('%', :text, '%'))"
+            + " or lower(c.city) like lower(concat('%', :text, '%'))"
+            + " or lower(c.zipCode) like lower(concat(:text, '%')) order by c.id")
+    Page<Contact> findAllByText(@Param("text") String text, Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select c.version from Contact c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
 }
@@ -0,0 +1,13 @@
+package com.example.lab1.repository;
+
+public interface ContactSearchFields {
+
+    Long getId();
+
+    String getName();
+
+    String getCity();
+
+    String getZipCode();
+
+}
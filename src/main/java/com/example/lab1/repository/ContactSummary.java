@@ -0,0 +1,17 @@
+package com.example.lab1.repository;
+
+import com.example.lab1.model.Contact;
+import org.springframework.data.rest.core.config.Projection;
+
+@Projection(name = "summary", types = Contact.class)
+public interface ContactSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getZipCode();
+
+    String getCity();
+
+}
@@ -0,0 +1,42 @@
+package com.example.lab1.repository;
+
+import com.example.lab1.index.EntityCounts;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+/**
+ * Repository base class taking the total of unfiltered pages, i.e. of {@code findAll(Pageable)}, from
+ * {@link EntityCounts} instead of running a count query. Pages of specifications are counted as usual.
+ */
+public class CountCachingJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    @Nullable
+    private final EntityCounts entityCounts;
+
+    public CountCachingJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                     @Nullable EntityCounts entityCounts) {
+        super(entityInformation, entityManager);
+        this.entityCounts = entityCounts;
+    }
+
+    @Override
+    protected <S extends T> Page<S> readPage(TypedQuery<S> query, Class<S> domainClass, Pageable pageable,
+                                             @Nullable Specification<S> spec) {
+        if (entityCounts == null || spec != null || !domainClass.equals(getDomainClass()) || pageable.isUnpaged()) {
+            return super.readPage(query, domainClass, pageable, spec);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable,
+                () -> entityCounts.count(domainClass, this::count));
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.example.lab1.repository;
+
+import com.example.lab1.index.EntityCounts;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Creates the repositories on top of {@link CountCachingJpaRepository}, handing them the {@link EntityCounts} if
+ * enabled.
+ */
+public class CountCachingRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
+        extends JpaRepositoryFactoryBean<T, S, ID> {
+
+    private ObjectProvider<EntityCounts> entityCounts;
+
+    public CountCachingRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired
+    public void setEntityCounts(ObjectProvider<EntityCounts> entityCounts) {
+        this.entityCounts = entityCounts;
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager) {
+
+            @Override
+            protected JpaRepositoryImplementation<?, ?> getTargetRepository(RepositoryInformation information,
+                                                                            EntityManager entityManager) {
+                JpaEntityInformation<?, Object> entityInformation = getEntityInformation(information.getDomainType());
+                return new CountCachingJpaRepository<>(entityInformation, entityManager,
+                        entityCounts.getIfAvailable());
+            }
+
+            @Override
+            protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+                return CountCachingJpaRepository.class;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.example.lab1.repository;
+
+public interface InstallationCityAndOutputPower {
+
+    Long getId();
+
+    Double getOutputPower();
+
+    String getCity();
+
+}
@@ -0,0 +1,11 @@
+package com.example.lab1.repository;
+
+public interface InstallationContactAndOutputPower {
+
+    Long getId();
+
+    Double getOutputPower();
+
+    Long getContactId();
+
+}
@@ -0,0 +1,9 @@
+package com.example.lab1.repository;
+
+public interface InstallationOutputPower {
+
+    Long getId();
+
+    Double getOutputPower();
+
+}
@@ -0,0 +1,17 @@
+package com.example.lab1.repository;
+
+import com.example.lab1.model.ProductionInstallation;
+import org.springframework.data.rest.core.config.Projection;
+
+@Projection(name = "excerpt", types = ProductionInstallation.class)
+public interface ProductionInstallationExcerpt {
+
+    Long getId();
+
+    String getName();
+
+    Double getOutputPower();
+
+    ContactSummary getContact();
+
+}
@@ -1,23 +1,198 @@
 package com.example.lab1.repository;
 
+import com.example.lab1.model.Contact;
 import com.example.lab1.model.ProductionInstallation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 @RepositoryRestResource(
-        path = "production-installations"
+        path = "production-installations",
+        excerptProjection = ProductionInstallationExcerpt.class
 )
 public interface ProductionInstallationRepository extends JpaRepository<ProductionInstallation, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "contact")
+    Optional<ProductionInstallation> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "contact")
+    List<ProductionInstallation> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "contact")
+    List<ProductionInstallation> findAll(Sort sort);
+
+    @Override
+    @EntityGraph(attributePaths = "contact")
+    Page<ProductionInstallation> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "contact")
+    List<ProductionInstallation> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "contact")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<ProductionInstallation> findAllByName(String name);
 
+    @EntityGraph(attributePaths = "contact")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<ProductionInstallation> findAllByOutputPowerBetween(
             @Param("powerGreaterThan") Double lowerLimit,
             @Param("powerLowerThan") Double upperLimit);
 
+    @RestResource(exported = false)
+    long countByOutputPowerBetween(double lowerLimit, double upperLimit);
+
+    /**
+     * @return the requested page, fetching one more row to tell whether it is the last one instead of counting rows
+     */
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "contact")
+    Slice<ProductionInstallation> findAllBy(Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select i from ProductionInstallation i left join fetch i.contact order by i.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<ProductionInstallation> streamAll();
+
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "contact")
+    @Query("select i from ProductionInstallation i where i.id > :id order by i.id asc")
+    List<ProductionInstallation> findPageAfter(@Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "contact")
+    @Query("select i from ProductionInstallation i where i.id < :id order by i.id desc")
+    List<ProductionInstallation> findPageBefore(@Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "contact")
+    @Query("select i from ProductionInstallation i"
+            + " where i.outputPower is not null"
+            + " and (i.outputPower > :outputPower or (i.outputPower = :outputPower and i.id > :id))"
+            + " order by i.outputPower asc, i.id asc")
+    List<ProductionInstallation> findPageAfterByOutputPower(
+            @Param("outputPower") double outputPower, @Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "contact")
+    @Query("select i from ProductionInstallation i"
+            + " where i.outputPower is not null"
+            + " and (i.outputPower < :outputPower or (i.outputPower = :outputPower and i.id < :id))"
+            + " order by i.outputPower desc, i.id desc")
+    List<ProductionInstallation> findPageBeforeByOutputPower(
+            @Param("outputPower") double outputPower, @Param("id") long id, Pageable pageable);
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower from ProductionInstallation i"
+            + " where i.outputPower is not null order by i.outputPower, i.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallationOutputPower> streamOutputPowersOrderByOutputPower();
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower from ProductionInstallation i"
+            + " where i.outputPower is not null order by i.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallationOutputPower> streamOutputPowersOrderById();
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower from ProductionInstallation i"
+            + " where i.id between :fromId and :toId")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallationOutputPower> streamOutputPowersByIdBetween(@Param("fromId") long fromId,
+                                                                  @Param("toId") long toId);
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower, c.city as city"
+            + " from ProductionInstallation i left join i.contact c where i.id between :fromId and :toId")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallationCityAndOutputPower> streamCitiesAndOutputPowersByIdBetween(@Param("fromId") long fromId,
+                                                                                  @Param("toId") long toId);
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower, c.id as contactId"
+            + " from ProductionInstallation i left join i.contact c")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallationContactAndOutputPower> streamContactsAndOutputPowers();
+
+    @RestResource(exported = false)
+    @Query("select i.id as id, i.outputPower as outputPower, i.contact.id as contactId"
+            + " from ProductionInstallation i where i.contact.id in :contactIds order by i.id")
+    List<InstallationContactAndOutputPower> findContactsAndOutputPowersByContactIdIn(
+            @Param("contactIds") Collection<Long> contactIds);
+
+    @RestResource(exported = false)
+    @Query("select c.city as groupName, count(i) as count, sum(i.outputPower) as sum,"
+            + " min(i.outputPower) as min, max(i.outputPower) as max"
+            + " from ProductionInstallation i join i.contact c"
+            + " where i.outputPower is not null group by c.city order by c.city")
+    List<CapacityRollupRow> sumOutputPowerGroupByCity();
+
+    @RestResource(exported = false)
+    @Query("select c.zipCode as groupName, count(i) as count, sum(i.outputPower) as sum,"
+            + " min(i.outputPower) as min, max(i.outputPower) as max"
+            + " from ProductionInstallation i join i.contact c"
+            + " where i.outputPower is not null group by c.zipCode order by c.zipCode")
+    List<CapacityRollupRow> sumOutputPowerGroupByZipCode();
+
+    @RestResource(exported = false)
+    @Query("select i.id from ProductionInstallation i where i.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @RestResource(exported = false)
+    @Query("select i.id from ProductionInstallation i"
+            + " where i.id in :ids and (i.contact is null or i.contact.id <> :contactId) order by i.id")
+    List<Long> findIdsByIdInAndContactIdNot(@Param("ids") Collection<Long> ids, @Param("contactId") long contactId);
+
+    @RestResource(exported = false)
+    @Query("select i.id from ProductionInstallation i where i.contact.id = :contactId order by i.id")
+    List<Long> findIdsByContactId(@Param("contactId") long contactId);
+
+    /**
+     * Assigns the contact to the installations in a single statement, bumping their version as an update through the
+     * entity would. No entity listener is called.
+     */
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ProductionInstallation i set i.contact = :contact, i.version = i.version + 1 where i.id in :ids")
+    int updateContactByIdIn(@Param("contact") Contact contact, @Param("ids") Collection<Long> ids);
+
+    @RestResource(exported = false)
+    @Query("select min(i.id) from ProductionInstallation i")
+    Optional<Long> findMinId();
+
+    @RestResource(exported = false)
+    @Query("select max(i.id) from ProductionInstallation i")
+    Optional<Long> findMaxId();
+
+    @RestResource(exported = false)
+    @Query("select p.version from ProductionInstallation p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
 }
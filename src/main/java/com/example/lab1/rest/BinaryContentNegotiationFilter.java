@@ -0,0 +1,99 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.BinaryJacksonHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Lets clients of the REST API negotiate CBOR or Smile, which Spring Data REST handlers do not declare: when the most
+ * preferred media type of the {@code Accept} header is one of them, the request is handled as a HAL request and the
+ * {@link BinaryJacksonHttpMessageConverter} of that type writes the response.
+ * <p>
+ * Ordered last, so that filters such as the {@link ConditionalRequestFilter} see the original {@code Accept} header.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BinaryContentNegotiationFilter extends OncePerRequestFilter {
+
+    private static final List<MediaType> BINARY_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_CBOR, BinaryJacksonHttpMessageConverter.APPLICATION_SMILE);
+
+    private final String basePath;
+
+    public BinaryContentNegotiationFilter(@Value("${spring.data.rest.base-path:}") String basePath) {
+        this.basePath = StringUtils.trimTrailingCharacter(basePath, '/');
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(basePath) && !path.startsWith(basePath + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        MediaType binaryMediaType = preferredBinaryMediaType(request.getHeader(HttpHeaders.ACCEPT));
+        if (binaryMediaType == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        request.setAttribute(BinaryJacksonHttpMessageConverter.NEGOTIATED_MEDIA_TYPE_ATTRIBUTE, binaryMediaType);
+        filterChain.doFilter(new HttpServletRequestWrapper(request) {
+
+            @Override
+            public String getHeader(String name) {
+                return HttpHeaders.ACCEPT.equalsIgnoreCase(name) ? MediaTypes.HAL_JSON_VALUE : super.getHeader(name);
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                return HttpHeaders.ACCEPT.equalsIgnoreCase(name)
+                        ? Collections.enumeration(List.of(MediaTypes.HAL_JSON_VALUE))
+                        : super.getHeaders(name);
+            }
+
+        }, response);
+    }
+
+    private static MediaType preferredBinaryMediaType(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException exc) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        MediaType preferred = mediaTypes.isEmpty() ? null : mediaTypes.get(0);
+        return BINARY_MEDIA_TYPES.stream()
+                .filter(binaryMediaType -> preferred != null && preferred.getQualityValue() > 0
+                        && binaryMediaType.equalsTypeAndSubtype(preferred))
+                .findFirst()
+                .orElse(null);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.repository.CapacityRollupRow;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.example.lab1.rollup.CapacityRollup;
+import com.example.lab1.rollup.CapacityRollups;
+import com.example.lab1.rollup.GroupBy;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RepositoryRestController
+@AllArgsConstructor
+public class CapacityRollupController {
+
+    private final ObjectProvider<CapacityRollups> capacityRollups;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    @GetMapping(path = "/production-installations/rollups")
+    public ResponseEntity<CapacityRollupsResponse> rollups(
+            @RequestParam(name = "groupBy", defaultValue = "city") String groupByProperty) {
+        GroupBy groupBy = GroupBy.fromProperty(groupByProperty).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported groupBy: " + groupByProperty));
+
+        CapacityRollups maintainedRollups = capacityRollups.getIfAvailable();
+        List<CapacityRollup> rollups = maintainedRollups != null ? maintainedRollups.rollups(groupBy) : null;
+        if (rollups == null) {
+            List<CapacityRollupRow> rows = groupBy == GroupBy.CITY
+                    ? productionInstallationRepository.sumOutputPowerGroupByCity()
+                    : productionInstallationRepository.sumOutputPowerGroupByZipCode();
+            rollups = rows.stream().map(row -> CapacityRollup.of(row.getGroupName(), row.getCount(), row.getSum(),
+                    row.getMin(), row.getMax())).toList();
+        }
+
+        return ResponseEntity.ok(new CapacityRollupsResponse(groupBy.getProperty(), rollups));
+    }
+
+    public record CapacityRollupsResponse(String groupBy, List<CapacityRollup> rollups) {
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.feed.ChangeFeed;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@BasePathAwareController
+@ConditionalOnProperty(prefix = "lab1.change-feed", name = "enabled", matchIfMissing = true)
+@AllArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
+    }
+
+}
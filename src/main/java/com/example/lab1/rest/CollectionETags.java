@@ -0,0 +1,30 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.event.EntityChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entity tag shared by the collection and search resources of installations and contacts, derived from a counter of
+ * committed changes to either (installation lists embed their contact), so that it can be checked without any query.
+ * The counter is prefixed with the start time of the application, as it starts over on every restart.
+ */
+@Component
+public class CollectionETags {
+
+    private final String prefix = "\"" + Long.toString(System.currentTimeMillis(), 36) + "-";
+
+    private final AtomicLong changes = new AtomicLong();
+
+    public String current() {
+        return prefix + changes.get() + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntityChanged(EntityChangedEvent<?> event) {
+        changes.incrementAndGet();
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.example.lab1.rest;
+
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.core.EmbeddedWrappers;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+final class CollectionModels {
+
+    private static final EmbeddedWrappers WRAPPERS = new EmbeddedWrappers(false);
+
+    private CollectionModels() {
+    }
+
+    /**
+     * Renders entities the way Spring Data REST renders its own collection and search resources, i.e. embedded under
+     * the collection relation of the given type (even when empty) with a self link to the current request.
+     */
+    static CollectionModel<Object> of(List<?> entities, Class<?> type, PersistentEntityResourceAssembler assembler) {
+        List<Object> content = entities.isEmpty()
+                ? List.of(WRAPPERS.emptyCollectionOf(type))
+                : entities.stream().<Object>map(assembler::toModel).toList();
+
+        CollectionModel<Object> model = CollectionModel.of(content);
+        model.add(Link.of(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        return model;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.lab1.rest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Gives Tomcat the length of small responses, so that {@code server.compression.min-response-size} applies to them:
+ * message converters stream their output without a {@code Content-Length}, which Tomcat would otherwise compress
+ * whatever its size. The first {@code min-response-size} bytes of a response are held back; a response completing
+ * within them gets its length set, while a larger one is streamed, and compressed, as usual. Asynchronous responses,
+ * e.g. server-sent events, are released as soon as the request goes asynchronous.
+ */
+@Component
+@ConditionalOnProperty(prefix = "server.compression", name = "enabled")
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final int threshold;
+
+    public CompressionThresholdFilter(@Value("${server.compression.min-response-size:2KB}") DataSize threshold) {
+        this.threshold = (int) threshold.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ThresholdResponseWrapper responseWrapper = new ThresholdResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            responseWrapper.release(!request.isAsyncStarted());
+        }
+    }
+
+    private final class ThresholdResponseWrapper extends HttpServletResponseWrapper {
+
+        private ByteArrayOutputStream heldBack = new ByteArrayOutputStream();
+
+        private ServletOutputStream outputStream;
+
+        ThresholdResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        if (heldBack != null && heldBack.size() + length <= threshold) {
+                            heldBack.write(bytes, offset, length);
+                            return;
+                        }
+                        release(false);
+                        delegate.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (heldBack == null) {
+                            delegate.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (heldBack == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (heldBack != null) {
+                heldBack.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (heldBack != null) {
+                heldBack.reset();
+            }
+        }
+
+        /**
+         * Writes the bytes held back, if not done yet.
+         *
+         * @param complete whether the response is complete, hence of a known length
+         */
+        void release(boolean complete) throws IOException {
+            ByteArrayOutputStream bytes = heldBack;
+            if (bytes == null) {
+                return;
+            }
+            heldBack = null;
+            if (complete && !isCommitted() && bytes.size() > 0) {
+                setContentLength(bytes.size());
+            }
+            if (bytes.size() > 0) {
+                ServletOutputStream delegate = getResponse().getOutputStream();
+                bytes.writeTo(delegate);
+                if (!complete) {
+                    delegate.flush();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,272 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.replica.ReadRouting;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.example.lab1.rest.RenderedRepresentationCache.RenderedRepresentation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Answers conditional GET and HEAD requests on installations and contacts without loading nor rendering entities.
+ * <p>
+ * The entity tag of an item resource is its {@code @Version}, as set by Spring Data REST: {@code If-None-Match} is
+ * checked against the cached representation of the item if any, or against a version-only query. Unconditional
+ * requests are served from the {@link RenderedRepresentationCache} when possible. Collection and search resources are
+ * tagged by {@link CollectionETags}, checked against {@code If-None-Match} and {@code If-Match}. {@code If-Match} on
+ * item updates and deletions is left to Spring Data REST, which answers 412 on version mismatch.
+ * <p>
+ * Ordered before the {@link BinaryContentNegotiationFilter}, so that requests for binary representations, negotiated as
+ * HAL, still carry their own {@code Accept} header, hence are neither served from nor stored in the cache.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class ConditionalRequestFilter extends OncePerRequestFilter {
+
+    private static final Set<String> CACHEABLE_ACCEPT_HEADERS = Set.of(MediaType.ALL_VALUE, MediaTypes.HAL_JSON_VALUE);
+
+    /**
+     * Headers that are not replayed from cached representations, as they are set by the container.
+     */
+    private static final Set<String> TRANSIENT_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.DATE, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "Keep-Alive");
+
+    private final String basePath;
+
+    private final Map<String, ItemResource> resources;
+
+    private final CollectionETags collectionETags;
+
+    private final ObjectProvider<RenderedRepresentationCache> representationCache;
+
+    public ConditionalRequestFilter(@Value("${spring.data.rest.base-path:}") String basePath,
+                                    ContactRepository contactRepository,
+                                    ProductionInstallationRepository productionInstallationRepository,
+                                    CollectionETags collectionETags,
+                                    ObjectProvider<RenderedRepresentationCache> representationCache) {
+        this.basePath = StringUtils.trimTrailingCharacter(basePath, '/');
+        this.resources = Map.of(
+                "contacts", new ItemResource(Contact.class, contactRepository::findVersionById),
+                "production-installations",
+                new ItemResource(ProductionInstallation.class, productionInstallationRepository::findVersionById));
+        this.collectionETags = collectionETags;
+        this.representationCache = representationCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String[] segments = path.startsWith(basePath + "/")
+                ? StringUtils.tokenizeToStringArray(path.substring(basePath.length()), "/")
+                : new String[0];
+        ItemResource resource = segments.length > 0 ? resources.get(segments[0]) : null;
+
+        if (resource != null && segments.length == 2 && isId(segments[1])) {
+            filterItem(resource, Long.parseLong(segments[1]), request, response, filterChain);
+        } else if (resource != null && (segments.length == 1 || "search".equals(segments[1]))) {
+            filterCollection(request, response, filterChain);
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private void filterItem(ItemResource resource, long id, HttpServletRequest request, HttpServletResponse response,
+                            FilterChain filterChain) throws ServletException, IOException {
+        RenderedRepresentationCache cache = representationCache.getIfAvailable();
+        RenderedRepresentation cached = cache != null ? cache.get(resource.type, id) : null;
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = cached != null
+                    ? Optional.of(cached.eTag())
+                    : resource.versionLookup.apply(id).map(version -> "\"" + version + "\"");
+            if (eTag.isPresent() && matches(ifNoneMatch, eTag.get(), true)) {
+                notModified(response, eTag.get());
+                return;
+            }
+        }
+
+        if (cache == null || !isCacheable(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String baseUri = request.getScheme() + "://" + request.getHeader(HttpHeaders.HOST);
+        if (cached != null && cached.baseUri().equals(baseUri)) {
+            cached.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        long stamp = cache.stamp();
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            String eTag = responseWrapper.getHeader(HttpHeaders.ETAG);
+            // Not if read from a lagging replica, as it may predate an eviction
+            if (responseWrapper.getStatus() == HttpStatus.OK.value() && eTag != null && !ReadRouting.isStaleRead()) {
+                cache.put(resource.type, id, stamp, new RenderedRepresentation(baseUri, eTag,
+                        responseWrapper.getContentType(), headers(responseWrapper),
+                        responseWrapper.getContentAsByteArray()));
+            }
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void filterCollection(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String eTag = collectionETags.current();
+
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch != null && !matches(ifMatch, eTag, false)) {
+            response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+            return;
+        }
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, eTag, true)) {
+            notModified(response, eTag);
+            return;
+        }
+
+        // Taken before the request is handled, so that it never claims more recent content than what is sent
+        CollectionResponseWrapper responseWrapper = new CollectionResponseWrapper(response, eTag);
+        filterChain.doFilter(request, responseWrapper);
+        responseWrapper.setETag();
+    }
+
+    /**
+     * Sets the entity tag of a collection as the body is about to be written, once the content has been read, unless
+     * it was read from a lagging replica, which may not reflect every change counted in the tag yet.
+     */
+    private static class CollectionResponseWrapper extends HttpServletResponseWrapper {
+
+        private final String eTag;
+
+        private boolean eTagSet;
+
+        CollectionResponseWrapper(HttpServletResponse response, String eTag) {
+            super(response);
+            this.eTag = eTag;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setETag();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setETag();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setETag();
+            super.flushBuffer();
+        }
+
+        void setETag() {
+            if (!eTagSet && !isCommitted()) {
+                eTagSet = true;
+                if (!ReadRouting.isStaleRead()) {
+                    setHeader(HttpHeaders.ETAG, eTag);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Only caches representations which depend on nothing but the entity and the base URI of the request.
+     */
+    private static boolean isCacheable(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return HttpMethod.GET.matches(request.getMethod())
+                && request.getQueryString() == null
+                && request.getHeader(HttpHeaders.ORIGIN) == null
+                && request.getHeader(HttpHeaders.HOST) != null
+                && request.getHeader("Forwarded") == null
+                && request.getHeader("X-Forwarded-Host") == null
+                && request.getHeader("X-Forwarded-Proto") == null
+                && (accept == null || CACHEABLE_ACCEPT_HEADERS.contains(accept));
+    }
+
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (TRANSIENT_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static void notModified(HttpServletResponse response, String eTag) {
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        response.setHeader(HttpHeaders.ETAG, eTag);
+    }
+
+    /**
+     * @param weak whether to use the weak comparison, as for {@code If-None-Match}, rather than the strong one
+     */
+    private static boolean matches(String header, String eTag, boolean weak) {
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+            String trimmed = candidate.trim();
+            if (weak && trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isId(String segment) {
+        return !segment.isEmpty() && segment.length() < 19 && segment.chars().allMatch(Character::isDigit);
+    }
+
+    private record ItemResource(Class<?> type, LongFunction<Optional<Long>> versionLookup) {
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.service.ContactProblemException;
+import com.example.lab1.service.ProductionInstallationContactAssigner;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.rest.core.event.AfterLinkSaveEvent;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns contacts to many installations at once, either from a list of installation and contact IDs or by moving
+ * all installations of one contact to another:
+ * <pre>
+ * {"assignments": [{"installation": 1, "contact": 2}, ...]}
+ * {"fromContact": 2, "toContact": 3}
+ * </pre>
+ * The whole request is validated first, and rejected with all its problems if any. A link save event is published
+ * for each installation whose contact changed, as Spring Data REST does for {@code PUT .../contact}.
+ */
+@RepositoryRestController
+@AllArgsConstructor
+public class ContactAssignmentController {
+
+    private final ProductionInstallationContactAssigner contactAssigner;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostMapping(path = "/production-installations/contact-assignments", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> assign(@RequestBody ContactAssignmentRequest request) {
+        List<ProductionInstallation> assigned;
+        if (request.assignments() != null && request.fromContact() == null && request.toContact() == null) {
+            assigned = contactAssigner.assign(contactIdByInstallationId(request.assignments()));
+        } else if (request.assignments() == null && request.fromContact() != null && request.toContact() != null) {
+            assigned = contactAssigner.reassign(request.fromContact(), request.toContact());
+        } else {
+            throw ContactProblemException.assignment(List.of(
+                    "Either \"assignments\", or \"fromContact\" and \"toContact\" must be given."));
+        }
+
+        assigned.forEach(installation ->
+                eventPublisher.publishEvent(new AfterLinkSaveEvent(installation, installation.getContact())));
+        return ResponseEntity.ok(Map.of("assigned", assigned.size()));
+    }
+
+    private static Map<Long, Long> contactIdByInstallationId(List<ContactAssignmentRequest.Assignment> assignments) {
+        List<String> problems = new ArrayList<>();
+        Map<Long, Long> contactIdByInstallationId = new HashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            ContactAssignmentRequest.Assignment assignment = assignments.get(i);
+            if (assignment == null || assignment.installation() == null || assignment.contact() == null) {
+                problems.add(String.format("Assignment %d: \"installation\" and \"contact\" must be given.", i + 1));
+                continue;
+            }
+            Long previous = contactIdByInstallationId.put(assignment.installation(), assignment.contact());
+            if (previous != null && !previous.equals(assignment.contact())) {
+                problems.add(String.format("Assignment %d: installation %d is already assigned to contact %d.",
+                        i + 1, assignment.installation(), previous));
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw ContactProblemException.assignment(problems);
+        }
+        return contactIdByInstallationId;
+    }
+
+    public record ContactAssignmentRequest(List<Assignment> assignments, Long fromContact, Long toContact) {
+
+        public record Assignment(Long installation, Long contact) {
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.ContactSearchIndex;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Looks contacts up by words or prefixes of their name, city or zip code, ranked by relevance, from the
+ * {@link ContactSearchIndex} when enabled, falling back to a database scan while the index is being built. Each
+ * contact links to the installations it owns.
+ */
+@RepositoryRestController
+@AllArgsConstructor
+public class ContactLookupController {
+
+    private final ObjectProvider<ContactSearchIndex> contactSearchIndex;
+
+    private final ContactRepository contactRepository;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final RepositoryEntityLinks entityLinks;
+
+    @GetMapping(path = "/contacts/lookup")
+    public ResponseEntity<PagedModel<?>> lookup(@RequestParam(name = "q") String query, Pageable pageable,
+                                                PagedResourcesAssembler<Contact> pagedAssembler,
+                                                PersistentEntityResourceAssembler assembler) {
+        ContactSearchIndex index = contactSearchIndex.getIfAvailable();
+        List<ContactSearchIndex.Hit> hits = index != null ? index.search(query) : null;
+
+        Page<Contact> page;
+        if (hits != null) {
+            List<Long> ids = hits.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .map(ContactSearchIndex.Hit::id)
+                    .toList();
+            Map<Long, Contact> byId = contactRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Contact::getId, Function.identity()));
+            page = new PageImpl<>(ids.stream().map(byId::get).filter(Objects::nonNull).toList(), pageable, hits.size());
+        } else {
+            page = contactRepository.findAllByText(query.strip(), pageable);
+        }
+
+        if (page.isEmpty()) {
+            return ResponseEntity.ok(pagedAssembler.toEmptyModel(page, Contact.class));
+        }
+
+        Map<Long, List<Long>> installationIds = new HashMap<>();
+        productionInstallationRepository.findContactsAndOutputPowersByContactIdIn(
+                        page.stream().map(Contact::getId).toList())
+                .forEach(installation -> installationIds.computeIfAbsent(installation.getContactId(),
+                        contactId -> new ArrayList<>()).add(installation.getId()));
+
+        return ResponseEntity.ok(pagedAssembler.toModel(page, contact -> {
+            PersistentEntityResource resource = assembler.toModel(contact);
+            installationIds.getOrDefault(contact.getId(), List.of()).forEach(installationId ->
+                    resource.add(entityLinks.linkToItemResource(ProductionInstallation.class, installationId)
+                            .expand().withRel("installations")));
+            return resource;
+        }));
+    }
+
+}
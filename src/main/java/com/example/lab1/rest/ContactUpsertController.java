@@ -0,0 +1,46 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ContactAddressKey;
+import com.example.lab1.service.ContactUpsertResult;
+import com.example.lab1.service.ContactUpserter;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates contacts unless they exist already, as told by their normalized name and address
+ * ({@link ContactAddressKey}), for feeds sending the same contacts over and over:
+ * <pre>
+ * [{"name": "Jan de Vries", "zipCode": "6811 AB", "houseNumber": "12a", "city": "Arnhem"}, ...]
+ * </pre>
+ * The ID of each contact is returned in the order of the request, with whether it was created. The whole request is
+ * validated first, and rejected with all its problems if any. A create event is published for each created contact,
+ * as Spring Data REST does for {@code POST /contacts}.
+ */
+@RepositoryRestController
+@ConditionalOnProperty(prefix = "lab1.contact-upsert", name = "enabled", matchIfMissing = true)
+@AllArgsConstructor
+public class ContactUpsertController {
+
+    private final ContactUpserter contactUpserter;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostMapping(path = "/contacts/upsert", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> upsert(@RequestBody List<Contact> contacts) {
+        ContactUpsertResult result = contactUpserter.upsert(contacts);
+        result.created().forEach(contact -> eventPublisher.publishEvent(new AfterCreateEvent(contact)));
+        return ResponseEntity.ok(Map.of("contacts", result.contacts()));
+    }
+
+}
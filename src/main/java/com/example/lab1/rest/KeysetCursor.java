@@ -0,0 +1,55 @@
+package com.example.lab1.rest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in a keyset-paginated collection: the direction to seek in, and the key of the row to seek from
+ * ({@code id}, optionally preceded by {@code outputPower} for views sorted on output power).
+ */
+record KeysetCursor(Direction direction, Double outputPower, long id) {
+
+    enum Direction {NEXT, PREVIOUS}
+
+    static final KeysetCursor FIRST = new KeysetCursor(Direction.NEXT, -Double.MAX_VALUE, Long.MIN_VALUE);
+
+    /**
+     * @return the cursor found in the given request parameter, or {@link #FIRST} if the parameter is empty
+     */
+    static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            Direction direction = parts[0].equals("n") ? Direction.NEXT : parts[0].equals("p") ? Direction.PREVIOUS : null;
+            if (direction == null || parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException(token);
+            }
+            return new KeysetCursor(direction, parts.length == 3 ? Double.valueOf(parts[2]) : null, Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException exc) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", exc);
+        }
+    }
+
+    static KeysetCursor next(Double outputPower, long id) {
+        return new KeysetCursor(Direction.NEXT, outputPower, id);
+    }
+
+    static KeysetCursor previous(Double outputPower, long id) {
+        return new KeysetCursor(Direction.PREVIOUS, outputPower, id);
+    }
+
+    KeysetCursor reverse() {
+        return new KeysetCursor(direction == Direction.NEXT ? Direction.PREVIOUS : Direction.NEXT, outputPower, id);
+    }
+
+    String encode() {
+        String value = (direction == Direction.NEXT ? "n" : "p") + ":" + id + (outputPower != null ? ":" + outputPower : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
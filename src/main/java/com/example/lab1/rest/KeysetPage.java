@@ -0,0 +1,52 @@
+package com.example.lab1.rest;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+record KeysetPage<T>(List<T> content, KeysetCursor previous, KeysetCursor next) {
+
+    /**
+     * Fetches one page after (or before) the given cursor, asking for one extra row to find out whether the
+     * collection continues in the seek direction, so that no count query is needed.
+     *
+     * @param after  query returning rows following the cursor key in ascending order
+     * @param before query returning rows preceding the cursor key in descending order
+     * @param keyOf  cursor pointing after the given row
+     */
+    static <T> KeysetPage<T> fetch(KeysetCursor cursor, int size,
+                                   BiFunction<KeysetCursor, Pageable, List<T>> after,
+                                   BiFunction<KeysetCursor, Pageable, List<T>> before,
+                                   Function<T, KeysetCursor> keyOf) {
+        boolean forward = cursor.direction() == KeysetCursor.Direction.NEXT;
+        List<T> rows = new ArrayList<>((forward ? after : before).apply(cursor, PageRequest.ofSize(size + 1)));
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows.remove(size);
+        }
+        if (!forward) {
+            Collections.reverse(rows);
+        }
+
+        if (rows.isEmpty()) {
+            return new KeysetPage<>(rows,
+                    forward && cursor != KeysetCursor.FIRST ? cursor.reverse() : null,
+                    forward ? null : cursor.reverse());
+        }
+
+        KeysetCursor first = keyOf.apply(rows.get(0));
+        KeysetCursor last = keyOf.apply(rows.get(rows.size() - 1));
+        boolean hasPrevious = forward ? cursor != KeysetCursor.FIRST : hasMore;
+        boolean hasNext = !forward || hasMore;
+        return new KeysetPage<>(rows,
+                hasPrevious ? KeysetCursor.previous(first.outputPower(), first.id()) : null,
+                hasNext ? last : null);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Cursor-based alternative to the offset pagination of the collection resources, enabled by passing a (possibly
+ * empty) {@code cursor} request parameter. Pages are fetched by seeking on the key of the last row seen, so deep pages
+ * cost the same as the first one and no count query is run.
+ * <p>
+ * Installations without output power are left out of the view sorted on output power, rather than sorted first or
+ * last, so that the cursors of that view always carry an output power.
+ */
+@RepositoryRestController
+@AllArgsConstructor
+public class KeysetPaginationController {
+
+    private static final String CURSOR_PARAMETER = "cursor";
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final ContactRepository contactRepository;
+
+    private final RepositoryRestConfiguration restConfiguration;
+
+    @GetMapping(path = "/production-installations", params = CURSOR_PARAMETER)
+    public ResponseEntity<CollectionModel<Object>> productionInstallations(
+            @RequestParam(CURSOR_PARAMETER) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            PersistentEntityResourceAssembler assembler) {
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        KeysetPage<ProductionInstallation> page;
+
+        if (isSortedOn(sort, "outputPower")) {
+            if (keysetCursor.outputPower() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match sort order");
+            }
+            page = KeysetPage.fetch(keysetCursor, pageSize(size),
+                    (after, pageable) -> productionInstallationRepository.findPageAfterByOutputPower(
+                            after.outputPower(), after.id(), pageable),
+                    (before, pageable) -> productionInstallationRepository.findPageBeforeByOutputPower(
+                            before.outputPower(), before.id(), pageable),
+                    installation -> KeysetCursor.next(installation.getOutputPower(), installation.getId()));
+        } else if (sort == null || isSortedOn(sort, "id")) {
+            page = KeysetPage.fetch(keysetCursor, pageSize(size),
+                    (after, pageable) -> productionInstallationRepository.findPageAfter(after.id(), pageable),
+                    (before, pageable) -> productionInstallationRepository.findPageBefore(before.id(), pageable),
+                    installation -> KeysetCursor.next(null, installation.getId()));
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort order for cursor pagination");
+        }
+
+        return ResponseEntity.ok(toCollectionModel(page, ProductionInstallation.class, assembler));
+    }
+
+    @GetMapping(path = "/contacts", params = CURSOR_PARAMETER)
+    public ResponseEntity<CollectionModel<Object>> contacts(
+            @RequestParam(CURSOR_PARAMETER) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "sort", required = false) String sort,
+            PersistentEntityResourceAssembler assembler) {
+        if (sort != null && !isSortedOn(sort, "id")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort order for cursor pagination");
+        }
+
+        KeysetPage<Contact> page = KeysetPage.fetch(KeysetCursor.decode(cursor), pageSize(size),
+                (after, pageable) -> contactRepository.findPageAfter(after.id(), pageable),
+                (before, pageable) -> contactRepository.findPageBefore(before.id(), pageable),
+                contact -> KeysetCursor.next(null, contact.getId()));
+
+        return ResponseEntity.ok(toCollectionModel(page, Contact.class, assembler));
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return restConfiguration.getDefaultPageSize();
+        }
+        return Math.min(size, restConfiguration.getMaxPageSize());
+    }
+
+    private static boolean isSortedOn(String sort, String property) {
+        if (sort == null) {
+            return false;
+        }
+        String[] parts = sort.split(",");
+        return parts[0].equals(property) && (parts.length == 1 || parts[1].equalsIgnoreCase("asc"));
+    }
+
+    private static CollectionModel<Object> toCollectionModel(KeysetPage<?> page, Class<?> type,
+                                                             PersistentEntityResourceAssembler assembler) {
+        CollectionModel<Object> model = CollectionModels.of(page.content(), type, assembler);
+        if (page.previous() != null) {
+            model.add(cursorLink(page.previous(), IanaLinkRelations.PREV.value()));
+        }
+        if (page.next() != null) {
+            model.add(cursorLink(page.next(), IanaLinkRelations.NEXT.value()));
+        }
+        return model;
+    }
+
+    private static Link cursorLink(KeysetCursor cursor, String rel) {
+        return Link.of(ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(CURSOR_PARAMETER, cursor.encode())
+                .toUriString(), rel);
+    }
+
+}
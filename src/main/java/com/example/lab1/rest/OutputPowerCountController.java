@@ -0,0 +1,54 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.OutputPowerHistogram;
+import com.example.lab1.index.OutputPowerIndex;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Counts the installations within an output power range, exactly from the {@link OutputPowerIndex} or the database,
+ * or, with {@code approximate=true}, estimated from the {@link OutputPowerHistogram} when it is ready.
+ */
+@RepositoryRestController
+@AllArgsConstructor
+public class OutputPowerCountController {
+
+    private final ObjectProvider<OutputPowerHistogram> outputPowerHistogram;
+
+    private final ObjectProvider<OutputPowerIndex> outputPowerIndex;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    @GetMapping(path = "/production-installations/search/countByOutputPowerBetween")
+    public ResponseEntity<OutputPowerCount> countByOutputPowerBetween(
+            @RequestParam(name = "powerGreaterThan") double lowerLimit,
+            @RequestParam(name = "powerLowerThan") double upperLimit,
+            @RequestParam(name = "approximate", defaultValue = "false") boolean approximate) {
+        if (approximate) {
+            OutputPowerHistogram histogram = outputPowerHistogram.getIfAvailable();
+            Long estimate = histogram != null ? histogram.estimateBetween(lowerLimit, upperLimit) : null;
+            if (estimate != null) {
+                return ResponseEntity.ok(new OutputPowerCount(estimate, true));
+            }
+        }
+
+        OutputPowerIndex index = outputPowerIndex.getIfAvailable();
+        long count = index != null ? index.countBetween(lowerLimit, upperLimit) : -1;
+        if (count < 0) {
+            count = productionInstallationRepository.countByOutputPowerBetween(lowerLimit, upperLimit);
+        }
+        return ResponseEntity.ok(new OutputPowerCount(count, false));
+    }
+
+    /**
+     * @param approximate whether the count is an estimate, which may be requested but is not always available
+     */
+    public record OutputPowerCount(long count, boolean approximate) {
+    }
+
+}
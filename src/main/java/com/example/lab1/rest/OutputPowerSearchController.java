@@ -0,0 +1,65 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.OutputPowerIndex;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Takes over the {@code findAllByOutputPowerBetween} search resource when the {@link OutputPowerIndex} is enabled,
+ * falling back to the repository query while the index is warming up.
+ */
+@RepositoryRestController
+@ConditionalOnProperty(prefix = "lab1.output-power-index", name = "enabled", matchIfMissing = true)
+@AllArgsConstructor
+public class OutputPowerSearchController {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final OutputPowerIndex outputPowerIndex;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    @GetMapping(path = "/production-installations/search/findAllByOutputPowerBetween")
+    public ResponseEntity<CollectionModel<Object>> findAllByOutputPowerBetween(
+            @RequestParam(name = "powerGreaterThan", required = false) Double lowerLimit,
+            @RequestParam(name = "powerLowerThan", required = false) Double upperLimit,
+            PersistentEntityResourceAssembler assembler) {
+        long[] ids = lowerLimit != null && upperLimit != null
+                ? outputPowerIndex.findIdsBetween(lowerLimit, upperLimit)
+                : null;
+
+        List<ProductionInstallation> installations = ids != null
+                ? findAllInOrder(ids)
+                : productionInstallationRepository.findAllByOutputPowerBetween(lowerLimit, upperLimit);
+
+        return ResponseEntity.ok(CollectionModels.of(installations, ProductionInstallation.class, assembler));
+    }
+
+    private List<ProductionInstallation> findAllInOrder(long[] ids) {
+        List<ProductionInstallation> installations = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += LOAD_BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(ids, from, Math.min(from + LOAD_BATCH_SIZE, ids.length));
+            Map<Long, ProductionInstallation> byId = new HashMap<>(batch.length * 2);
+            productionInstallationRepository.findAllById(Arrays.stream(batch).boxed().toList())
+                    .forEach(installation -> byId.put(installation.getId(), installation));
+            Arrays.stream(batch).mapToObj(byId::get).filter(Objects::nonNull).forEach(installations::add);
+        }
+        return installations;
+    }
+
+}
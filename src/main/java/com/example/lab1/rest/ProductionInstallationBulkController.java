@@ -0,0 +1,31 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.service.BulkImportException;
+import com.example.lab1.service.BulkImportResult;
+import com.example.lab1.service.ProductionInstallationBulkImporter;
+import lombok.AllArgsConstructor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@RepositoryRestController
+@AllArgsConstructor
+public class ProductionInstallationBulkController {
+
+    private final ProductionInstallationBulkImporter bulkImporter;
+
+    @PostMapping(path = "/production-installations/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Map<String, Object>> bulkImport(InputStream body) throws IOException {
+        BulkImportResult result = bulkImporter.importNdjson(body);
+        if (result.hasProblems()) {
+            throw new BulkImportException(result);
+        }
+        return ResponseEntity.ok(Map.of("imported", result.imported()));
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.service.ProductionInstallationExporter;
+import lombok.AllArgsConstructor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RepositoryRestController
+@AllArgsConstructor
+public class ProductionInstallationExportController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductionInstallationExporter exporter;
+
+    @GetMapping(path = "/production-installations/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("production-installations.ndjson"))
+                .body(exporter::writeNdjson);
+    }
+
+    @GetMapping(path = "/production-installations/export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("production-installations.csv"))
+                .body(exporter::writeCsv);
+    }
+
+    private static String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+
+}
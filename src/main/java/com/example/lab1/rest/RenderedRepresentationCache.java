@@ -0,0 +1,80 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.RepresentationCacheProperties;
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the rendered representations of installation and contact item resources, so that hot reads skip
+ * the database, Jackson and link building. Entries are evicted once a change to their entity is committed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.representation-cache", name = "enabled", matchIfMissing = true)
+public class RenderedRepresentationCache {
+
+    private final Cache<Key, RenderedRepresentation> cache;
+
+    /**
+     * Number of evictions so far, which tells whether a representation rendered from the database may have been made
+     * stale by a change committed in the meantime.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RenderedRepresentationCache(RepresentationCacheProperties properties) {
+        this.cache = Caffeine.newBuilder().maximumSize(properties.getMaximumSize()).build();
+    }
+
+    public RenderedRepresentation get(Class<?> type, long id) {
+        return cache.getIfPresent(new Key(type, id));
+    }
+
+    /**
+     * @return the stamp to pass to {@link #put}, to be taken before rendering the representation
+     */
+    public long stamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Caches the given representation, unless an entity changed after the stamp was taken.
+     */
+    public void put(Class<?> type, long id, long stamp, RenderedRepresentation representation) {
+        cache.asMap().compute(new Key(type, id), (key, current) -> evictions.get() == stamp ? representation : current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onInstallationChanged(EntityChangedEvent<ProductionInstallation> event) {
+        evict(ProductionInstallation.class, event.entity().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onContactChanged(EntityChangedEvent<Contact> event) {
+        evict(Contact.class, event.entity().getId());
+    }
+
+    private void evict(Class<?> type, long id) {
+        evictions.incrementAndGet();
+        cache.invalidate(new Key(type, id));
+    }
+
+    /**
+     * @param baseUri scheme and authority the links of the representation were built with
+     */
+    public record RenderedRepresentation(String baseUri, String eTag, String contentType,
+                                         Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private record Key(Class<?> type, long id) {
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.TelemetryProperties;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.example.lab1.service.BulkImportException;
+import com.example.lab1.service.BulkImportResult;
+import com.example.lab1.telemetry.Resolution;
+import com.example.lab1.telemetry.TelemetryIngester;
+import com.example.lab1.telemetry.TelemetryPoint;
+import com.example.lab1.telemetry.TelemetryStore;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RepositoryRestController
+@ConditionalOnProperty(prefix = "lab1.telemetry", name = "enabled", matchIfMissing = true)
+@AllArgsConstructor
+public class TelemetryController {
+
+    private final TelemetryIngester telemetryIngester;
+
+    private final TelemetryStore telemetryStore;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final TelemetryProperties properties;
+
+    private final Clock clock;
+
+    @PostMapping(path = "/production-installations/telemetry", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Map<String, Object>> ingest(InputStream body) throws IOException {
+        BulkImportResult result = telemetryIngester.ingestNdjson(body);
+        if (result.hasProblems()) {
+            throw new BulkImportException(result);
+        }
+        return ResponseEntity.ok(Map.of("imported", result.imported()));
+    }
+
+    /**
+     * Without an explicit {@code resolution}, the finest one allowed for the span of the range and still retained at
+     * its start is used.
+     */
+    @GetMapping(path = "/production-installations/{id}/telemetry")
+    public ResponseEntity<TelemetryResponse> telemetry(
+            @PathVariable long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "resolution", required = false) String resolutionProperty) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        Duration span = Duration.between(from, to);
+
+        Resolution finestResolution = finestResolution(span);
+        Resolution resolution;
+        if (resolutionProperty == null) {
+            resolution = finestResolution;
+            if (resolution == Resolution.RAW && from.isBefore(telemetryStore.rawRetentionStart())) {
+                resolution = Resolution.MINUTE;
+            }
+            if (resolution == Resolution.MINUTE && from.isBefore(clock.instant().minus(properties.getMinuteRetention()))) {
+                resolution = Resolution.HOUR;
+            }
+        } else {
+            resolution = Resolution.fromProperty(resolutionProperty).orElseThrow(() ->
+                    new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported resolution: " + resolutionProperty));
+            if (resolution.compareTo(finestResolution) < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Range too long for resolution " + resolutionProperty);
+            }
+        }
+
+        if (!productionInstallationRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(new TelemetryResponse(id, resolution.getProperty(), from, to,
+                telemetryStore.find(id, from, to, resolution)));
+    }
+
+    private Resolution finestResolution(Duration span) {
+        if (span.compareTo(properties.getRawMaxSpan()) <= 0) {
+            return Resolution.RAW;
+        } else if (span.compareTo(properties.getMinuteMaxSpan()) <= 0) {
+            return Resolution.MINUTE;
+        }
+        return Resolution.HOUR;
+    }
+
+    public record TelemetryResponse(long installationId, String resolution, Instant from, Instant to,
+                                    List<TelemetryPoint> points) {
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Offset pagination of the collection resources without totals, enabled by passing {@code totals=false}: one more row
+ * than the page size is fetched to tell whether a next page exists, and no count is needed. Pages link to the first,
+ * previous and next ones, but carry no {@code page} metadata.
+ */
+@RepositoryRestController
+@AllArgsConstructor
+public class UncountedPaginationController {
+
+    private static final String TOTALS_DISABLED = "totals=false";
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final ContactRepository contactRepository;
+
+    @GetMapping(path = "/production-installations", params = TOTALS_DISABLED)
+    public ResponseEntity<CollectionModel<Object>> productionInstallations(
+            Pageable pageable, PersistentEntityResourceAssembler assembler) {
+        return ResponseEntity.ok(toCollectionModel(productionInstallationRepository.findAllBy(pageable),
+                ProductionInstallation.class, assembler));
+    }
+
+    @GetMapping(path = "/contacts", params = TOTALS_DISABLED)
+    public ResponseEntity<CollectionModel<Object>> contacts(Pageable pageable,
+                                                            PersistentEntityResourceAssembler assembler) {
+        return ResponseEntity.ok(toCollectionModel(contactRepository.findAllBy(pageable), Contact.class, assembler));
+    }
+
+    private static CollectionModel<Object> toCollectionModel(Slice<?> slice, Class<?> type,
+                                                             PersistentEntityResourceAssembler assembler) {
+        CollectionModel<Object> model = CollectionModels.of(slice.getContent(), type, assembler);
+        if (slice.hasPrevious()) {
+            model.add(pageLink(0, IanaLinkRelations.FIRST.value()));
+            model.add(pageLink(slice.getNumber() - 1, IanaLinkRelations.PREV.value()));
+        }
+        if (slice.hasNext()) {
+            model.add(pageLink(slice.getNumber() + 1, IanaLinkRelations.NEXT.value()));
+        }
+        return model;
+    }
+
+    private static Link pageLink(int page, String rel) {
+        return Link.of(ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page", page)
+                .toUriString(), rel);
+    }
+
+}
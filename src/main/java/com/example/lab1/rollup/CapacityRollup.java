@@ -0,0 +1,9 @@
+package com.example.lab1.rollup;
+
+public record CapacityRollup(String group, long count, double sum, double min, double max, double average) {
+
+    public static CapacityRollup of(String group, long count, double sum, double min, double max) {
+        return new CapacityRollup(group, count, sum, min, max, count > 0 ? sum / count : 0.0);
+    }
+
+}
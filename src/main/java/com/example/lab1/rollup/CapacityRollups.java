@@ -0,0 +1,261 @@
+package com.example.lab1.rollup;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactAddress;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.InstallationContactAndOutputPower;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Output power statistics of installations grouped by the city and zip code of their contact, maintained
+ * incrementally from committed {@link EntityChangedEvent}s so that reading them costs O(groups).
+ * <p>
+ * Sums are accumulated in fixed-point units of 10<sup>-4</sup> (the precision allowed for output powers), so that
+ * subtracting removed installations does not accumulate floating-point drift. Until the initial load completes,
+ * {@link #rollups} returns {@code null}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.capacity-rollups", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class CapacityRollups {
+
+    private static final double UNITS_PER_POWER = 10_000.0;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final ContactRepository contactRepository;
+
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private State state;
+
+    private final List<Consumer<State>> pendingChanges = new ArrayList<>();
+
+    public CapacityRollups(ProductionInstallationRepository productionInstallationRepository,
+                           ContactRepository contactRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.contactRepository = contactRepository;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * @return the rollups ordered by group, or {@code null} if they are still being loaded
+     */
+    public synchronized List<CapacityRollup> rollups(GroupBy groupBy) {
+        if (state == null) {
+            return null;
+        }
+        return state.groups.get(groupBy).entrySet().stream()
+                .map(entry -> entry.getValue().toRollup(entry.getKey()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        taskExecutor.execute(this::load);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onInstallationChanged(EntityChangedEvent<ProductionInstallation> event) {
+        ProductionInstallation installation = event.entity();
+        if (event.type() == EntityChangedEvent.Type.DELETED) {
+            apply(current -> current.removeInstallation(installation.getId()));
+            return;
+        }
+
+        Contact contact = installation.getContact();
+        ContactState contactState = contact != null && Hibernate.isInitialized(contact)
+                ? new ContactState(contact.getCity(), contact.getZipCode())
+                : null;
+        InstallationState installationState = new InstallationState(installation.getOutputPower(),
+                contact != null ? contact.getId() : null);
+        apply(current -> {
+            if (contactState != null && !current.contacts.containsKey(installationState.contactId)) {
+                current.putContact(installationState.contactId, contactState);
+            }
+            current.putInstallation(installation.getId(), installationState);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onContactChanged(EntityChangedEvent<Contact> event) {
+        Contact contact = event.entity();
+        if (event.type() == EntityChangedEvent.Type.DELETED) {
+            apply(current -> current.removeContact(contact.getId()));
+            return;
+        }
+
+        ContactState contactState = new ContactState(contact.getCity(), contact.getZipCode());
+        apply(current -> current.putContact(contact.getId(), contactState));
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        State loaded = new State();
+        snapshotTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ContactAddress> addresses = contactRepository.streamAddresses();
+                 Stream<InstallationContactAndOutputPower> entries = productionInstallationRepository.streamContactsAndOutputPowers()) {
+                addresses.forEach(address ->
+                        loaded.putContact(address.getId(), new ContactState(address.getCity(), address.getZipCode())));
+                entries.forEach(entry ->
+                        loaded.putInstallation(entry.getId(), new InstallationState(entry.getOutputPower(), entry.getContactId())));
+            }
+        });
+
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(loaded));
+            pendingChanges.clear();
+            state = loaded;
+        }
+        log.info("Capacity rollups loaded for {} installation(s) in {} ms", loaded.installations.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        if (state != null) {
+            change.accept(state);
+        } else {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static final class State {
+
+        private final Map<Long, InstallationState> installations = new HashMap<>();
+
+        private final Map<Long, ContactState> contacts = new HashMap<>();
+
+        private final Map<Long, Set<Long>> installationsByContact = new HashMap<>();
+
+        private final Map<GroupBy, Map<String, GroupStatistics>> groups = new EnumMap<>(GroupBy.class);
+
+        State() {
+            for (GroupBy groupBy : GroupBy.values()) {
+                groups.put(groupBy, new TreeMap<>());
+            }
+        }
+
+        void putContact(long contactId, ContactState contact) {
+            List<Long> affected = List.copyOf(installationsByContact.getOrDefault(contactId, Set.of()));
+            affected.forEach(installationId -> accumulate(installations.get(installationId), -1));
+            contacts.put(contactId, contact);
+            affected.forEach(installationId -> accumulate(installations.get(installationId), 1));
+        }
+
+        void removeContact(long contactId) {
+            installationsByContact.getOrDefault(contactId, Set.of())
+                    .forEach(installationId -> accumulate(installations.get(installationId), -1));
+            contacts.remove(contactId);
+        }
+
+        void putInstallation(long installationId, InstallationState installation) {
+            removeInstallation(installationId);
+            installations.put(installationId, installation);
+            if (installation.contactId != null) {
+                installationsByContact.computeIfAbsent(installation.contactId, contactId -> new HashSet<>())
+                        .add(installationId);
+            }
+            accumulate(installation, 1);
+        }
+
+        void removeInstallation(long installationId) {
+            InstallationState previous = installations.remove(installationId);
+            if (previous == null) {
+                return;
+            }
+            accumulate(previous, -1);
+            if (previous.contactId != null) {
+                Set<Long> installationIds = installationsByContact.get(previous.contactId);
+                installationIds.remove(installationId);
+                if (installationIds.isEmpty()) {
+                    installationsByContact.remove(previous.contactId);
+                }
+            }
+        }
+
+        private void accumulate(InstallationState installation, int sign) {
+            if (installation.outputPower == null || installation.contactId == null) {
+                return;
+            }
+            ContactState contact = contacts.get(installation.contactId);
+            if (contact == null) {
+                return;
+            }
+            accumulate(GroupBy.CITY, contact.city, installation.outputPower, sign);
+            accumulate(GroupBy.ZIP_CODE, contact.zipCode, installation.outputPower, sign);
+        }
+
+        private void accumulate(GroupBy groupBy, String group, double outputPower, int sign) {
+            Map<String, GroupStatistics> statistics = groups.get(groupBy);
+            GroupStatistics groupStatistics = statistics.computeIfAbsent(group, key -> new GroupStatistics());
+            groupStatistics.add(outputPower, sign);
+            if (groupStatistics.count == 0) {
+                statistics.remove(group);
+            }
+        }
+
+    }
+
+    private record InstallationState(Double outputPower, Long contactId) {
+    }
+
+    private record ContactState(String city, String zipCode) {
+    }
+
+    private static final class GroupStatistics {
+
+        private long count;
+
+        private long sumUnits;
+
+        /**
+         * Multiset of the output powers in the group, giving min and max after removals.
+         */
+        private final TreeMap<Double, Integer> outputPowers = new TreeMap<>();
+
+        void add(double outputPower, int sign) {
+            count += sign;
+            sumUnits += sign * Math.round(outputPower * UNITS_PER_POWER);
+            outputPowers.merge(outputPower, sign, (left, right) -> left + right == 0 ? null : left + right);
+        }
+
+        CapacityRollup toRollup(String group) {
+            return CapacityRollup.of(group, count, sumUnits / UNITS_PER_POWER,
+                    outputPowers.firstKey(), outputPowers.lastKey());
+        }
+
+    }
+
+}
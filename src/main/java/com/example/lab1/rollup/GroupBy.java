@@ -0,0 +1,23 @@
+package com.example.lab1.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@AllArgsConstructor
+@Getter
+public enum GroupBy {
+
+    CITY("city"),
+
+    ZIP_CODE("zipCode");
+
+    private final String property;
+
+    public static Optional<GroupBy> fromProperty(String property) {
+        return Arrays.stream(values()).filter(groupBy -> groupBy.property.equals(property)).findFirst();
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.example.lab1.service;
+
+import lombok.Getter;
+
+@Getter
+public class BulkImportException extends RuntimeException {
+
+    private final BulkImportResult result;
+
+    public BulkImportException(BulkImportResult result) {
+        super(String.format("%d line(s) rejected", result.problems().size()));
+        this.result = result;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.example.lab1.service;
+
+import java.util.List;
+
+public record BulkImportResult(long imported, List<String> problems) {
+
+    public boolean hasProblems() {
+        return !problems.isEmpty();
+    }
+
+}
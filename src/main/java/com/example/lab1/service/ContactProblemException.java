@@ -0,0 +1,28 @@
+package com.example.lab1.service;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Rejects an operation on contacts as a whole, e.g. an assignment or an upsert, listing the problems found.
+ */
+@Getter
+public class ContactProblemException extends RuntimeException {
+
+    private final List<String> problems;
+
+    private ContactProblemException(String operation, List<String> problems) {
+        super(String.format("%d problem(s) with the %s", problems.size(), operation));
+        this.problems = problems;
+    }
+
+    public static ContactProblemException assignment(List<String> problems) {
+        return new ContactProblemException("contact assignment", problems);
+    }
+
+    public static ContactProblemException upsert(List<String> problems) {
+        return new ContactProblemException("contact upsert", problems);
+    }
+
+}
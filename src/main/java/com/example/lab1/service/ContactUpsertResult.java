@@ -0,0 +1,19 @@
+package com.example.lab1.service;
+
+import com.example.lab1.model.Contact;
+
+import java.util.List;
+
+/**
+ * @param contacts the contact of each upserted one, in the same order
+ * @param created  the contacts which were created
+ */
+public record ContactUpsertResult(List<UpsertedContact> contacts, List<Contact> created) {
+
+    /**
+     * @param created whether the contact was created, which is only reported for its first occurrence in a batch
+     */
+    public record UpsertedContact(long id, boolean created) {
+    }
+
+}
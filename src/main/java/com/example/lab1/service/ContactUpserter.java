@@ -0,0 +1,150 @@
+package com.example.lab1.service;
+
+import com.example.lab1.config.ContactUpsertProperties;
+import com.example.lab1.index.ContactAddressIndex;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ContactAddressKey;
+import com.example.lab1.repository.ContactNameAndAddress;
+import com.example.lab1.repository.ContactRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Creates contacts unless a contact with the same {@link ContactAddressKey} exists already, in which case the ID of
+ * the existing contact, the lowest one if there are several, is returned instead. Existing contacts are looked up from
+ * the {@link ContactAddressIndex}, or by address hash from the database while the index is being loaded.
+ * <p>
+ * Concurrent upserts are serialized per stripe of key hashes: the stripes of all the keys of a batch are locked, in
+ * increasing order, until the created contacts are committed, so that two batches cannot both create the same
+ * contact. Contacts created through the rest of the API are not deduplicated.
+ */
+@Service
+@ConditionalOnProperty(prefix = "lab1.contact-upsert", name = "enabled", matchIfMissing = true)
+public class ContactUpserter {
+
+    private static final int HASHES_PER_STATEMENT = 1_000;
+
+    private final ContactRepository contactRepository;
+
+    private final ContactAddressIndex contactAddressIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final Lock[] locks;
+
+    public ContactUpserter(ContactRepository contactRepository,
+                           ContactAddressIndex contactAddressIndex,
+                           TransactionTemplate transactionTemplate,
+                           Validator validator,
+                           ContactUpsertProperties properties) {
+        this.contactRepository = contactRepository;
+        this.contactAddressIndex = contactAddressIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.locks = IntStream.range(0, properties.getLockStripes())
+                .mapToObj(stripe -> new ReentrantLock())
+                .toArray(Lock[]::new);
+    }
+
+    /**
+     * @throws ContactProblemException if any contact is invalid, in which case none is created
+     */
+    public ContactUpsertResult upsert(List<Contact> contacts) {
+        List<String> problems = new ArrayList<>();
+        for (int i = 0; i < contacts.size(); i++) {
+            Contact contact = contacts.get(i);
+            if (contact == null) {
+                problems.add(String.format("Contact %d: must not be null.", i + 1));
+                continue;
+            }
+            for (ConstraintViolation<Contact> violation : validator.validate(contact)) {
+                problems.add(String.format("Contact %d: Property \"%s\": %s.", i + 1, violation.getPropertyPath(),
+                        violation.getMessage()));
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw ContactProblemException.upsert(problems);
+        }
+
+        List<ContactAddressKey> keys = contacts.stream().map(ContactAddressKey::of).toList();
+        Map<ContactAddressKey, Contact> contactsByKey = new LinkedHashMap<>();
+        for (int i = 0; i < contacts.size(); i++) {
+            contactsByKey.putIfAbsent(keys.get(i), contacts.get(i));
+        }
+        SortedSet<Integer> stripes = new TreeSet<>();
+        contactsByKey.keySet().forEach(key -> stripes.add(Math.floorMod(Long.hashCode(key.hash()), locks.length)));
+
+        List<Lock> locked = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked.add(locks[stripe]);
+            }
+
+            Map<ContactAddressKey, Long> ids = new HashMap<>(findExisting(contactsByKey.keySet()));
+            List<Contact> created = contactsByKey.entrySet().stream()
+                    .filter(entry -> !ids.containsKey(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!created.isEmpty()) {
+                created.forEach(contact -> {
+                    contact.setId(null);
+                    contact.setVersion(null);
+                });
+                transactionTemplate.executeWithoutResult(status -> contactRepository.saveAll(created));
+                created.forEach(contact -> ids.put(ContactAddressKey.of(contact), contact.getId()));
+            }
+
+            Set<Long> createdIds = new HashSet<>();
+            created.forEach(contact -> createdIds.add(contact.getId()));
+            List<ContactUpsertResult.UpsertedContact> upserted = keys.stream()
+                    .map(ids::get)
+                    .map(id -> new ContactUpsertResult.UpsertedContact(id, createdIds.remove(id)))
+                    .toList();
+            return new ContactUpsertResult(upserted, created);
+        } finally {
+            locked.forEach(Lock::unlock);
+        }
+    }
+
+    private Map<ContactAddressKey, Long> findExisting(Set<ContactAddressKey> keys) {
+        Map<ContactAddressKey, Long> ids = contactAddressIndex.find(keys);
+        if (ids != null) {
+            return ids;
+        }
+
+        ids = new HashMap<>();
+        List<Long> hashes = keys.stream().map(ContactAddressKey::hash).distinct().toList();
+        for (int from = 0; from < hashes.size(); from += HASHES_PER_STATEMENT) {
+            for (ContactNameAndAddress contact : contactRepository.findNamesAndAddressesByAddressHashIn(
+                    hashes.subList(from, Math.min(hashes.size(), from + HASHES_PER_STATEMENT)))) {
+                ContactAddressKey key = ContactAddressKey.of(contact.getName(), contact.getZipCode(),
+                        contact.getHouseNumber(), contact.getCity());
+                // Ordered by ID, and keys sharing a hash told apart
+                if (keys.contains(key)) {
+                    ids.putIfAbsent(key, contact.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+}
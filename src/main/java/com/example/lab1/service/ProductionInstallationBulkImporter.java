@@ -0,0 +1,134 @@
+package com.example.lab1.service;
+
+import com.example.lab1.config.BulkImportProperties;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@AllArgsConstructor
+public class ProductionInstallationBulkImporter {
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BulkImportProperties properties;
+
+    /**
+     * Reads one installation (optionally with an inline contact) per line and inserts the valid ones in chunks of
+     * {@code lab1.bulk-import.chunk-size}, each chunk in its own transaction. Rejected lines do not abort the import.
+     */
+    public BulkImportResult importNdjson(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<String> problems = new ArrayList<>();
+        List<ProductionInstallation> chunk = new ArrayList<>(properties.getChunkSize());
+        long chunkFirstLine = 0;
+        long imported = 0;
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ProductionInstallation installation = parse(line, lineNumber, problems);
+            if (installation == null) {
+                continue;
+            }
+
+            if (chunk.isEmpty()) {
+                chunkFirstLine = lineNumber;
+            }
+            chunk.add(installation);
+
+            if (chunk.size() >= properties.getChunkSize()) {
+                imported += insert(chunk, chunkFirstLine, lineNumber, problems);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            imported += insert(chunk, chunkFirstLine, lineNumber, problems);
+        }
+
+        return new BulkImportResult(imported, problems);
+    }
+
+    private ProductionInstallation parse(String line, long lineNumber, List<String> problems) {
+        ProductionInstallation installation;
+        try {
+            installation = objectMapper.readValue(line, ProductionInstallation.class);
+        } catch (JsonProcessingException exc) {
+            problems.add(String.format("Line %d: %s.", lineNumber, exc.getOriginalMessage()));
+            return null;
+        }
+
+        installation.setId(null);
+        List<String> lineProblems = new ArrayList<>(describe(lineNumber, "", validator.validate(installation)));
+
+        Contact contact = installation.getContact();
+        if (contact != null) {
+            contact.setId(null);
+            lineProblems.addAll(describe(lineNumber, "contact.", validator.validate(contact)));
+        }
+
+        if (!lineProblems.isEmpty()) {
+            problems.addAll(lineProblems);
+            return null;
+        }
+        return installation;
+    }
+
+    private long insert(List<ProductionInstallation> chunk, long firstLine, long lastLine, List<String> problems) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ProductionInstallation installation : chunk) {
+                    if (installation.getContact() != null) {
+                        entityManager.persist(installation.getContact());
+                    }
+                    entityManager.persist(installation);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return chunk.size();
+        } catch (PersistenceException | DataAccessException | TransactionException exc) {
+            problems.add(String.format("Lines %d-%d: %s.", firstLine, lastLine, exc.getMessage()));
+            return 0;
+        }
+    }
+
+    private static <T> List<String> describe(long lineNumber, String pathPrefix, Set<ConstraintViolation<T>> violations) {
+        return violations.stream().map(constraintViolation ->
+                String.format("Line %d: Property \"%s%s\": %s.", lineNumber, pathPrefix,
+                        constraintViolation.getPropertyPath(), constraintViolation.getMessage())
+        ).toList();
+    }
+
+}
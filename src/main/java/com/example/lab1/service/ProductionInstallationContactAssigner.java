@@ -0,0 +1,145 @@
+package com.example.lab1.service;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ContactRepository;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns contacts to many installations at once, in a single transaction: all installations and contacts are checked
+ * up front, then the installations not assigned to their contact yet are updated with one statement per contact
+ * (and per {@value #IDS_PER_STATEMENT} installations), bypassing the persistence context. The updated installations
+ * are then reloaded, so that an {@link EntityChangedEvent} can be published for each of them.
+ */
+@Service
+@AllArgsConstructor
+public class ProductionInstallationContactAssigner {
+
+    private static final int IDS_PER_STATEMENT = 1_000;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final ContactRepository contactRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param contactIdByInstallationId ID of the contact to assign to each installation, by installation ID
+     * @return the installations whose contact changed, with their contact
+     * @throws ContactProblemException if any installation or contact does not exist, in which case none is assigned
+     */
+    public List<ProductionInstallation> assign(Map<Long, Long> contactIdByInstallationId) {
+        return transactionTemplate.execute(status -> {
+            List<String> problems = new ArrayList<>();
+            Set<Long> installationIds = new TreeSet<>(contactIdByInstallationId.keySet());
+            Set<Long> existingInstallationIds = new HashSet<>();
+            for (List<Long> chunk : chunks(installationIds)) {
+                existingInstallationIds.addAll(productionInstallationRepository.findIdsByIdIn(chunk));
+            }
+            installationIds.stream()
+                    .filter(id -> !existingInstallationIds.contains(id))
+                    .forEach(id -> problems.add(String.format("Installation %d: not found.", id)));
+            Map<Long, Contact> contacts = findContacts(new TreeSet<>(contactIdByInstallationId.values()), problems);
+            if (!problems.isEmpty()) {
+                throw ContactProblemException.assignment(problems);
+            }
+
+            Map<Long, List<Long>> installationIdsByContactId = contactIdByInstallationId.entrySet().stream()
+                    .collect(Collectors.groupingBy(Map.Entry::getValue, LinkedHashMap::new,
+                            Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+            List<Long> updatedIds = new ArrayList<>();
+            installationIdsByContactId.forEach((contactId, ids) -> {
+                for (List<Long> chunk : chunks(ids)) {
+                    updatedIds.addAll(update(contacts.get(contactId),
+                            productionInstallationRepository.findIdsByIdInAndContactIdNot(chunk, contactId)));
+                }
+            });
+            return reloadAndPublish(updatedIds);
+        });
+    }
+
+    /**
+     * Assigns another contact to all installations of a contact.
+     *
+     * @return the installations whose contact changed, with their new contact
+     * @throws ContactProblemException if either contact does not exist
+     */
+    public List<ProductionInstallation> reassign(long fromContactId, long toContactId) {
+        return transactionTemplate.execute(status -> {
+            List<String> problems = new ArrayList<>();
+            Map<Long, Contact> contacts = findContacts(new TreeSet<>(List.of(fromContactId, toContactId)), problems);
+            if (!problems.isEmpty()) {
+                throw ContactProblemException.assignment(problems);
+            }
+            if (fromContactId == toContactId) {
+                return List.of();
+            }
+
+            List<Long> updatedIds = new ArrayList<>();
+            for (List<Long> chunk : chunks(productionInstallationRepository.findIdsByContactId(fromContactId))) {
+                updatedIds.addAll(update(contacts.get(toContactId), chunk));
+            }
+            return reloadAndPublish(updatedIds);
+        });
+    }
+
+    private Map<Long, Contact> findContacts(Set<Long> contactIds, List<String> problems) {
+        Map<Long, Contact> contacts = contactRepository.findAllById(contactIds).stream()
+                .collect(Collectors.toMap(Contact::getId, Function.identity()));
+        contactIds.stream()
+                .filter(id -> !contacts.containsKey(id))
+                .forEach(id -> problems.add(String.format("Contact %d: not found.", id)));
+        return contacts;
+    }
+
+    private List<Long> update(Contact contact, List<Long> ids) {
+        if (!ids.isEmpty()) {
+            productionInstallationRepository.updateContactByIdIn(contact, ids);
+        }
+        return ids;
+    }
+
+    private List<ProductionInstallation> reloadAndPublish(List<Long> ids) {
+        List<ProductionInstallation> installations = new ArrayList<>(ids.size());
+        for (List<Long> chunk : chunks(ids)) {
+            installations.addAll(productionInstallationRepository.findAllById(chunk));
+        }
+        installations.forEach(installation ->
+                eventPublisher.publishEvent(new EntityChangedEvent<>(installation, EntityChangedEvent.Type.UPDATED)));
+        return installations;
+    }
+
+    private static List<List<Long>> chunks(Iterable<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(IDS_PER_STATEMENT);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == IDS_PER_STATEMENT) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(IDS_PER_STATEMENT);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.example.lab1.service;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class ProductionInstallationExporter {
+
+    private static final String[] COLUMNS = {
+            "id", "name", "outputPower", "contactId", "contactName", "contactZipCode", "contactCity", "contactHouseNumber"
+    };
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ProductionInstallationExporter(ProductionInstallationRepository productionInstallationRepository,
+                                          EntityManager entityManager, ObjectMapper objectMapper,
+                                          PlatformTransactionManager transactionManager) {
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public void writeNdjson(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            forEachInstallation(installation -> {
+                try {
+                    Contact contact = installation.getContact();
+                    generator.writeStartObject();
+                    generator.writeObjectField(COLUMNS[0], installation.getId());
+                    generator.writeObjectField(COLUMNS[1], installation.getName());
+                    generator.writeObjectField(COLUMNS[2], installation.getOutputPower());
+                    generator.writeObjectField(COLUMNS[3], contact != null ? contact.getId() : null);
+                    generator.writeObjectField(COLUMNS[4], contact != null ? contact.getName() : null);
+                    generator.writeObjectField(COLUMNS[5], contact != null ? contact.getZipCode() : null);
+                    generator.writeObjectField(COLUMNS[6], contact != null ? contact.getCity() : null);
+                    generator.writeObjectField(COLUMNS[7], contact != null ? contact.getHouseNumber() : null);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException exc) {
+                    throw new UncheckedIOException(exc);
+                }
+            });
+        }
+    }
+
+    public void writeCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        forEachInstallation(installation -> {
+            try {
+                Contact contact = installation.getContact();
+                writer.write(String.join(",",
+                        csvField(installation.getId()),
+                        csvField(installation.getName()),
+                        csvField(installation.getOutputPower()),
+                        csvField(contact != null ? contact.getId() : null),
+                        csvField(contact != null ? contact.getName() : null),
+                        csvField(contact != null ? contact.getZipCode() : null),
+                        csvField(contact != null ? contact.getCity() : null),
+                        csvField(contact != null ? contact.getHouseNumber() : null)));
+                writer.write("\r\n");
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Streams every installation with its contact in a read-only transaction, detaching each entity once handled so
+     * that the persistence context does not grow with the size of the table.
+     */
+    private void forEachInstallation(Consumer<ProductionInstallation> consumer) throws IOException {
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductionInstallation> installations = productionInstallationRepository.streamAll()) {
+                    installations.forEach(installation -> {
+                        consumer.accept(installation);
+                        if (installation.getContact() != null) {
+                            entityManager.detach(installation.getContact());
+                        }
+                        entityManager.detach(installation);
+                    });
+                }
+            });
+        } catch (UncheckedIOException exc) {
+            throw exc.getCause();
+        }
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+}
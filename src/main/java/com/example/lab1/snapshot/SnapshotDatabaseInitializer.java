@@ -0,0 +1,65 @@
+package com.example.lab1.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Initializes the database from a snapshot file when there is one, instead of running the SQL scripts of
+ * {@code spring.sql.init}. Taking the place of Spring Boot's own initializer, it runs at the same point of the startup,
+ * i.e. after Hibernate has created the schema when {@code spring.jpa.defer-datasource-initialization} is set, and before
+ * any bean depending on database initialization.
+ */
+@Slf4j
+public class SnapshotDatabaseInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private final DataSource dataSource;
+
+    private final Path path;
+
+    private final int batchSize;
+
+    public SnapshotDatabaseInitializer(DataSource dataSource, SqlInitializationProperties properties, Path path,
+                                       int batchSize) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+        this.path = path;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        if (!Files.isRegularFile(path)) {
+            log.info("No snapshot at {}, initializing the database from SQL scripts", path.toAbsolutePath());
+            return super.initializeDatabase();
+        }
+        load();
+        return true;
+    }
+
+    /**
+     * Loads the snapshot into the database, whose tables are expected to be empty.
+     */
+    public Map<String, Long> load() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Long> rows = SnapshotLoader.load(dataSource, path, batchSize);
+            log.info("Snapshot {} loaded in {} ms: {}", path.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000,
+                    rows);
+            return rows;
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Could not load snapshot " + path.toAbsolutePath(), exc);
+        } catch (SQLException exc) {
+            throw new IllegalStateException("Could not load snapshot " + path.toAbsolutePath(), exc);
+        }
+    }
+
+}
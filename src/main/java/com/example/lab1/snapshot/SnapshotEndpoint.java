@@ -0,0 +1,49 @@
+package com.example.lab1.snapshot;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Dumps the database to the snapshot file loaded at the next startup, with {@code POST /actuator/snapshot}.
+ */
+@Endpoint(id = "snapshot")
+public class SnapshotEndpoint {
+
+    private final DataSource dataSource;
+
+    private final Path path;
+
+    public SnapshotEndpoint(DataSource dataSource, Path path) {
+        this.dataSource = dataSource;
+        this.path = path;
+    }
+
+    @WriteOperation
+    public Snapshot dump() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Long> rows = SnapshotWriter.write(dataSource, path);
+            return new Snapshot(path.toAbsolutePath().toString(), Files.size(path), rows,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException exc) {
+            throw new UncheckedIOException("Could not write snapshot " + path.toAbsolutePath(), exc);
+        } catch (SQLException exc) {
+            throw new IllegalStateException("Could not write snapshot " + path.toAbsolutePath(), exc);
+        }
+    }
+
+    /**
+     * @param rows number of rows written per table
+     */
+    public record Snapshot(String path, long size, Map<String, Long> rows, long durationMillis) {
+    }
+
+}
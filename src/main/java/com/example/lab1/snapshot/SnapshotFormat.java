@@ -0,0 +1,75 @@
+package com.example.lab1.snapshot;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Layout of snapshot files, all numbers being big-endian:
+ * <pre>
+ * file    = magic:int version:int tableCount:int table*
+ * table   = name:string sequence:string columnCount:int (name:string type:byte)* rowCount:long row*
+ * row     = nulls:byte value*          one bit per column, set if its value is null and thus left out
+ * value   = long | double | string
+ * string  = length:int utf8:byte[length]    a length of -1 standing for null
+ * </pre>
+ * Tables come in the order of their foreign keys, each with the sequence drawing its IDs.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x4C414231;
+
+    static final int VERSION = 1;
+
+    /**
+     * Pattern of the table, sequence and column names, which end up in statements as such.
+     */
+    static final Pattern IDENTIFIER = Pattern.compile("[A-Z][A-Z0-9_]*");
+
+    static final String ID_COLUMN = "ID";
+
+    static final List<Table> TABLES = List.of(
+            new Table("CONTACT", "CONTACT_SEQ", List.of(
+                    new Column("ID", ColumnType.LONG),
+                    new Column("VERSION", ColumnType.LONG),
+                    new Column("NAME", ColumnType.STRING),
+                    new Column("ZIP_CODE", ColumnType.STRING),
+                    new Column("CITY", ColumnType.STRING),
+                    new Column("HOUSE_NUMBER", ColumnType.STRING),
+                    new Column("ADDRESS_HASH", ColumnType.LONG))),
+            new Table("PRODUCTION_INSTALLATION", "PRODUCTION_INSTALLATION_SEQ", List.of(
+                    new Column("ID", ColumnType.LONG),
+                    new Column("VERSION", ColumnType.LONG),
+                    new Column("NAME", ColumnType.STRING),
+                    new Column("OUTPUT_POWER", ColumnType.DOUBLE),
+                    new Column("CONTACT_ID", ColumnType.LONG))));
+
+    private SnapshotFormat() {
+    }
+
+    record Table(String name, String sequence, List<Column> columns) {
+
+        Table {
+            if (columns.size() > Byte.SIZE) {
+                throw new IllegalArgumentException("Too many columns in table " + name);
+            }
+        }
+
+    }
+
+    record Column(String name, ColumnType type) {
+    }
+
+    enum ColumnType {
+
+        LONG(Types.BIGINT), DOUBLE(Types.DOUBLE), STRING(Types.VARCHAR);
+
+        final int sqlType;
+
+        ColumnType(int sqlType) {
+            this.sqlType = sqlType;
+        }
+
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.example.lab1.snapshot;
+
+import com.example.lab1.snapshot.SnapshotFormat.Column;
+import com.example.lab1.snapshot.SnapshotFormat.ColumnType;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a snapshot file written by {@link SnapshotWriter} into empty tables: the file is memory-mapped, and its rows
+ * are bound straight from it to batched prepared inserts, all in one transaction. The sequences of the tables are then
+ * moved past their highest ID, by a whole allocation, since Hibernate hands out the IDs below each value it draws.
+ */
+public final class SnapshotLoader {
+
+    private SnapshotLoader() {
+    }
+
+    /**
+     * @return the number of rows loaded per table
+     */
+    public static Map<String, Long> load(DataSource dataSource, Path path, int batchSize)
+            throws IOException, SQLException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is too large to be mapped at once");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != SnapshotFormat.MAGIC) {
+                throw new IOException(path + " is not a snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != SnapshotFormat.VERSION) {
+                throw new IOException("Unsupported version " + version + " of snapshot " + path);
+            }
+
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    Map<String, Long> rows = new LinkedHashMap<>();
+                    int tableCount = buffer.getInt();
+                    for (int i = 0; i < tableCount; i++) {
+                        loadTable(connection, new Input(buffer), batchSize, rows);
+                    }
+                    connection.commit();
+                    return rows;
+                } catch (SQLException | IOException | RuntimeException exc) {
+                    connection.rollback();
+                    throw exc;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (BufferUnderflowException exc) {
+                throw new IOException("Snapshot " + path + " is truncated", exc);
+            }
+        }
+    }
+
+    private static void loadTable(Connection connection, Input input, int batchSize, Map<String, Long> rows)
+            throws IOException, SQLException {
+        String table = identifier(input.getString());
+        String sequence = input.getString();
+        int columnCount = input.buffer.getInt();
+        if (columnCount < 1 || columnCount > Byte.SIZE) {
+            throw new IOException("Invalid number of columns in table " + table);
+        }
+        List<Column> columns = new ArrayList<>(columnCount);
+        ColumnType[] types = ColumnType.values();
+        for (int i = 0; i < columnCount; i++) {
+            String name = identifier(input.getString());
+            int type = input.buffer.get();
+            if (type < 0 || type >= types.length) {
+                throw new IOException("Invalid type of column " + table + "." + name);
+            }
+            columns.add(new Column(name, types[type]));
+        }
+        int idColumn = columns.stream().map(Column::name).toList().indexOf(SnapshotFormat.ID_COLUMN);
+        long rowCount = input.buffer.getLong();
+
+        long maxId = 0;
+        String sql = "INSERT INTO " + table + " (" + columns.stream().map(Column::name).collect(Collectors.joining(", "))
+                + ") VALUES (" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long row = 1; row <= rowCount; row++) {
+                byte nulls = input.buffer.get();
+                for (int i = 0; i < columnCount; i++) {
+                    ColumnType type = columns.get(i).type();
+                    if ((nulls & 1 << i) != 0) {
+                        statement.setNull(i + 1, type.sqlType);
+                        continue;
+                    }
+                    switch (type) {
+                        case LONG -> {
+                            long value = input.buffer.getLong();
+                            statement.setLong(i + 1, value);
+                            if (i == idColumn) {
+                                maxId = Math.max(maxId, value);
+                            }
+                        }
+                        case DOUBLE -> statement.setDouble(i + 1, input.buffer.getDouble());
+                        case STRING -> statement.setString(i + 1, input.getString());
+                    }
+                }
+                statement.addBatch();
+                if (row % batchSize == 0 || row == rowCount) {
+                    statement.executeBatch();
+                }
+            }
+        }
+        rows.put(table, rowCount);
+
+        if (sequence != null) {
+            restartSequence(connection, identifier(sequence), maxId);
+        }
+    }
+
+    private static void restartSequence(Connection connection, String sequence, long maxId) throws SQLException {
+        long restartWith = maxId + 1;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT INCREMENT, BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?")) {
+            statement.setString(1, sequence);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    // Never moved back, in case IDs were already handed out
+                    restartWith = Math.max(maxId + resultSet.getLong(1), resultSet.getLong(2));
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+        }
+    }
+
+    private static String identifier(String name) throws IOException {
+        if (name == null || !SnapshotFormat.IDENTIFIER.matcher(name).matches()) {
+            throw new IOException("Invalid identifier in snapshot: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * Reads strings from a buffer, through a reused array.
+     */
+    private static final class Input {
+
+        private final ByteBuffer buffer;
+
+        private byte[] bytes = new byte[256];
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String getString() throws IOException {
+            int length = buffer.getInt();
+            if (length < 0) {
+                if (length != -1) {
+                    throw new IOException("Invalid string length in snapshot: " + length);
+                }
+                return null;
+            }
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            buffer.get(bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.example.lab1.snapshot;
+
+import com.example.lab1.snapshot.SnapshotFormat.Column;
+import com.example.lab1.snapshot.SnapshotFormat.Table;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Dumps the tables of {@link SnapshotFormat#TABLES} to a snapshot file, reading them all in a single serializable
+ * transaction so that the snapshot is consistent. The file is written next to its final path, then moved over it.
+ */
+public final class SnapshotWriter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotWriter() {
+    }
+
+    /**
+     * @return the number of rows written per table
+     */
+    public static Map<String, Long> write(DataSource dataSource, Path path) throws IOException, SQLException {
+        Path absolutePath = path.toAbsolutePath();
+        Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+        Map<String, Long> rows = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            connection.setReadOnly(true);
+            try {
+                Output output = new Output(channel);
+                output.putInt(SnapshotFormat.MAGIC);
+                output.putInt(SnapshotFormat.VERSION);
+                output.putInt(SnapshotFormat.TABLES.size());
+                for (Table table : SnapshotFormat.TABLES) {
+                    rows.put(table.name(), writeTable(connection, table, output));
+                }
+                output.flush();
+            } finally {
+                connection.rollback();
+            }
+            channel.force(true);
+        } catch (IOException | SQLException | RuntimeException exc) {
+            Files.deleteIfExists(temporaryPath);
+            throw exc;
+        }
+        Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private static long writeTable(Connection connection, Table table, Output output) throws IOException, SQLException {
+        output.putString(table.name());
+        output.putString(table.sequence());
+        output.putInt(table.columns().size());
+        for (Column column : table.columns()) {
+            output.putString(column.name());
+            output.put((byte) column.type().ordinal());
+        }
+        // Patched once the rows are written
+        output.flush();
+        long rowCountPosition = output.position();
+        output.putLong(0);
+
+        long rowCount = 0;
+        String columns = table.columns().stream().map(Column::name).collect(Collectors.joining(", "));
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT " + columns + " FROM " + table.name() + " ORDER BY " + SnapshotFormat.ID_COLUMN)) {
+            int columnCount = table.columns().size();
+            Object[] values = new Object[columnCount];
+            while (resultSet.next()) {
+                byte nulls = 0;
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = switch (table.columns().get(i).type()) {
+                        case LONG -> resultSet.getLong(i + 1);
+                        case DOUBLE -> resultSet.getDouble(i + 1);
+                        case STRING -> resultSet.getString(i + 1);
+                    };
+                    if (resultSet.wasNull()) {
+                        nulls |= 1 << i;
+                    }
+                }
+                output.put(nulls);
+                for (int i = 0; i < columnCount; i++) {
+                    if ((nulls & 1 << i) != 0) {
+                        continue;
+                    }
+                    switch (table.columns().get(i).type()) {
+                        case LONG -> output.putLong((Long) values[i]);
+                        case DOUBLE -> output.putDouble((Double) values[i]);
+                        case STRING -> output.putString((String) values[i]);
+                    }
+                }
+                rowCount++;
+            }
+        }
+        output.patchLong(rowCountPosition, rowCount);
+        return rowCount;
+    }
+
+    /**
+     * Buffered writes to a file channel.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() throws IOException {
+            return channel.position() + buffer.position();
+        }
+
+        void put(byte value) throws IOException {
+            ensureRemaining(Byte.BYTES).put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(Long.BYTES).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensureRemaining(Double.BYTES).putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            } else {
+                ensureRemaining(bytes.length).put(bytes);
+            }
+        }
+
+        void patchLong(long position, long value) throws IOException {
+            flush();
+            ByteBuffer patch = ByteBuffer.allocate(Long.BYTES).putLong(0, value);
+            while (patch.hasRemaining()) {
+                channel.write(patch, position + patch.position());
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+            return buffer;
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.example.lab1.telemetry;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+/**
+ * Output power reported by an installation at a point in time. Unlike the nominal
+ * {@link com.example.lab1.model.ProductionInstallation#getOutputPower() output power}, it may be zero.
+ */
+public record PowerReading(@NotNull Long installationId,
+                           @NotNull Instant timestamp,
+                           @NotNull @DecimalMin("0") @DecimalMax("999999") Double power) {
+}
@@ -0,0 +1,38 @@
+package com.example.lab1.telemetry;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+@AllArgsConstructor
+@Getter
+public enum Resolution {
+
+    RAW("raw", Duration.ZERO, null),
+
+    MINUTE("minute", Duration.ofMinutes(1), "POWER_ROLLUP_MINUTE"),
+
+    HOUR("hour", Duration.ofHours(1), "POWER_ROLLUP_HOUR");
+
+    private final String property;
+
+    private final Duration bucket;
+
+    /**
+     * Table of the rollups, {@code null} for raw readings.
+     */
+    private final String table;
+
+    long bucketStart(long timestamp) {
+        long bucketMillis = bucket.toMillis();
+        return bucketMillis > 0 ? Math.floorDiv(timestamp, bucketMillis) * bucketMillis : timestamp;
+    }
+
+    public static Optional<Resolution> fromProperty(String property) {
+        return Arrays.stream(values()).filter(resolution -> resolution.property.equals(property)).findFirst();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.lab1.telemetry;
+
+import com.example.lab1.config.TelemetryProperties;
+import com.example.lab1.service.BulkImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@ConditionalOnProperty(prefix = "lab1.telemetry", name = "enabled", matchIfMissing = true)
+@AllArgsConstructor
+public class TelemetryIngester {
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TelemetryStore telemetryStore;
+
+    private final TelemetryProperties properties;
+
+    /**
+     * Reads one reading per line and stores the valid ones in batches of {@code lab1.telemetry.batch-size}. Rejected
+     * lines, e.g. for unknown installations or older than the raw retention, do not abort the ingestion.
+     */
+    public BulkImportResult ingestNdjson(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<String> problems = new ArrayList<>();
+        List<NumberedReading> batch = new ArrayList<>(properties.getBatchSize());
+        Instant retentionStart = telemetryStore.rawRetentionStart();
+        long ingested = 0;
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            PowerReading reading = parse(line, lineNumber, problems);
+            if (reading == null) {
+                continue;
+            }
+            if (reading.timestamp().isBefore(retentionStart)) {
+                problems.add(String.format("Line %d: Reading older than %s.", lineNumber, retentionStart));
+                continue;
+            }
+
+            batch.add(new NumberedReading(lineNumber, reading));
+            if (batch.size() >= properties.getBatchSize()) {
+                ingested += store(batch, problems);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            ingested += store(batch, problems);
+        }
+
+        return new BulkImportResult(ingested, problems);
+    }
+
+    private PowerReading parse(String line, long lineNumber, List<String> problems) {
+        PowerReading reading;
+        try {
+            reading = objectMapper.readValue(line, PowerReading.class);
+        } catch (JsonProcessingException exc) {
+            problems.add(String.format("Line %d: %s.", lineNumber, exc.getOriginalMessage()));
+            return null;
+        }
+
+        Set<ConstraintViolation<PowerReading>> violations = validator.validate(reading);
+        if (!violations.isEmpty()) {
+            violations.stream()
+                    .map(constraintViolation -> String.format("Line %d: Property \"%s\": %s.", lineNumber,
+                            constraintViolation.getPropertyPath(), constraintViolation.getMessage()))
+                    .sorted()
+                    .forEach(problems::add);
+            return null;
+        }
+        return reading;
+    }
+
+    private int store(List<NumberedReading> batch, List<String> problems) {
+        Set<Long> installationIds = new HashSet<>();
+        batch.forEach(numberedReading -> installationIds.add(numberedReading.reading.installationId()));
+        Set<Long> existingIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT ID FROM PRODUCTION_INSTALLATION WHERE ID IN (:ids)", Map.of("ids", installationIds), Long.class));
+
+        List<PowerReading> readings = new ArrayList<>(batch.size());
+        for (NumberedReading numberedReading : batch) {
+            if (existingIds.contains(numberedReading.reading.installationId())) {
+                readings.add(numberedReading.reading);
+            } else {
+                problems.add(String.format("Line %d: Unknown installation %d.", numberedReading.lineNumber,
+                        numberedReading.reading.installationId()));
+            }
+        }
+        return readings.isEmpty() ? 0 : telemetryStore.store(readings);
+    }
+
+    private record NumberedReading(long lineNumber, PowerReading reading) {
+    }
+
+}
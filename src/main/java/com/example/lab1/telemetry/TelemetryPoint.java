@@ -0,0 +1,14 @@
+package com.example.lab1.telemetry;
+
+import java.time.Instant;
+
+/**
+ * Readings of a time bucket (starting at {@code timestamp}), or a single raw reading if {@code count} is 1.
+ */
+public record TelemetryPoint(Instant timestamp, long count, double average, double min, double max) {
+
+    static TelemetryPoint of(long timestamp, long count, double sum, double min, double max) {
+        return new TelemetryPoint(Instant.ofEpochMilli(timestamp), count, sum / count, min, max);
+    }
+
+}
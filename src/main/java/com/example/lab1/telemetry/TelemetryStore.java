@@ -0,0 +1,332 @@
+package com.example.lab1.telemetry;
+
+import com.example.lab1.config.TelemetryProperties;
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.ProductionInstallation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Storage of output power readings, kept apart from the {@code PRODUCTION_INSTALLATION} table.
+ * <p>
+ * Raw readings are partitioned into one table per UTC day ({@code POWER_READING_yyyyMMdd}), clustered on (installation,
+ * timestamp), so that a range query reads only the partitions it overlaps and retention drops whole tables. Every
+ * newly stored reading is accumulated, in the same transaction, into 1-minute and 1-hour rollups, so that the
+ * downsampled series never lag behind the raw one. A reading already stored for the same installation and timestamp
+ * is ignored, which makes retrying a batch safe.
+ * <p>
+ * The readings of a deleted installation are deleted once the deletion is committed. Storing locks the installations
+ * read for, so that a deletion either waits for the readings to be stored, and deletes them in turn, or has them
+ * dropped; readings left over nonetheless, e.g. by a crash before their deletion, are deleted by the next purge.
+ */
+@Component
+@ConditionalOnProperty(prefix = "lab1.telemetry", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class TelemetryStore {
+
+    private static final String PARTITION_PREFIX = "POWER_READING_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Resolution[] ROLLUP_RESOLUTIONS = {Resolution.MINUTE, Resolution.HOUR};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TaskExecutor taskExecutor;
+
+    private final TelemetryProperties properties;
+
+    private final Clock clock;
+
+    private final NavigableSet<LocalDate> partitions = new ConcurrentSkipListSet<>();
+
+    public TelemetryStore(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                          TelemetryProperties properties,
+                          Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void createTables() {
+        for (Resolution resolution : ROLLUP_RESOLUTIONS) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + resolution.getTable() + " ("
+                    + "INSTALLATION_ID BIGINT NOT NULL, BUCKET_START BIGINT NOT NULL, READING_COUNT BIGINT NOT NULL, "
+                    + "POWER_SUM DOUBLE PRECISION NOT NULL, POWER_MIN DOUBLE PRECISION NOT NULL, "
+                    + "POWER_MAX DOUBLE PRECISION NOT NULL, PRIMARY KEY (INSTALLATION_ID, BUCKET_START))");
+        }
+        jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                        + "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME LIKE ? ESCAPE '\\'",
+                        String.class, PARTITION_PREFIX.replace("_", "\\_") + "%")
+                .forEach(table -> partitions.add(LocalDate.parse(table.substring(PARTITION_PREFIX.length()),
+                        PARTITION_SUFFIX_FORMAT)));
+    }
+
+    /**
+     * @return the oldest timestamp of raw readings which are still retained
+     */
+    public Instant rawRetentionStart() {
+        return oldestRetainedPartition().atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /**
+     * Stores the given readings, the caller being responsible for their validity. Readings of installations which do
+     * not exist (anymore) are dropped.
+     *
+     * @return the number of readings stored, i.e. not already present
+     */
+    public int store(List<PowerReading> readings) {
+        Map<LocalDate, List<PowerReading>> readingsByPartition = new TreeMap<>();
+        Set<Long> installationIds = new TreeSet<>();
+        for (PowerReading reading : readings) {
+            readingsByPartition.computeIfAbsent(partitionOf(reading.timestamp().toEpochMilli()), day -> new ArrayList<>())
+                    .add(reading);
+            installationIds.add(reading.installationId());
+        }
+        // DDL commits the current transaction in H2, hence creating the partitions beforehand
+        readingsByPartition.keySet().forEach(this::createPartition);
+
+        return transactionTemplate.execute(status -> {
+            // Locked until the readings are committed, so that a concurrent deletion deletes them in turn
+            Set<Long> existingIds = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                    "SELECT ID FROM PRODUCTION_INSTALLATION WHERE ID IN (:ids) ORDER BY ID FOR UPDATE",
+                    Map.of("ids", installationIds), Long.class));
+            if (existingIds.size() < installationIds.size()) {
+                readingsByPartition.values().forEach(partitionReadings ->
+                        partitionReadings.removeIf(reading -> !existingIds.contains(reading.installationId())));
+            }
+
+            List<PowerReading> stored = new ArrayList<>(readings.size());
+            readingsByPartition.forEach((day, partitionReadings) -> {
+                if (partitionReadings.isEmpty()) {
+                    return;
+                }
+                int[][] counts = jdbcTemplate.batchUpdate("MERGE INTO " + partitionTable(day) + " T "
+                                + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION))) "
+                                + "S (INSTALLATION_ID, READ_AT, POWER) "
+                                + "ON T.INSTALLATION_ID = S.INSTALLATION_ID AND T.READ_AT = S.READ_AT "
+                                + "WHEN NOT MATCHED THEN INSERT VALUES (S.INSTALLATION_ID, S.READ_AT, S.POWER)",
+                        partitionReadings, partitionReadings.size(), (statement, reading) -> {
+                            statement.setLong(1, reading.installationId());
+                            statement.setLong(2, reading.timestamp().toEpochMilli());
+                            statement.setDouble(3, reading.power());
+                        });
+                int index = 0;
+                for (int[] batchCounts : counts) {
+                    for (int count : batchCounts) {
+                        if (count > 0) {
+                            stored.add(partitionReadings.get(index));
+                        }
+                        index++;
+                    }
+                }
+            });
+
+            for (Resolution resolution : ROLLUP_RESOLUTIONS) {
+                accumulate(resolution, stored);
+            }
+            return stored.size();
+        });
+    }
+
+    /**
+     * @return the readings of the installation in {@code [from, to)} at the given resolution, ordered by timestamp;
+     * rollups are returned for every bucket overlapping the range
+     */
+    public List<TelemetryPoint> find(long installationId, Instant from, Instant to, Resolution resolution) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<TelemetryPoint> points = new ArrayList<>();
+        if (resolution == Resolution.RAW) {
+            for (LocalDate day : partitions.subSet(partitionOf(fromMillis), true, partitionOf(toMillis - 1), true)) {
+                points.addAll(jdbcTemplate.query("SELECT READ_AT, POWER FROM " + partitionTable(day)
+                                + " WHERE INSTALLATION_ID = ? AND READ_AT >= ? AND READ_AT < ? ORDER BY READ_AT",
+                        (resultSet, rowNum) -> {
+                            double power = resultSet.getDouble(2);
+                            return TelemetryPoint.of(resultSet.getLong(1), 1, power, power, power);
+                        },
+                        installationId, fromMillis, toMillis));
+            }
+        } else {
+            points.addAll(jdbcTemplate.query("SELECT BUCKET_START, READING_COUNT, POWER_SUM, POWER_MIN, POWER_MAX FROM "
+                            + resolution.getTable()
+                            + " WHERE INSTALLATION_ID = ? AND BUCKET_START >= ? AND BUCKET_START < ? ORDER BY BUCKET_START",
+                    (resultSet, rowNum) -> TelemetryPoint.of(resultSet.getLong(1), resultSet.getLong(2),
+                            resultSet.getDouble(3), resultSet.getDouble(4), resultSet.getDouble(5)),
+                    installationId, resolution.bucketStart(fromMillis), toMillis));
+        }
+        return points;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void purgeOnStartup() {
+        taskExecutor.execute(this::purge);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onInstallationChanged(EntityChangedEvent<ProductionInstallation> event) {
+        if (event.type() != EntityChangedEvent.Type.DELETED) {
+            return;
+        }
+        long installationId = event.entity().getId();
+        taskExecutor.execute(() -> transactionTemplate.executeWithoutResult(status -> {
+            for (LocalDate day : partitions) {
+                jdbcTemplate.update("DELETE FROM " + partitionTable(day) + " WHERE INSTALLATION_ID = ?", installationId);
+            }
+            for (Resolution resolution : ROLLUP_RESOLUTIONS) {
+                jdbcTemplate.update("DELETE FROM " + resolution.getTable() + " WHERE INSTALLATION_ID = ?", installationId);
+            }
+        }));
+    }
+
+    /**
+     * Drops the partitions and 1-minute rollups which are past their retention, and deletes the readings of
+     * installations which no longer exist.
+     */
+    void purge() {
+        LocalDate oldestRetained = oldestRetainedPartition();
+        for (LocalDate day : List.copyOf(partitions.headSet(oldestRetained))) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionTable(day));
+            partitions.remove(day);
+            log.info("Dropped telemetry partition {}", partitionTable(day));
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM " + Resolution.MINUTE.getTable() + " WHERE BUCKET_START < ?",
+                clock.millis() - properties.getMinuteRetention().toMillis());
+        if (deleted > 0) {
+            log.info("Deleted {} telemetry rollup(s) of 1 minute", deleted);
+        }
+
+        int orphaned = 0;
+        for (LocalDate day : partitions) {
+            orphaned += deleteOrphans(partitionTable(day));
+        }
+        for (Resolution resolution : ROLLUP_RESOLUTIONS) {
+            orphaned += deleteOrphans(resolution.getTable());
+        }
+        if (orphaned > 0) {
+            log.info("Deleted {} telemetry reading(s) and rollup(s) of deleted installations", orphaned);
+        }
+    }
+
+    private int deleteOrphans(String table) {
+        return jdbcTemplate.update("DELETE FROM " + table + " T WHERE NOT EXISTS "
+                + "(SELECT 1 FROM PRODUCTION_INSTALLATION I WHERE I.ID = T.INSTALLATION_ID)");
+    }
+
+    private void accumulate(Resolution resolution, List<PowerReading> readings) {
+        // Sorted so that concurrent batches lock the rollups in the same order
+        Map<BucketKey, Aggregate> aggregates = new TreeMap<>(BucketKey.ORDER);
+        for (PowerReading reading : readings) {
+            aggregates.computeIfAbsent(
+                    new BucketKey(reading.installationId(), resolution.bucketStart(reading.timestamp().toEpochMilli())),
+                    key -> new Aggregate()).add(reading.power());
+        }
+        List<Map.Entry<BucketKey, Aggregate>> entries = List.copyOf(aggregates.entrySet());
+        jdbcTemplate.batchUpdate("MERGE INTO " + resolution.getTable() + " T "
+                        + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), "
+                        + "CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION))) "
+                        + "S (INSTALLATION_ID, BUCKET_START, READING_COUNT, POWER_SUM, POWER_MIN, POWER_MAX) "
+                        + "ON T.INSTALLATION_ID = S.INSTALLATION_ID AND T.BUCKET_START = S.BUCKET_START "
+                        + "WHEN MATCHED THEN UPDATE SET READING_COUNT = T.READING_COUNT + S.READING_COUNT, "
+                        + "POWER_SUM = T.POWER_SUM + S.POWER_SUM, POWER_MIN = LEAST(T.POWER_MIN, S.POWER_MIN), "
+                        + "POWER_MAX = GREATEST(T.POWER_MAX, S.POWER_MAX) "
+                        + "WHEN NOT MATCHED THEN INSERT VALUES (S.INSTALLATION_ID, S.BUCKET_START, S.READING_COUNT, "
+                        + "S.POWER_SUM, S.POWER_MIN, S.POWER_MAX)",
+                entries, entries.size(), (statement, entry) -> {
+                    statement.setLong(1, entry.getKey().installationId());
+                    statement.setLong(2, entry.getKey().bucketStart());
+                    statement.setLong(3, entry.getValue().count);
+                    statement.setDouble(4, entry.getValue().sum);
+                    statement.setDouble(5, entry.getValue().min);
+                    statement.setDouble(6, entry.getValue().max);
+                });
+    }
+
+    private void createPartition(LocalDate day) {
+        if (partitions.contains(day)) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionTable(day) + " ("
+                + "INSTALLATION_ID BIGINT NOT NULL, READ_AT BIGINT NOT NULL, POWER DOUBLE PRECISION NOT NULL, "
+                + "PRIMARY KEY (INSTALLATION_ID, READ_AT))");
+        partitions.add(day);
+        // A new day is a good time to check the retention
+        taskExecutor.execute(this::purge);
+    }
+
+    private LocalDate oldestRetainedPartition() {
+        return partitionOf(clock.millis() - properties.getRawRetention().toMillis());
+    }
+
+    private static LocalDate partitionOf(long timestamp) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+    }
+
+    private static String partitionTable(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX_FORMAT.format(day);
+    }
+
+    private record BucketKey(long installationId, long bucketStart) {
+
+        static final Comparator<BucketKey> ORDER =
+                Comparator.comparingLong(BucketKey::installationId).thenComparingLong(BucketKey::bucketStart);
+
+    }
+
+    private static final class Aggregate {
+
+        private long count;
+
+        private double sum;
+
+        private double min = Double.POSITIVE_INFINITY;
+
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double power) {
+            count++;
+            sum += power;
+            min = Math.min(min, power);
+            max = Math.max(max, power);
+        }
+
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.example.lab1.writebehind;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Write-behind buffer of installation output powers: the last output power accepted for an installation replaces any
+ * previous one still pending, and pending output powers are written every flush interval, {@code batchSize} at a time,
+ * as one {@code UPDATE} per batch bumping the version of the installations.
+ * <p>
+ * Writes are held in stripes of {@link ConcurrentHashMap}s by installation ID, so accepting one takes no lock. A write
+ * is only removed from its stripe once committed, and only if it has not been superseded meanwhile. Flushes are
+ * serialized. As the {@code UPDATE}s bypass the persistence context, they are native queries synchronized on
+ * {@link ProductionInstallation}, so that the cached results of queries on installations are invalidated, and the
+ * installations are evicted from the second-level cache and reloaded after being written, so that
+ * {@link EntityChangedEvent}s and Spring Data REST {@link AfterSaveEvent}s can be published for them as for any
+ * update.
+ * <p>
+ * Accepted writes live in memory until flushed: those pending when the application stops gracefully are flushed on
+ * close, while those pending when it crashes are lost.
+ */
+@Slf4j
+public class OutputPowerWriteBuffer implements MeterBinder, Closeable {
+
+    private final List<Map<Long, PendingWrite>> stripes;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile Counter accepted;
+
+    private volatile Counter written;
+
+    public OutputPowerWriteBuffer(int stripeCount, int batchSize, Duration flushInterval,
+                                  ProductionInstallationRepository productionInstallationRepository,
+                                  EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                  EntityManagerFactory entityManagerFactory,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ConcurrentHashMap<>());
+        }
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "output-power-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Accepts the output power of an installation, to be written with the next flush.
+     */
+    public void put(long id, double outputPower) {
+        stripe(id).put(id, new PendingWrite(outputPower, sequence.incrementAndGet()));
+        Counter counter = accepted;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public boolean isPending(long id) {
+        return stripe(id).containsKey(id);
+    }
+
+    public int size() {
+        return stripes.stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Writes the output power pending for the given installation, if any, so that the next read sees it.
+     */
+    public void flush(long id) {
+        if (!isPending(id)) {
+            return;
+        }
+        synchronized (this) {
+            PendingWrite write = stripe(id).get(id);
+            if (write != null) {
+                write(List.of(Map.entry(id, write)));
+            }
+        }
+    }
+
+    /**
+     * Writes all output powers pending.
+     */
+    public synchronized void flush() {
+        List<Map.Entry<Long, PendingWrite>> batch = new ArrayList<>(batchSize);
+        for (Map<Long, PendingWrite> stripe : stripes) {
+            for (Map.Entry<Long, PendingWrite> entry : stripe.entrySet()) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("installations.write.behind.pending", this, OutputPowerWriteBuffer::size)
+                .description("Number of installation output powers accepted but not written yet")
+                .register(registry);
+        accepted = Counter.builder("installations.write.behind.writes")
+                .description("Number of installation output powers accepted or written by the write-behind buffer")
+                .tag("outcome", "accepted")
+                .register(registry);
+        written = Counter.builder("installations.write.behind.writes")
+                .description("Number of installation output powers accepted or written by the write-behind buffer")
+                .tag("outcome", "written")
+                .register(registry);
+    }
+
+    /**
+     * Stops flushing periodically, then flushes the output powers still pending.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException exc) {
+            log.error("Could not write pending output powers, will retry", exc);
+        }
+    }
+
+    private void write(List<Map.Entry<Long, PendingWrite>> writes) {
+        List<Long> ids = writes.stream().map(Map.Entry::getKey).toList();
+        List<ProductionInstallation> installations = transactionTemplate.execute(status -> {
+            update(writes);
+            evict(ids);
+            List<ProductionInstallation> updated = productionInstallationRepository.findAllById(ids);
+            updated.forEach(installation -> eventPublisher.publishEvent(
+                    new EntityChangedEvent<>(installation, EntityChangedEvent.Type.UPDATED)));
+            return updated;
+        });
+        // Again, in case a concurrent read cached the installations as they were before the commit
+        evict(ids);
+        writes.forEach(write -> stripe(write.getKey()).remove(write.getKey(), write.getValue()));
+        installations.forEach(installation -> eventPublisher.publishEvent(new AfterSaveEvent(installation)));
+        Counter counter = written;
+        if (counter != null) {
+            counter.increment(installations.size());
+        }
+    }
+
+    private void update(List<Map.Entry<Long, PendingWrite>> writes) {
+        String cases = IntStream.range(0, writes.size())
+                .mapToObj(i -> "WHEN :id" + i + " THEN CAST(:outputPower" + i + " AS DOUBLE PRECISION)")
+                .collect(Collectors.joining(" "));
+        NativeQuery<?> update = entityManager.createNativeQuery("UPDATE PRODUCTION_INSTALLATION"
+                        + " SET OUTPUT_POWER = CASE ID " + cases + " END, VERSION = VERSION + 1 WHERE ID IN (:ids)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(ProductionInstallation.class);
+        for (int i = 0; i < writes.size(); i++) {
+            update.setParameter("id" + i, writes.get(i).getKey());
+            update.setParameter("outputPower" + i, writes.get(i).getValue().outputPower());
+        }
+        update.setParameterList("ids", writes.stream().map(Map.Entry::getKey).toList());
+        update.executeUpdate();
+    }
+
+    private void evict(List<Long> ids) {
+        ids.forEach(id -> entityManagerFactory.getCache().evict(ProductionInstallation.class, id));
+    }
+
+    private Map<Long, PendingWrite> stripe(long id) {
+        return stripes.get(Math.floorMod(Long.hashCode(id) * 0x9E3779B9, stripes.size()));
+    }
+
+    /**
+     * @param sequence tells apart writes of the same output power, so that only the flushed one is removed
+     */
+    private record PendingWrite(double outputPower, long sequence) {
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.example.lab1.writebehind;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands the PATCHes of an installation setting its output power, and nothing else, over to the
+ * {@link OutputPowerWriteBuffer}, answering {@code 202 Accepted} once the output power is validated and the
+ * installation found. Conditional PATCHes, i.e. with {@code If-Match}, go through Spring Data REST as usual, as do
+ * invalid ones, so as to get the usual error responses.
+ * <p>
+ * Any other request on an installation item resource first flushes the output power pending for it, if any: reads of
+ * the item see every write accepted before (read-your-writes), and other writes apply after it. Collection and search
+ * resources see an accepted output power once flushed, i.e. within the flush interval.
+ */
+public class WriteBehindFilter extends OncePerRequestFilter {
+
+    private static final String OUTPUT_POWER = "outputPower";
+
+    private final Pattern itemPath;
+
+    private final OutputPowerWriteBuffer writeBuffer;
+
+    private final ProductionInstallationRepository productionInstallationRepository;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    public WriteBehindFilter(String basePath, OutputPowerWriteBuffer writeBuffer,
+                             ProductionInstallationRepository productionInstallationRepository,
+                             Validator validator, ObjectMapper objectMapper) {
+        this.itemPath = Pattern.compile(Pattern.quote(basePath) + "/production-installations/(\\d{1,18})(/.*)?");
+        this.writeBuffer = writeBuffer;
+        this.productionInstallationRepository = productionInstallationRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Matcher matcher = itemPath.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (!matcher.matches()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long id = Long.parseLong(matcher.group(1));
+
+        if (HttpMethod.PATCH.matches(request.getMethod()) && matcher.group(2) == null
+                && request.getHeader(HttpHeaders.IF_MATCH) == null) {
+            byte[] body = request.getInputStream().readAllBytes();
+            Double outputPower = outputPowerOnly(body);
+            if (outputPower != null
+                    && validator.validateValue(ProductionInstallation.class, OUTPUT_POWER, outputPower).isEmpty()
+                    && (writeBuffer.isPending(id) || productionInstallationRepository.findVersionById(id).isPresent())) {
+                writeBuffer.put(id, outputPower);
+                response.setStatus(HttpStatus.ACCEPTED.value());
+                return;
+            }
+            writeBuffer.flush(id);
+            filterChain.doFilter(new CachedBodyRequestWrapper(request, body), response);
+            return;
+        }
+
+        writeBuffer.flush(id);
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return the output power set by the given JSON (merge) patch, if that is all it does
+     */
+    private Double outputPowerOnly(byte[] body) {
+        try {
+            JsonNode patch = objectMapper.readTree(body);
+            if (patch != null && patch.isObject() && patch.size() == 1 && patch.path(OUTPUT_POWER).isNumber()) {
+                return patch.get(OUTPUT_POWER).doubleValue();
+            }
+        } catch (JsonProcessingException exc) {
+            // Left to Spring Data REST to report
+        } catch (IOException exc) {
+            throw new IllegalStateException(exc);
+        }
+        return null;
+    }
+
+    private static final class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return input.read(bytes, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+        }
+
+    }
+
+}
@@ -1,5 +1,5 @@
-INSERT INTO CONTACT (ID, NAME, ZIP_CODE, CITY, HOUSE_NUMBER)
-VALUES (1, 'Bruce Wayne', '12345', 'Gotham City', '42');
+INSERT INTO CONTACT (ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER)
+VALUES (NEXT VALUE FOR CONTACT_SEQ, 0, 'Bruce Wayne', '12345', 'Gotham City', '42');
 
-INSERT INTO PRODUCTION_INSTALLATION (ID, NAME, OUTPUT_POWER, CONTACT_ID)
-VALUES (1, 'Wayne Enterprise', 999.9, 1);
+INSERT INTO PRODUCTION_INSTALLATION (ID, VERSION, NAME, OUTPUT_POWER, CONTACT_ID)
+VALUES (NEXT VALUE FOR PRODUCTION_INSTALLATION_SEQ, 0, 'Wayne Enterprise', 999.9, CURRENT VALUE FOR CONTACT_SEQ);
@@ -0,0 +1,90 @@
+package com.example.lab1.benchmark;
+
+import com.example.lab1.Lab1Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Starts the application against its own in-memory database, seeded with a deterministic dataset.
+ */
+final class BenchmarkApplication {
+
+    static final int INSTALLATIONS_PER_CONTACT = 4;
+
+    static final int DISTINCT_NAMES = 1_000;
+
+    static final double MAX_OUTPUT_POWER = 1_000;
+
+    private static final String[] CITIES = {"Amsterdam", "Arnhem", "Eindhoven", "Groningen", "Nijmegen", "Rotterdam",
+            "Utrecht", "Zwolle"};
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Installations get IDs {@code 1..rows} and contacts IDs {@code 1..rows / INSTALLATIONS_PER_CONTACT}.
+     */
+    static ConfigurableApplicationContext start(int rows) {
+        ConfigurableApplicationContext context = builder()
+                .properties("spring.sql.init.mode=never")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), rows);
+        return context;
+    }
+
+    /**
+     * @return a builder of the application against a new in-memory database, left to be initialized
+     */
+    static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(Lab1Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "lab1.output-power-index.enabled=false",
+                        "lab1.capacity-rollups.enabled=false",
+                        "lab1.contact-search.enabled=false",
+                        "logging.level.root=warn");
+    }
+
+    static String name(int index) {
+        return "Installation " + (index % DISTINCT_NAMES);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        int contacts = Math.max(1, rows / INSTALLATIONS_PER_CONTACT);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= contacts; id++) {
+            batch.add(new Object[]{id, "Contact " + id, String.format("%04dAA", id % 10_000),
+                    CITIES[id % CITIES.length], String.valueOf(id % 200)});
+            if (batch.size() == BATCH_SIZE || id == contacts) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO CONTACT (ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER) VALUES (?, 0, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        for (int id = 1; id <= rows; id++) {
+            double outputPower = Math.round(random.nextDouble(0.0001, MAX_OUTPUT_POWER) * 10_000) / 10_000.0;
+            batch.add(new Object[]{id, name(id), outputPower, 1 + (id - 1) / INSTALLATIONS_PER_CONTACT});
+            if (batch.size() == BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO PRODUCTION_INSTALLATION (ID, VERSION, NAME, OUTPUT_POWER, CONTACT_ID) VALUES (?, 0, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+
+        jdbcTemplate.execute("ALTER SEQUENCE CONTACT_SEQ RESTART WITH " + (contacts + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE PRODUCTION_INSTALLATION_SEQ RESTART WITH " + (rows + 1));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+}
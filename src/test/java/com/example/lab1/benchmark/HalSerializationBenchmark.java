@@ -0,0 +1,132 @@
+package com.example.lab1.benchmark;
+
+import com.example.lab1.config.BinaryJacksonHttpMessageConverter;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.support.SelfLinkProvider;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.mapping.Associations;
+import org.springframework.data.rest.webmvc.support.PersistentEntityProjector;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendering of a page of installations, with their contact inlined by the excerpt projection, the way
+ * {@code GET /production-installations?size=...} does once the page has been fetched: as HAL JSON, gzipped HAL JSON
+ * or one of the binary formats. The payload size of each combination is printed during setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HalSerializationBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"20", "200", "1000"})
+    private int pageSize;
+
+    @Param({"hal+json", "hal+json;gzip", "cbor", "smile"})
+    private String encoding;
+
+    private ConfigurableApplicationContext context;
+
+    private Page<ProductionInstallation> page;
+
+    private PersistentEntityResourceAssembler assembler;
+
+    private ObjectMapper halObjectMapper;
+
+    private BinaryJacksonHttpMessageConverter binaryConverter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(ROWS);
+        page = context.getBean(ProductionInstallationRepository.class)
+                .findAll(PageRequest.of(0, pageSize, Sort.by("id")));
+
+        Associations associations = context.getBean(Associations.class);
+        PersistentEntityProjector projector = new PersistentEntityProjector(
+                context.getBean(RepositoryRestConfiguration.class).getProjectionConfiguration(),
+                new SpelAwareProxyProjectionFactory(), null, associations.getMappings());
+        assembler = new PersistentEntityResourceAssembler(context.getBean(PersistentEntities.class), projector,
+                associations, context.getBean(SelfLinkProvider.class));
+        halObjectMapper = context.getBean("halJacksonHttpMessageConverter",
+                TypeConstrainedMappingJackson2HttpMessageConverter.class).getObjectMapper();
+        binaryConverter = switch (encoding) {
+            case "cbor" -> BinaryJacksonHttpMessageConverter.cbor(halObjectMapper);
+            case "smile" -> BinaryJacksonHttpMessageConverter.smile(halObjectMapper);
+            default -> null;
+        };
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/production-installations");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        try {
+            System.out.printf("Page of %d installations as %s: %d bytes%n", pageSize, encoding, serializePage().length);
+        } catch (IOException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        PagedModel<?> model = PagedModel.of(page.map(assembler::toModel).getContent(),
+                new PagedModel.PageMetadata(page.getSize(), page.getNumber(), page.getTotalElements()),
+                Link.of("http://localhost/api/production-installations"));
+        return switch (encoding) {
+            case "hal+json" -> halObjectMapper.writeValueAsBytes(model);
+            case "hal+json;gzip" -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                    halObjectMapper.writeValue(gzip, model);
+                }
+                yield bytes.toByteArray();
+            }
+            default -> {
+                MockHttpOutputMessage message = new MockHttpOutputMessage();
+                binaryConverter.write(model, null, message);
+                yield message.getBodyAsBytes();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.example.lab1.benchmark;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.ProductionInstallationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finders of {@link ProductionInstallationRepository}, each fetching installations together with their contact.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductionInstallationRepository productionInstallationRepository;
+
+    /**
+     * Width of the output power range expected to match about one page of installations.
+     */
+    private double outputPowerRangeWidth;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(rows);
+        productionInstallationRepository = context.getBean(ProductionInstallationRepository.class);
+        outputPowerRangeWidth = BenchmarkApplication.MAX_OUTPUT_POWER * PAGE_SIZE / rows;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ProductionInstallation> findById() {
+        return productionInstallationRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<ProductionInstallation> findAllByName() {
+        return productionInstallationRepository.findAllByName(BenchmarkApplication.name(random.nextInt(rows)));
+    }
+
+    @Benchmark
+    public List<ProductionInstallation> findAllByOutputPowerBetween() {
+        double lowerLimit = random.nextDouble(BenchmarkApplication.MAX_OUTPUT_POWER - outputPowerRangeWidth);
+        return productionInstallationRepository.findAllByOutputPowerBetween(lowerLimit, lowerLimit + outputPowerRangeWidth);
+    }
+
+    @Benchmark
+    public Page<ProductionInstallation> findAllPage() {
+        int page = random.nextInt(rows / PAGE_SIZE);
+        return productionInstallationRepository.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public List<ProductionInstallation> findPageAfter() {
+        return productionInstallationRepository.findPageAfter(randomId(), PageRequest.ofSize(PAGE_SIZE));
+    }
+
+    private long randomId() {
+        return 1 + random.nextInt(rows);
+    }
+
+}
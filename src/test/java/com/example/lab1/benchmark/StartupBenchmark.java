@@ -0,0 +1,126 @@
+package com.example.lab1.benchmark;
+
+import com.example.lab1.snapshot.SnapshotWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup of the application with its database initialized from the same installations, either by running a
+ * {@code data.sql} script of one {@code INSERT} per row, after Hibernate has created the schema as with
+ * {@code spring.jpa.defer-datasource-initialization}, or by loading a binary snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StartupBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"data.sql", "snapshot"})
+    private String initialization;
+
+    private Path directory;
+
+    private Path script;
+
+    private Path snapshot;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        directory = Files.createTempDirectory("startup-benchmark");
+        script = directory.resolve("data.sql");
+        snapshot = directory.resolve("lab1.snapshot");
+        try (ConfigurableApplicationContext seeded = BenchmarkApplication.start(rows)) {
+            writeScript(seeded.getBean(JdbcTemplate.class));
+            SnapshotWriter.write(seeded.getBean(DataSource.class), snapshot);
+        }
+        System.out.printf("%n%d installations: data.sql of %d bytes, snapshot of %d bytes%n", rows,
+                Files.size(script), Files.size(snapshot));
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        context.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = switch (initialization) {
+            case "data.sql" -> BenchmarkApplication.builder()
+                    .properties("spring.sql.init.data-locations=" + script.toUri())
+                    .run();
+            case "snapshot" -> BenchmarkApplication.builder()
+                    .properties("lab1.snapshot.enabled=true", "lab1.snapshot.path=" + snapshot)
+                    .run();
+            default -> throw new IllegalArgumentException(initialization);
+        };
+        return context;
+    }
+
+    private void writeScript(JdbcTemplate jdbcTemplate) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(script, StandardCharsets.UTF_8)) {
+            jdbcTemplate.query("SELECT ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER FROM CONTACT ORDER BY ID",
+                    resultSet -> {
+                        write(writer, String.format("INSERT INTO CONTACT (ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER)"
+                                        + "%nVALUES (%d, %d, '%s', '%s', '%s', '%s');%n%n",
+                                resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3),
+                                resultSet.getString(4), resultSet.getString(5), resultSet.getString(6)));
+                    });
+            jdbcTemplate.query("SELECT ID, VERSION, NAME, OUTPUT_POWER, CONTACT_ID FROM PRODUCTION_INSTALLATION ORDER BY ID",
+                    resultSet -> {
+                        write(writer, String.format("INSERT INTO PRODUCTION_INSTALLATION (ID, VERSION, NAME, OUTPUT_POWER, CONTACT_ID)"
+                                        + "%nVALUES (%d, %d, '%s', %s, %d);%n%n",
+                                resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3),
+                                resultSet.getBigDecimal(4), resultSet.getLong(5)));
+                    });
+            // Past the IDs above, by a whole allocation of the pooled Hibernate sequences
+            for (String table : new String[]{"CONTACT", "PRODUCTION_INSTALLATION"}) {
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(ID), 0) FROM " + table, Long.class);
+                write(writer, String.format("ALTER SEQUENCE %s_SEQ RESTART WITH %d;%n", table, maxId + 50));
+            }
+        }
+    }
+
+    private static void write(BufferedWriter writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.example.lab1.benchmark;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of entities, as done by Hibernate before every insert and update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private Contact validContact;
+
+    private ProductionInstallation validInstallation;
+
+    private ProductionInstallation invalidInstallation;
+
+    @Setup
+    public void setUp() {
+        // No application context is started here, so logging is not configured by Spring Boot
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validContact = Contact.builder()
+                .name("My contact")
+                .zipCode("0000AA")
+                .city("Arnhem")
+                .houseNumber("12a")
+                .build();
+        validInstallation = ProductionInstallation.builder()
+                .name("My installation")
+                .outputPower(0.123)
+                .contact(validContact)
+                .build();
+        invalidInstallation = ProductionInstallation.builder()
+                .name("")
+                .outputPower(1_000_000.0)
+                .contact(validContact)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Contact>> validateContact() {
+        return validator.validate(validContact);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductionInstallation>> validateInstallation() {
+        return validator.validate(validInstallation);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductionInstallation>> validateInvalidInstallation() {
+        return validator.validate(invalidInstallation);
+    }
+
+}
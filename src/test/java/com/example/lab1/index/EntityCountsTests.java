@@ -0,0 +1,49 @@
+package com.example.lab1.index;
+
+import com.example.lab1.event.EntityChangedEvent;
+import com.example.lab1.model.ProductionInstallation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class EntityCountsTests {
+
+    private final EntityCounts entityCounts = new EntityCounts();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityCounts);
+    }
+
+    @Test
+    void testCountIsNotKeptWhileATransactionIsCommitting() {
+        EntityChangedEvent<ProductionInstallation> created = new EntityChangedEvent<>(
+                ProductionInstallation.builder().id(1L).name("Installation").build(), EntityChangedEvent.Type.CREATED);
+
+        // Flushed in a transaction, then committed before the count runs, but not completed yet
+        TransactionSynchronizationManager.initSynchronization();
+        entityCounts.onEntityChanging(created);
+        entityCounts.onEntityChanging(created);
+        assertThat(entityCounts.count(ProductionInstallation.class, () -> 4)).isEqualTo(4);
+
+        entityCounts.onEntityChanged(created);
+        entityCounts.onEntityChanged(created);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(entityCounts.count(ProductionInstallation.class, () -> 4)).isEqualTo(4);
+        assertThat(entityCounts.count(ProductionInstallation.class, () -> fail("Counted twice"))).isEqualTo(4);
+
+        entityCounts.onEntityChanged(new EntityChangedEvent<>(created.entity(), EntityChangedEvent.Type.DELETED));
+        assertThat(entityCounts.count(ProductionInstallation.class, () -> fail("Counted twice"))).isEqualTo(3);
+    }
+
+}
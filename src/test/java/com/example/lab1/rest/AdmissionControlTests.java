@@ -0,0 +1,96 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.admission.AdmissionControlFilter;
+import com.example.lab1.admission.ConcurrencyLimit;
+import com.example.lab1.admission.EndpointClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "lab1.admission-control.enabled=true",
+        "lab1.admission-control.rate-limit.requests-per-second=0.1",
+        "lab1.admission-control.rate-limit.burst=3",
+        "lab1.admission-control.concurrency.initial-limit=1",
+        "lab1.admission-control.concurrency.min-limit=1",
+        "lab1.admission-control.concurrency.max-limit=1",
+        // Tells clients apart by their X-Forwarded-For header
+        "server.forward-headers-strategy=native",
+        "spring.datasource.url=jdbc:h2:mem:admissiondb"
+})
+class AdmissionControlTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testClientIsRateLimited() {
+        double rateLimited = admissions("read", "rate_limited");
+
+        for (int i = 0; i < 3; i++) {
+            get("10.0.0.1").statusCode(HttpStatus.OK.value());
+        }
+        get("10.0.0.1")
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .header(HttpHeaders.RETRY_AFTER, equalTo("10"));
+        // Other clients have their own limit
+        get("10.0.0.2").statusCode(HttpStatus.OK.value());
+
+        assertThat(admissions("read", "rate_limited")).isEqualTo(rateLimited + 1);
+    }
+
+    @Test
+    void testExcessLoadIsShed() {
+        ConcurrencyLimit limit = admissionControlFilter.limit(EndpointClass.SEARCH);
+        assertThat(limit.tryAcquire()).isTrue();
+        try {
+            search("10.0.0.3")
+                    .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                    .header(HttpHeaders.RETRY_AFTER, equalTo("1"));
+            // Other classes have their own limit
+            get("10.0.0.3").statusCode(HttpStatus.OK.value());
+        } finally {
+            limit.release(0);
+        }
+        search("10.0.0.3").statusCode(HttpStatus.OK.value());
+
+        assertThat(admissions("search", "shed")).isEqualTo(1);
+    }
+
+    private ValidatableResponse get(String client) {
+        return buildRequestSpecification()
+                .header("X-Forwarded-For", client)
+                .get(URI_BASE_PATH)
+                .then();
+    }
+
+    private ValidatableResponse search(String client) {
+        return buildRequestSpecification()
+                .header("X-Forwarded-For", client)
+                .queryParam("powerGreaterThan", 0)
+                .queryParam("powerLowerThan", 1000)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .then();
+    }
+
+    private double admissions(String endpointClass, String outcome) {
+        return meterRegistry.get("http.server.admission")
+                .tag("class", endpointClass)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@TestPropertySource(properties = {
+        "lab1.batch-jobs.range-size=2",
+        "lab1.batch-jobs.parallelism=4",
+        "spring.datasource.url=jdbc:h2:mem:batchjobsdb"
+})
+class BatchJobTests extends AbstractRepositoryTests {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testJobsRecomputeDerivedData() {
+        clearRepositories();
+        Contact arnhem = saveContact("Arnhem");
+        Contact utrecht = saveContact("Utrecht");
+        Contact orphaned = saveContact("Nijmegen");
+        saveInstallation(0.5, arnhem);
+        saveInstallation(5.0, arnhem);
+        saveInstallation(50.0, utrecht);
+        saveInstallation(7.0, null);
+        saveInstallation(null, utrecht);
+
+        runToCompletion("power-bands")
+                .body("totalRanges", equalTo(3))
+                .body("rows", equalTo(5))
+                .body("result.bands.keySet()", contains("0.1", "1", "10"))
+                .body("result.bands.'1'.count", equalTo(2))
+                .body("result.bands.'1'.sum", equalTo(12.0f))
+                .body("result.withoutOutputPower", equalTo(1));
+
+        runToCompletion("city-totals")
+                .body("result.cities.keySet()", contains("Arnhem", "Utrecht"))
+                .body("result.cities.Arnhem.count", equalTo(2))
+                .body("result.cities.Arnhem.sum", equalTo(5.5f))
+                .body("result.cities.Utrecht.count", equalTo(1));
+
+        runToCompletion("orphaned-contacts")
+                .body("rows", equalTo(3))
+                .body("result.count", equalTo(1))
+                .body("result.ids", contains(orphaned.getId().intValue()));
+
+        buildActuatorRequestSpecification()
+                .post("/actuator/jobs/unknown")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testInterruptedRunIsResumed() {
+        clearRepositories();
+        Contact contact = saveContact("Arnhem");
+        ProductionInstallation first = saveInstallation(1.0, contact);
+        IntStream.range(0, 4).forEach(i -> saveInstallation(1.0, contact));
+        ProductionInstallation last = saveInstallation(1.0, contact);
+
+        long runId = runToCompletion("city-totals")
+                .body("totalRanges", equalTo(3))
+                .body("result.cities.Arnhem.sum", equalTo(6.0f))
+                .extract().jsonPath().getLong("runId");
+
+        // As if the run had stopped after its first range
+        jdbcTemplate.update("UPDATE BATCH_JOB_RUN SET STATUS = 'INTERRUPTED', RESULT = NULL WHERE ID = ?", runId);
+        jdbcTemplate.update("DELETE FROM BATCH_JOB_RANGE WHERE RUN_ID = ? AND RANGE_START > ?", runId, first.getId());
+        first.setOutputPower(10.0);
+        productionInstallationRepository.save(first);
+        last.setOutputPower(100.0);
+        productionInstallationRepository.save(last);
+
+        // The first range is not read again, unlike the last one
+        runToCompletion("city-totals")
+                .body("runId", equalTo((int) runId))
+                .body("resumedRanges", equalTo(1))
+                .body("completedRanges", equalTo(3))
+                .body("result.cities.Arnhem.sum", equalTo(105.0f))
+                .body("error", nullValue());
+
+        // The next run starts afresh
+        runToCompletion("city-totals")
+                .body("resumedRanges", equalTo(0))
+                .body("result.cities.Arnhem.sum", equalTo(114.0f));
+    }
+
+    private ValidatableResponse runToCompletion(String job) {
+        buildActuatorRequestSpecification()
+                .post("/actuator/jobs/" + job)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> "COMPLETED".equals(buildActuatorRequestSpecification()
+                .get("/actuator/jobs/" + job)
+                .jsonPath().getString("status")));
+        return buildActuatorRequestSpecification()
+                .get("/actuator/jobs/" + job)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private RequestSpecification buildActuatorRequestSpecification() {
+        return RestAssured.given()
+                .port(serverPort)
+                .contentType(ContentType.JSON);
+    }
+
+    private Contact saveContact(String city) {
+        return contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(city)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+    }
+
+    private ProductionInstallation saveInstallation(Double outputPower, Contact contact) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(outputPower)
+                .contact(contact)
+                .build());
+    }
+
+}
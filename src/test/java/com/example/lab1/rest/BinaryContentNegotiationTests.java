@@ -0,0 +1,146 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.BinaryJacksonHttpMessageConverter;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class BinaryContentNegotiationTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Test
+    void testItemAsCbor() throws Exception {
+        clearRepositories();
+        ProductionInstallation installation = saveInstallation(Fixtures.ProductionInstallation.NAME);
+
+        Response response = buildRequestSpecification()
+                .accept(MediaType.APPLICATION_CBOR_VALUE)
+                .get(URI_BASE_PATH + "/" + installation.getId());
+        response.then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(MediaType.APPLICATION_CBOR_VALUE);
+
+        JsonNode body = new CBORMapper().readTree(response.asByteArray());
+        assertThat(body.path("name").asText()).isEqualTo(Fixtures.ProductionInstallation.NAME);
+        assertThat(body.path("_links").path("self").path("href").asText())
+                .endsWith(URI_BASE_PATH + "/" + installation.getId());
+    }
+
+    @Test
+    void testItemInMixedFormats() throws Exception {
+        clearRepositories();
+        ProductionInstallation installation = saveInstallation(Fixtures.ProductionInstallation.NAME);
+        String path = URI_BASE_PATH + "/" + installation.getId();
+
+        // Each format twice, so that a cached representation would be served the second time
+        for (int i = 0; i < 2; i++) {
+            Response cbor = buildRequestSpecification()
+                    .accept(MediaType.APPLICATION_CBOR_VALUE)
+                    .get(path);
+            cbor.then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaType.APPLICATION_CBOR_VALUE);
+            assertThat(new CBORMapper().readTree(cbor.asByteArray()).path("name").asText())
+                    .isEqualTo(Fixtures.ProductionInstallation.NAME);
+
+            buildRequestSpecification()
+                    .get(path)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .contentType(MediaTypes.HAL_JSON_VALUE)
+                    .body("name", equalTo(Fixtures.ProductionInstallation.NAME));
+        }
+    }
+
+    @Test
+    void testCollectionAsSmile() throws Exception {
+        clearRepositories();
+        saveInstallation("First");
+        saveInstallation("Second");
+
+        Response response = buildRequestSpecification()
+                .accept(BinaryJacksonHttpMessageConverter.APPLICATION_SMILE.toString())
+                .get(URI_BASE_PATH);
+        response.then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(BinaryJacksonHttpMessageConverter.APPLICATION_SMILE.toString());
+
+        JsonNode body = new SmileMapper().readTree(response.asByteArray());
+        assertThat(body.path("_embedded").path("productionInstallations").findValuesAsText("name"))
+                .containsExactly("First", "Second");
+        assertThat(body.path("page").path("totalElements").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void testCreateFromCbor() throws Exception {
+        clearRepositories();
+        ObjectMapper cborMapper = new CBORMapper();
+
+        buildRequestSpecification()
+                .body(cborMapper.writeValueAsBytes(Contact.builder()
+                        .name(Fixtures.Contact.NAME)
+                        .zipCode(Fixtures.Contact.ZIP_CODE)
+                        .city(Fixtures.Contact.CITY)
+                        .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                        .build()))
+                .contentType(MediaType.APPLICATION_CBOR_VALUE)
+                .post(ContactRepositoryTests.URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+
+        assertThat(contactRepository.findAll()).extracting(Contact::getName).containsExactly(Fixtures.Contact.NAME);
+    }
+
+    @Test
+    void testLargeJsonIsCompressed() {
+        clearRepositories();
+        IntStream.range(0, 50).forEach(i -> saveInstallation("Installation " + i));
+
+        // Without decoders, which would drop the Content-Encoding header
+        RestAssuredConfig config = RestAssured.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        buildRequestSpecification()
+                .config(config)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .queryParam("size", 50)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.CONTENT_ENCODING, equalTo("gzip"));
+
+        buildRequestSpecification()
+                .config(config)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .queryParam("size", 1)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.CONTENT_ENCODING, nullValue());
+    }
+
+    private ProductionInstallation saveInstallation(String name) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(name)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build());
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.rollup.CapacityRollups;
+import com.example.lab1.rollup.GroupBy;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RestMediaTypes;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+class CapacityRollupTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private CapacityRollups capacityRollups;
+
+    private Contact arnhem;
+
+    private Contact nijmegen;
+
+    private ProductionInstallation installation;
+
+    @BeforeEach
+    void createInstallations() {
+        await().atMost(Duration.ofSeconds(10)).until(() -> capacityRollups.rollups(GroupBy.CITY) != null);
+        clearRepositories();
+
+        arnhem = saveContact("Arnhem", "6811AA");
+        nijmegen = saveContact("Nijmegen", "6511AA");
+        installation = saveInstallation(1.5, arnhem);
+        saveInstallation(2.5, arnhem);
+        saveInstallation(4.0, nijmegen);
+        saveInstallation(8.0, null);
+    }
+
+    @Test
+    void testRollupsByCity() {
+        getRollups("city")
+                .body("groupBy", equalTo("city"))
+                .body("rollups.group", contains("Arnhem", "Nijmegen"))
+                .body("rollups.count", contains(2, 1))
+                .body("rollups.sum", contains(4.0f, 4.0f))
+                .body("rollups.min", contains(1.5f, 4.0f))
+                .body("rollups.max", contains(2.5f, 4.0f))
+                .body("rollups.average", contains(2.0f, 4.0f));
+    }
+
+    @Test
+    void testRollupsFollowInstallationChanges() {
+        buildRequestSpecification()
+                .body(Map.of("outputPower", 5.5))
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        getRollups("zipCode")
+                .body("rollups.group", contains("6511AA", "6811AA"))
+                .body("rollups.sum", contains(4.0f, 8.0f))
+                .body("rollups.min", contains(4.0f, 2.5f))
+                .body("rollups.max", contains(4.0f, 5.5f));
+
+        buildRequestSpecification()
+                .body(ContactRepositoryTests.URI_BASE_PATH + "/" + nijmegen.getId())
+                .contentType(RestMediaTypes.TEXT_URI_LIST.toString())
+                .put(URI_BASE_PATH + "/" + installation.getId() + "/contact")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        getRollups("city")
+                .body("rollups.group", contains("Arnhem", "Nijmegen"))
+                .body("rollups.count", contains(1, 2))
+                .body("rollups.sum", contains(2.5f, 9.5f));
+
+        buildRequestSpecification()
+                .delete(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        getRollups("city")
+                .body("rollups.count", contains(1, 1))
+                .body("rollups.sum", contains(2.5f, 4.0f));
+    }
+
+    @Test
+    void testRollupsFollowContactChanges() {
+        arnhem.setCity("Nijmegen");
+        contactRepository.save(arnhem);
+
+        getRollups("city")
+                .body("rollups.group", contains("Nijmegen"))
+                .body("rollups.count", contains(3))
+                .body("rollups.sum", contains(8.0f));
+    }
+
+    @Test
+    void testUnsupportedGroupBy() {
+        buildRequestSpecification()
+                .queryParam("groupBy", "name")
+                .get(URI_BASE_PATH + "/rollups")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private ValidatableResponse getRollups(String groupBy) {
+        return buildRequestSpecification()
+                .queryParam("groupBy", groupBy)
+                .get(URI_BASE_PATH + "/rollups")
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private Contact saveContact(String city, String zipCode) {
+        return contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(zipCode)
+                .city(city)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+    }
+
+    private ProductionInstallation saveInstallation(double outputPower, Contact contact) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(outputPower)
+                .contact(contact)
+                .build());
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.example.lab1.rest;
+
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.rest.webmvc.RestMediaTypes;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Value("${spring.data.rest.base-path}")
+    private String restApiBasePath;
+
+    @LocalServerPort
+    private int serverPort;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final List<Stream<String>> openStreams = new ArrayList<>();
+
+    @BeforeEach
+    void clear() {
+        clearRepositories();
+    }
+
+    @AfterEach
+    void closeStreams() {
+        openStreams.forEach(Stream::close);
+    }
+
+    @Test
+    void testChangesAreStreamed() throws Exception {
+        BlockingQueue<Event> events = subscribe(null);
+
+        String contactUri = createValidContact()
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().header("Location");
+        String installationUri = createInstallation(contactUri);
+        long installationId = Long.parseLong(installationUri.substring(installationUri.lastIndexOf('/') + 1));
+
+        buildRequestSpecification()
+                .body(Map.of("outputPower", 1.5))
+                .contentType(ContentType.JSON)
+                .patch(installationUri)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+        buildRequestSpecification()
+                .body(contactUri)
+                .contentType(RestMediaTypes.TEXT_URI_LIST.toString())
+                .put(installationUri + "/contact")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+        buildRequestSpecification()
+                .delete(installationUri)
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        assertThat(next(events)).satisfies(event -> {
+            assertThat(event.name).isEqualTo("created");
+            assertThat(event.data).contains("\"resource\":\"contacts\"");
+        });
+        assertThat(next(events)).satisfies(event -> {
+            assertThat(event.name).isEqualTo("created");
+            assertThat(event.data).isEqualTo(
+                    "{\"resource\":\"production-installations\",\"id\":" + installationId + ",\"version\":0}");
+        });
+        assertThat(next(events)).satisfies(event -> {
+            assertThat(event.name).isEqualTo("updated");
+            assertThat(event.data).contains("\"version\":1");
+        });
+        assertThat(next(events)).satisfies(event -> {
+            assertThat(event.name).isEqualTo("linked");
+            assertThat(event.data).contains("\"linked\":{\"resource\":\"contacts\"");
+        });
+        assertThat(next(events)).satisfies(event -> {
+            assertThat(event.name).isEqualTo("deleted");
+            assertThat(event.data).isEqualTo("{\"resource\":\"production-installations\",\"id\":" + installationId + "}");
+        });
+    }
+
+    @Test
+    void testResumeFromLastEventId() throws Exception {
+        BlockingQueue<Event> events = subscribe(null);
+        String contactUri = createValidContact().then().statusCode(HttpStatus.CREATED.value()).extract().header("Location");
+        Event contactCreated = next(events);
+
+        createInstallation(contactUri);
+        createInstallation(contactUri);
+
+        BlockingQueue<Event> resumedEvents = subscribe(contactCreated.id);
+        assertThat(next(resumedEvents).data).contains("\"resource\":\"production-installations\"");
+        assertThat(next(resumedEvents).data).contains("\"resource\":\"production-installations\"");
+        assertThat(resumedEvents.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void testResetOnUnknownLastEventId() throws Exception {
+        BlockingQueue<Event> events = subscribe("unknown-42");
+        assertThat(next(events).name).isEqualTo("reset");
+
+        createValidContact().then().statusCode(HttpStatus.CREATED.value());
+        assertThat(next(events).name).isEqualTo("created");
+    }
+
+    private String createInstallation(String contactUri) {
+        return buildRequestSpecification()
+                .body(Map.of(
+                        "name", Fixtures.ProductionInstallation.NAME,
+                        "outputPower", Fixtures.ProductionInstallation.OUTPUT_POWER,
+                        "contact", contactUri))
+                .contentType(ContentType.JSON)
+                .post(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().header("Location");
+    }
+
+    private BlockingQueue<Event> subscribe(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create(String.format("http://localhost:%d%s/changes", serverPort, restApiBasePath)))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        openStreams.add(response.body());
+
+        BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            Map<String, String> fields = new HashMap<>();
+            try {
+                response.body().forEach(line -> {
+                    if (line.isEmpty()) {
+                        if (fields.isEmpty()) {
+                            return;
+                        }
+                        events.add(new Event(fields.get("id"), fields.get("event"), fields.get("data")));
+                        fields.clear();
+                    } else if (!line.startsWith(":")) {
+                        int separator = line.indexOf(':');
+                        fields.put(line.substring(0, separator), line.substring(separator + 1));
+                    }
+                });
+            } catch (RuntimeException e) {
+                // closed by the test
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return events;
+    }
+
+    private static Event next(BlockingQueue<Event> events) throws InterruptedException {
+        Event event = events.poll(10, TimeUnit.SECONDS);
+        assertThat(event).as("next event").isNotNull();
+        return event;
+    }
+
+    private record Event(String id, String name, String data) {
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.OutputPowerHistogram;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class CollectionCountTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    private static final String JSON_BASE_PATH = "_embedded.productionInstallations";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OutputPowerHistogram outputPowerHistogram;
+
+    @Test
+    void testTotalsFollowChanges() {
+        clearRepositories();
+        List<ProductionInstallation> installations = IntStream.range(0, 3)
+                .mapToObj(index -> save("Installation " + index, Fixtures.ProductionInstallation.OUTPUT_POWER))
+                .toList();
+        assertTotalElements(3);
+
+        // Counted once, then kept up to date
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertTotalElements(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        buildRequestSpecification()
+                .body(ProductionInstallation.builder()
+                        .name(Fixtures.ProductionInstallation.NAME)
+                        .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                        .build())
+                .contentType(ContentType.JSON)
+                .post(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.CREATED.value());
+        assertTotalElements(4);
+
+        productionInstallationRepository.delete(installations.get(0));
+        assertTotalElements(3);
+    }
+
+    @Test
+    void testTotalsCanBeDisabled() {
+        clearRepositories();
+        IntStream.range(0, 3)
+                .forEach(index -> save("Installation " + index, Fixtures.ProductionInstallation.OUTPUT_POWER));
+
+        buildRequestSpecification()
+                .queryParam("totals", false)
+                .queryParam("size", 2)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH + ".name", contains("Installation 0", "Installation 1"))
+                .body("page", nullValue())
+                .body("_links.prev", nullValue())
+                .body("_links.next.href", notNullValue());
+
+        buildRequestSpecification()
+                .queryParam("totals", false)
+                .queryParam("size", 2)
+                .queryParam("page", 1)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH + ".name", contains("Installation 2"))
+                .body("_links.prev.href", notNullValue())
+                .body("_links.next", nullValue());
+    }
+
+    @Test
+    void testCountByOutputPowerBetween() {
+        clearRepositories();
+        IntStream.rangeClosed(1, 100).forEach(index -> save("Installation " + index, (double) index));
+        await().atMost(Duration.ofSeconds(10)).until(outputPowerHistogram::isReady);
+
+        countByOutputPowerBetween(10, 20, false)
+                .body("count", equalTo(11))
+                .body("approximate", equalTo(false));
+        countByOutputPowerBetween(10, 20, true)
+                .body("count", both(greaterThanOrEqualTo(9)).and(lessThanOrEqualTo(13)))
+                .body("approximate", equalTo(true));
+        countByOutputPowerBetween(0, 1000, true)
+                .body("count", equalTo(100));
+        countByOutputPowerBetween(200, 300, true)
+                .body("count", equalTo(0));
+    }
+
+    private ValidatableResponse countByOutputPowerBetween(double lowerLimit, double upperLimit, boolean approximate) {
+        return buildRequestSpecification()
+                .queryParam("powerGreaterThan", lowerLimit)
+                .queryParam("powerLowerThan", upperLimit)
+                .queryParam("approximate", approximate)
+                .get(URI_BASE_PATH + "/search/countByOutputPowerBetween")
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private void assertTotalElements(int totalElements) {
+        // A page smaller than the collection, whose total cannot be inferred from its size
+        buildRequestSpecification()
+                .queryParam("size", 1)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("page.totalElements", equalTo(totalElements));
+    }
+
+    private ProductionInstallation save(String name, double outputPower) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(name)
+                .outputPower(outputPower)
+                .build());
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.http.ContentType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+class ConditionalRequestTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private ProductionInstallation installation;
+
+    @BeforeEach
+    void createInstallationWithContact() {
+        clearRepositories();
+        installation = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(contactRepository.save(Contact.builder()
+                        .name(Fixtures.Contact.NAME)
+                        .zipCode(Fixtures.Contact.ZIP_CODE)
+                        .city(Fixtures.Contact.CITY)
+                        .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                        .build()))
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testItemNotModified() {
+        String itemPath = URI_BASE_PATH + "/" + installation.getId();
+        String eTag = buildRequestSpecification()
+                .queryParam("projection", "excerpt")
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"0\"")
+                .extract().header(HttpHeaders.ETAG);
+
+        statistics.clear();
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header(HttpHeaders.ETAG, eTag);
+
+        // version query only
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        patchOutputPower(1.5);
+
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .body("outputPower", equalTo(1.5f));
+    }
+
+    @Test
+    void testItemPreconditionFailed() {
+        patchOutputPower(1.5);
+
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .body(Map.of("outputPower", 2.5))
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
+    @Test
+    void testItemServedFromCache() {
+        String itemPath = URI_BASE_PATH + "/" + installation.getId();
+        String body = buildRequestSpecification()
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().asString();
+
+        statistics.clear();
+        buildRequestSpecification()
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType("application/hal+json")
+                .header(HttpHeaders.ETAG, "\"0\"")
+                .body(equalTo(body));
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        patchOutputPower(1.5);
+
+        buildRequestSpecification()
+                .get(itemPath)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"1\"")
+                .body("outputPower", equalTo(1.5f));
+    }
+
+    @Test
+    void testCollectionNotModified() {
+        String eTag = buildRequestSpecification()
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().header(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        statistics.clear();
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header(HttpHeaders.ETAG, eTag);
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .queryParam("name", Fixtures.ProductionInstallation.NAME)
+                .get(URI_BASE_PATH + "/search/findAllByName")
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Contact contact = contactRepository.findById(installation.getContact().getId()).orElseThrow();
+        contact.setCity("Nijmegen");
+        contactRepository.save(contact);
+
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, not(equalTo(eTag)));
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
+    private void patchOutputPower(double outputPower) {
+        buildRequestSpecification()
+                .body(Map.of("outputPower", outputPower))
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+class ContactAssignmentTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations/contact-assignments";
+
+    @Test
+    void testAssignContactsToInstallations() {
+        clearRepositories();
+        Contact first = saveContact("First");
+        Contact second = saveContact("Second");
+        ProductionInstallation one = saveInstallation("One", null);
+        ProductionInstallation two = saveInstallation("Two", second);
+        ProductionInstallation three = saveInstallation("Three", null);
+
+        // Cached before the assignment, so that its eviction is checked too
+        buildRequestSpecification()
+                .get("/production-installations/" + two.getId() + "/contact")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo("Second"));
+
+        Map<String, Object> body = Map.of("assignments", List.of(
+                Map.of("installation", one.getId(), "contact", first.getId()),
+                Map.of("installation", two.getId(), "contact", first.getId()),
+                Map.of("installation", three.getId(), "contact", second.getId())));
+        assign(body).statusCode(HttpStatus.OK.value()).body("assigned", equalTo(3));
+
+        assertThat(productionInstallationRepository.findAll())
+                .extracting(ProductionInstallation::getName, installation -> installation.getContact().getId(),
+                        ProductionInstallation::getVersion)
+                .containsExactlyInAnyOrder(
+                        tuple("One", first.getId(), 1L),
+                        tuple("Two", first.getId(), 1L),
+                        tuple("Three", second.getId(), 1L));
+        buildRequestSpecification()
+                .get("/production-installations/" + two.getId() + "/contact")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo("First"));
+
+        // Installations already assigned to their contact are left alone
+        assign(body).statusCode(HttpStatus.OK.value()).body("assigned", equalTo(0));
+        assertThat(productionInstallationRepository.findAll()).extracting(ProductionInstallation::getVersion)
+                .containsOnly(1L);
+    }
+
+    @Test
+    void testReassignInstallationsOfContact() {
+        clearRepositories();
+        Contact first = saveContact("First");
+        Contact second = saveContact("Second");
+        saveInstallation("One", first);
+        saveInstallation("Two", first);
+        saveInstallation("Three", null);
+
+        assign(Map.of("fromContact", first.getId(), "toContact", second.getId()))
+                .statusCode(HttpStatus.OK.value())
+                .body("assigned", equalTo(2));
+
+        assertThat(productionInstallationRepository.findAll())
+                .extracting(ProductionInstallation::getName,
+                        installation -> installation.getContact() != null ? installation.getContact().getId() : null)
+                .containsExactlyInAnyOrder(
+                        tuple("One", second.getId()),
+                        tuple("Two", second.getId()),
+                        tuple("Three", null));
+    }
+
+    @Test
+    void testInvalidAssignmentIsRejectedAsAWhole() {
+        clearRepositories();
+        Contact contact = saveContact("First");
+        ProductionInstallation installation = saveInstallation("One", null);
+        long unknownId = installation.getId() + contact.getId() + 1000;
+
+        assign(Map.of("assignments", List.of(
+                Map.of("installation", installation.getId(), "contact", contact.getId()),
+                Map.of("installation", unknownId, "contact", unknownId))))
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("problems", contains(
+                        "Installation " + unknownId + ": not found.",
+                        "Contact " + unknownId + ": not found."));
+
+        assign(Map.of("assignments", List.of(
+                Map.of("installation", installation.getId(), "contact", contact.getId()),
+                Map.of("installation", installation.getId(), "contact", unknownId))))
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("problems", contains("Assignment 2: installation " + installation.getId()
+                        + " is already assigned to contact " + contact.getId() + "."));
+
+        assign(Map.of("fromContact", contact.getId()))
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+
+        assertThat(productionInstallationRepository.findById(installation.getId()).orElseThrow().getContact()).isNull();
+    }
+
+    private ValidatableResponse assign(Map<String, Object> body) {
+        return buildRequestSpecification()
+                .body(body)
+                .contentType(ContentType.JSON)
+                .post(URI_BASE_PATH)
+                .prettyPeek()
+                .then();
+    }
+
+    private Contact saveContact(String name) {
+        return contactRepository.save(Contact.builder()
+                .name(name)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+    }
+
+    private ProductionInstallation saveInstallation(String name, Contact contact) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(name)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(contact)
+                .build());
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.ContactSearchIndex;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class ContactSearchTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/contacts/lookup";
+
+    private static final String JSON_BASE_PATH = "_embedded.contacts";
+
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+
+    @BeforeEach
+    void waitForIndex() {
+        await().atMost(Duration.ofSeconds(10)).until(contactSearchIndex::isReady);
+    }
+
+    @Test
+    void testLookupIsRanked() {
+        clearRepositories();
+        Contact jan = save("Jan de Vries", "Arnhem", "6811 AB");
+        Contact jannie = save("Jannie Bakker", "Amsterdam", "1012 AB");
+        Contact piet = save("Piet Jansen", "Arnhem", "6812 CD");
+        Contact zoe = save("Zoë Müller", "Nijmegen", "6511 XZ");
+
+        lookup("arnhem").body(JSON_BASE_PATH + ".name", contains(jan.getName(), piet.getName()));
+        // Exact matches before prefix matches, then by ID
+        lookup("jan").body(JSON_BASE_PATH + ".name", contains(jan.getName(), jannie.getName(), piet.getName()));
+        lookup("Jan ARNHEM").body(JSON_BASE_PATH + ".name", contains(jan.getName(), piet.getName()));
+        lookup("681").body(JSON_BASE_PATH + ".name", contains(jan.getName(), piet.getName()));
+        lookup("6811ab").body(JSON_BASE_PATH + ".name", contains(jan.getName()));
+        lookup("zoe muller").body(JSON_BASE_PATH + ".id", contains(zoe.getId().intValue()));
+        // Fuzzy match of a misspelling
+        lookup("nijmgen").body(JSON_BASE_PATH + ".id", contains(zoe.getId().intValue()));
+        lookup("rotterdam").body(JSON_BASE_PATH, equalTo(List.of()));
+    }
+
+    @Test
+    void testLookupIsPaginatedAndLinksInstallations() {
+        clearRepositories();
+        Contact first = save("First", "Arnhem", "6811 AB");
+        save("Second", "Arnhem", "6811 AB");
+        ProductionInstallation installation = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(first)
+                .build());
+
+        buildRequestSpecification()
+                .queryParam("q", "arnhem")
+                .queryParam("size", 1)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH + ".name", contains("First"))
+                .body(JSON_BASE_PATH + "[0]._links.installations.href",
+                        endsWith("/production-installations/" + installation.getId()))
+                .body("page.totalElements", equalTo(2))
+                .body("_links.next.href", notNullValue());
+
+        buildRequestSpecification()
+                .queryParam("q", "arnhem")
+                .queryParam("size", 1)
+                .queryParam("page", 1)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH + ".name", contains("Second"))
+                .body(JSON_BASE_PATH + "[0]._links.installations", nullValue());
+    }
+
+    @Test
+    void testIndexFollowsRepositoryChanges() {
+        clearRepositories();
+        Contact contact = save("Jan de Vries", "Arnhem", "6811 AB");
+
+        contact.setCity("Utrecht");
+        contact = contactRepository.save(contact);
+        lookup("arnhem").body(JSON_BASE_PATH, equalTo(List.of()));
+        lookup("utrecht").body(JSON_BASE_PATH + ".name", contains(contact.getName()));
+
+        contactRepository.delete(contact);
+        lookup("utrecht").body(JSON_BASE_PATH, equalTo(List.of()));
+    }
+
+    private Contact save(String name, String city, String zipCode) {
+        return contactRepository.save(Contact.builder()
+                .name(name)
+                .city(city)
+                .zipCode(zipCode)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+    }
+
+    private ValidatableResponse lookup(String query) {
+        return buildRequestSpecification()
+                .queryParam("q", query)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+}
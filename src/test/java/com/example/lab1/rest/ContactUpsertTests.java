@@ -0,0 +1,112 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+@TestPropertySource(properties = {
+        "lab1.contact-upsert.lock-stripes=4",
+        "spring.datasource.url=jdbc:h2:mem:contactupsertdb"
+})
+class ContactUpsertTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/contacts/upsert";
+
+    @Test
+    void testUpsertReturnsExistingContacts() {
+        // Inserted by data.sql, without going through JPA
+        Contact bruceWayne = contactRepository.findAll().stream()
+                .filter(contact -> contact.getName().equals("Bruce Wayne"))
+                .findFirst().orElseThrow();
+        long count = contactRepository.count();
+
+        List<Map<String, Object>> contacts = List.of(
+                contact(" bruce  WAYNE", "12345", "42", "Gotham city"),
+                contact("Jan de Vries", "6811 AB", "12 a", "Arnhem"),
+                contact("jan de vries", "6811ab", "12A", "ARNHEM"),
+                contact("Jan de Vries", "6811 AB", "12b", "Arnhem"));
+        JsonPath created = upsert(contacts);
+        long jan = created.getLong("contacts[1].id");
+        assertThat(created.getList("contacts.id", Long.class))
+                .containsExactly(bruceWayne.getId(), jan, jan, created.getLong("contacts[3].id"));
+        assertThat(created.getList("contacts.created", Boolean.class)).containsExactly(false, true, false, true);
+        assertThat(contactRepository.count()).isEqualTo(count + 2);
+        assertThat(contactRepository.findById(jan)).get().extracting(Contact::getZipCode).isEqualTo("6811 AB");
+
+        JsonPath existing = upsert(contacts);
+        assertThat(existing.getList("contacts.id", Long.class)).isEqualTo(created.getList("contacts.id", Long.class));
+        assertThat(existing.getList("contacts.created", Boolean.class)).containsOnly(false);
+        assertThat(contactRepository.count()).isEqualTo(count + 2);
+    }
+
+    @Test
+    void testConcurrentUpsertsCreateEachContactOnce() throws Exception {
+        String name = UUID.randomUUID().toString();
+        List<Map<String, Object>> contacts = IntStream.range(0, 20)
+                .mapToObj(i -> contact(name, "6811 AB", String.valueOf(i), "Arnhem"))
+                .toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<List<Long>>> upserts = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            upsert(contacts).getList("contacts.id", Long.class), executor))
+                    .toList();
+            List<Long> ids = upserts.get(0).get();
+            for (CompletableFuture<List<Long>> upsert : upserts) {
+                assertThat(upsert.get()).isEqualTo(ids);
+            }
+            assertThat(ids).doesNotHaveDuplicates();
+            assertThat(contactRepository.findAllById(ids)).extracting(Contact::getName).hasSize(20).containsOnly(name);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testInvalidContactsAreRejected() {
+        long count = contactRepository.count();
+
+        buildRequestSpecification()
+                .body(List.of(contact("Valid", "6811 AB", "1", "Arnhem"), contact("", "6811 AB", "1", "Arnhem")))
+                .contentType(ContentType.JSON)
+                .post(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("problems", hasSize(1))
+                .body("problems", contains("Contact 2: Property \"name\": must not be blank."));
+
+        assertThat(contactRepository.count()).isEqualTo(count);
+    }
+
+    private JsonPath upsert(List<Map<String, Object>> contacts) {
+        return buildRequestSpecification()
+                .body(contacts)
+                .contentType(ContentType.JSON)
+                .post(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().jsonPath();
+    }
+
+    private static Map<String, Object> contact(String name, String zipCode, String houseNumber, String city) {
+        return Map.of("name", name, "zipCode", zipCode, "houseNumber", houseNumber, "city", city);
+    }
+
+}
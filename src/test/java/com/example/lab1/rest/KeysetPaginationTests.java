@@ -0,0 +1,155 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.example.lab1.LambdaMatcher.matches;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPaginationTests extends AbstractRepositoryTests {
+
+    private static final String INSTALLATIONS_JSON_BASE_PATH = "_embedded.productionInstallations";
+
+    private static final String CONTACTS_JSON_BASE_PATH = "_embedded.contacts";
+
+    @Test
+    void testPaginateInstallationsById() {
+        List<Long> ids = createInstallations(5.0, 4.0, 3.0, 2.0, 1.0);
+
+        JsonPath firstPage = getPage(buildRequestSpecification()
+                .queryParam("cursor", "")
+                .queryParam("size", 2)
+                .get("/production-installations")
+                .prettyPeek()
+                .then());
+        assertThat(firstPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(0, 2));
+        assertThat(firstPage.getString("_links.prev")).isNull();
+        assertThat(firstPage.getString("page")).isNull();
+
+        JsonPath secondPage = getPage(firstPage.getString("_links.next.href"));
+        assertThat(secondPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(2, 4));
+
+        JsonPath lastPage = getPage(secondPage.getString("_links.next.href"));
+        assertThat(lastPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(4, 5));
+        assertThat(lastPage.getString("_links.next")).isNull();
+
+        JsonPath previousPage = getPage(lastPage.getString("_links.prev.href"));
+        assertThat(previousPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(2, 4));
+
+        JsonPath firstPageAgain = getPage(previousPage.getString("_links.prev.href"));
+        assertThat(firstPageAgain.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(0, 2));
+        assertThat(firstPageAgain.getString("_links.prev")).isNull();
+    }
+
+    @Test
+    void testPaginateInstallationsByOutputPower() {
+        List<Long> ids = createInstallations(3.0, 1.0, 2.0, 1.0);
+
+        JsonPath firstPage = getPage(buildRequestSpecification()
+                .queryParam("cursor", "")
+                .queryParam("size", 3)
+                .queryParam("sort", "outputPower")
+                .get("/production-installations")
+                .prettyPeek()
+                .then());
+        assertThat(firstPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class))
+                .containsExactly(ids.get(1), ids.get(3), ids.get(2));
+
+        JsonPath lastPage = getPage(firstPage.getString("_links.next.href"));
+        assertThat(lastPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).containsExactly(ids.get(0));
+        assertThat(lastPage.getString("_links.next")).isNull();
+    }
+
+    @Test
+    void testPaginateInstallationsByOutputPowerWithoutOutputPower() {
+        List<Long> ids = createInstallations(null, 2.0, null, 1.0, null);
+
+        JsonPath firstPage = getPage(buildRequestSpecification()
+                .queryParam("cursor", "")
+                .queryParam("size", 1)
+                .queryParam("sort", "outputPower")
+                .get("/production-installations")
+                .prettyPeek()
+                .then());
+        assertThat(firstPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).containsExactly(ids.get(3));
+
+        JsonPath lastPage = getPage(firstPage.getString("_links.next.href"));
+        assertThat(lastPage.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).containsExactly(ids.get(1));
+        assertThat(lastPage.getString("_links.next")).isNull();
+
+        JsonPath firstPageAgain = getPage(lastPage.getString("_links.prev.href"));
+        assertThat(firstPageAgain.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).containsExactly(ids.get(3));
+        assertThat(firstPageAgain.getString("_links.prev")).isNull();
+
+        JsonPath byId = getPage(buildRequestSpecification()
+                .queryParam("cursor", "")
+                .queryParam("size", 5)
+                .get("/production-installations")
+                .prettyPeek()
+                .then());
+        assertThat(byId.getList(INSTALLATIONS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids);
+    }
+
+    @Test
+    void testPaginateContacts() {
+        clearRepositories();
+        List<Long> ids = IntStream.range(0, 3).mapToObj(index -> contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME + " " + index)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build()).getId()).toList();
+
+        JsonPath firstPage = getPage(buildRequestSpecification()
+                .queryParam("cursor", "")
+                .queryParam("size", 2)
+                .get(ContactRepositoryTests.URI_BASE_PATH)
+                .prettyPeek()
+                .then());
+        assertThat(firstPage.getList(CONTACTS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(0, 2));
+
+        JsonPath lastPage = getPage(firstPage.getString("_links.next.href"));
+        assertThat(lastPage.getList(CONTACTS_JSON_BASE_PATH + ".id", Long.class)).isEqualTo(ids.subList(2, 3));
+        assertThat(lastPage.getString("_links.next")).isNull();
+    }
+
+    @Test
+    void testInvalidCursor() {
+        buildRequestSpecification()
+                .queryParam("cursor", "not-a-cursor")
+                .get("/production-installations")
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    private List<Long> createInstallations(Double... outputPowers) {
+        clearRepositories();
+        return IntStream.range(0, outputPowers.length).mapToObj(index -> productionInstallationRepository.save(
+                ProductionInstallation.builder()
+                        .name(Fixtures.ProductionInstallation.NAME + " " + index)
+                        .outputPower(outputPowers[index])
+                        .build()).getId()).toList();
+    }
+
+    private JsonPath getPage(String uri) {
+        return getPage(buildRequestSpecification().get(uri).prettyPeek().then());
+    }
+
+    private JsonPath getPage(ValidatableResponse response) {
+        return response
+                .statusCode(HttpStatus.OK.value())
+                .contentType(matches(contentType -> MediaType.parseMediaType(contentType).isCompatibleWith(MediaTypes.HAL_JSON)))
+                .extract().jsonPath();
+    }
+
+}
@@ -0,0 +1,366 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-loop load test: requests are sent at a constant rate whatever the response times, and latencies are measured
+ * from the time each request was scheduled to be sent, so that a stalled server is not hidden by a client waiting for
+ * it (coordinated omission). Latencies measured from the actual send time are reported alongside for comparison.
+ * <p>
+ * The read throughput of the Spring Data REST endpoints and of the reactive ones is compared with a closed loop
+ * instead: {@code load.clients} concurrent clients each send a request as soon as the previous one completes. CPU
+ * time is that of the whole process, clients included, so the requests per CPU second only compare the two stacks.
+ * <p>
+ * Excluded from the default build; run with {@code mvn -P load-test test}, optionally setting {@code load.rate}
+ * (requests per second), {@code load.warmup} and {@code load.duration} (seconds), {@code load.max-p99} (ms) and
+ * {@code load.clients}.
+ */
+@Tag("load")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:loaddb")
+class LoadTests extends AbstractRepositoryTests {
+
+    private static final int RATE = Integer.getInteger("load.rate", 100);
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 30));
+
+    private static final Long MAX_P99_MILLIS = Long.getLong("load.max-p99");
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+
+    private static final int CONTACTS = 200;
+
+    private static final int INSTALLATIONS = 5_000;
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Path REPORT_DIRECTORY = Path.of("target", "load-test");
+
+    @Value("${spring.data.rest.base-path}")
+    private String restApiBasePath;
+
+    @LocalServerPort
+    private int serverPort;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private List<Contact> contacts;
+
+    private List<Long> installationIds;
+
+    @BeforeEach
+    void createInstallations() {
+        clearRepositories();
+
+        contacts = contactRepository.saveAll(IntStream.range(0, CONTACTS)
+                        .mapToObj(index -> Contact.builder()
+                                .name(Fixtures.Contact.NAME)
+                                .zipCode(String.format("%04dAA", index))
+                                .city(Fixtures.Contact.CITY)
+                                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                                .build())
+                        .toList());
+        installationIds = productionInstallationRepository.saveAll(IntStream.range(0, INSTALLATIONS)
+                        .mapToObj(index -> ProductionInstallation.builder()
+                                .name(installationName(index))
+                                .outputPower(randomOutputPower())
+                                .contact(contacts.get(index % CONTACTS))
+                                .build())
+                        .toList())
+                .stream().map(ProductionInstallation::getId).toList();
+    }
+
+    @Test
+    void testMixedTraffic() throws Exception {
+        List<Operation> operations = List.of(
+                new Operation("getInstallation", 30, random ->
+                        get("/production-installations/" + randomElement(installationIds))),
+                new Operation("listInstallations", 15, random ->
+                        get("/production-installations?size=20&page=" + random.nextInt(INSTALLATIONS / 20))),
+                new Operation("getContact", 15, random ->
+                        get("/contacts/" + randomElement(contacts).getId())),
+                new Operation("searchByOutputPower", 15, random -> {
+                    double lowerLimit = randomOutputPower();
+                    return get(String.format(Locale.ROOT,
+                            "/production-installations/search/findAllByOutputPowerBetween?powerGreaterThan=%s&powerLowerThan=%s",
+                            lowerLimit, lowerLimit + 5));
+                }),
+                new Operation("searchByName", 10, random ->
+                        get("/production-installations/search/findAllByName?name="
+                                + installationName(random.nextInt(INSTALLATIONS)).replace(' ', '+'))),
+                new Operation("createInstallation", 5, random ->
+                        send("POST", "/production-installations", String.format(Locale.ROOT,
+                                "{\"name\": \"%s\", \"outputPower\": %s, \"contact\": \"%s\"}",
+                                Fixtures.ProductionInstallation.NAME, randomOutputPower(),
+                                uri("/contacts/" + randomElement(contacts).getId())))),
+                new Operation("updateInstallation", 10, random ->
+                        send("PATCH", "/production-installations/" + randomElement(installationIds),
+                                String.format(Locale.ROOT, "{\"outputPower\": %s}", randomOutputPower()))));
+
+        run(operations, WARMUP);
+        operations.forEach(Operation::reset);
+        run(operations, DURATION);
+
+        report(operations);
+        for (Operation operation : operations) {
+            assertThat(operation.errors.get()).as("errors of %s", operation.name).isZero();
+            if (MAX_P99_MILLIS != null) {
+                assertThat(operation.latencies.getValueAtPercentile(99))
+                        .as("p99 latency of %s", operation.name)
+                        .isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(MAX_P99_MILLIS));
+            }
+        }
+    }
+
+    @Test
+    void testReadThroughput() throws Exception {
+        Map<String, Function<SplittableRandom, HttpRequest>> stacks = new LinkedHashMap<>();
+        stacks.put("mvc", random -> read("", "application/hal+json", random));
+        stacks.put("reactive", random -> read("/reactive", "application/json", random));
+
+        Map<String, Throughput> throughputs = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<SplittableRandom, HttpRequest>> stack : stacks.entrySet()) {
+            saturate(stack.getValue(), WARMUP);
+            throughputs.put(stack.getKey(), saturate(stack.getValue(), DURATION));
+        }
+
+        System.out.printf("%nRead throughput with %d clients over %s, %d available processors%n",
+                CLIENTS, DURATION, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %9s %7s %12s %16s%n", "stack", "count", "errors", "requests/s", "requests/CPU s");
+        throughputs.forEach((name, throughput) -> System.out.printf(Locale.ROOT, "%-10s %9d %7d %12.1f %16.1f%n",
+                name, throughput.requests, throughput.errors, throughput.requests / throughput.seconds,
+                throughput.requests / throughput.cpuSeconds));
+        throughputs.forEach((name, throughput) -> assertThat(throughput.errors).as("errors of %s", name).isZero());
+    }
+
+    private Throughput saturate(Function<SplittableRandom, HttpRequest> requestFactory, Duration duration)
+            throws Exception {
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long cpuStart = processCpuTime();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        CompletableFuture.allOf(IntStream.range(0, CLIENTS)
+                        .mapToObj(client -> loop(requestFactory, random.split(), deadline, requests, errors))
+                        .toArray(CompletableFuture[]::new))
+                .get(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        return new Throughput(requests.get(), errors.get(), (System.nanoTime() - start) / 1e9,
+                (processCpuTime() - cpuStart) / 1e9);
+    }
+
+    private CompletableFuture<Void> loop(Function<SplittableRandom, HttpRequest> requestFactory,
+                                         SplittableRandom random, long deadline, AtomicLong requests,
+                                         AtomicLong errors) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpClient.sendAsync(requestFactory.apply(random), HttpResponse.BodyHandlers.discarding())
+                .thenCompose(response -> {
+                    requests.incrementAndGet();
+                    if (response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                    }
+                    return loop(requestFactory, random, deadline, requests, errors);
+                });
+    }
+
+    /**
+     * @return a read of the mix of {@link #testMixedTraffic()}, below the given path of the API
+     */
+    private HttpRequest read(String prefix, String mediaType, SplittableRandom random) {
+        int weight = random.nextInt(75);
+        String path;
+        if (weight < 30) {
+            path = "/production-installations/" + installationIds.get(random.nextInt(installationIds.size()));
+        } else if (weight < 45) {
+            path = "/production-installations?size=20&page=" + random.nextInt(INSTALLATIONS / 20);
+        } else if (weight < 60) {
+            path = "/contacts/" + contacts.get(random.nextInt(contacts.size())).getId();
+        } else {
+            double lowerLimit = Math.round(random.nextDouble(0.0001, 1_000) * 10_000) / 10_000.0;
+            path = String.format(Locale.ROOT,
+                    "/production-installations/search/findAllByOutputPowerBetween?powerGreaterThan=%s&powerLowerThan=%s",
+                    lowerLimit, lowerLimit + 5);
+        }
+        return HttpRequest.newBuilder(uri(prefix + path)).header("Accept", mediaType).GET().build();
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private void run(List<Operation> operations, Duration duration) throws Exception {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long requests = duration.toNanos() / interval;
+        List<CompletableFuture<?>> responses = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (long index = 0; index < requests; index++) {
+            long intendedStart = start + index * interval;
+            for (long delay = intendedStart - System.nanoTime(); delay > 0; delay = intendedStart - System.nanoTime()) {
+                LockSupport.parkNanos(delay);
+            }
+
+            Operation operation = pick(operations, random.nextInt(totalWeight));
+            HttpRequest request = operation.requestFactory.apply(random);
+            long actualStart = System.nanoTime();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> operation.record(intendedStart, actualStart,
+                            failure == null && response.statusCode() < 400)));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null)
+                .get(1, TimeUnit.MINUTES);
+    }
+
+    private void report(List<Operation> operations) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        System.out.printf("%nLatencies (ms) at %d requests/s over %s%n", RATE, DURATION);
+        System.out.printf("%-20s %8s %7s %9s %9s %9s %9s %18s%n",
+                "operation", "count", "errors", "p50", "p99", "p99.9", "max", "p99 (uncorrected)");
+        for (Operation operation : operations) {
+            Histogram latencies = operation.latencies;
+            System.out.printf(Locale.ROOT, "%-20s %8d %7d %9.2f %9.2f %9.2f %9.2f %18.2f%n",
+                    operation.name, latencies.getTotalCount(), operation.errors.get(),
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()),
+                    millis(operation.uncorrectedLatencies.getValueAtPercentile(99)));
+
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(REPORT_DIRECTORY.resolve(operation.name + ".hgrm")))) {
+                latencies.outputPercentileDistribution(out, (double) TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Accept", "application/hal+json").GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(String.format("http://localhost:%d%s%s", serverPort, restApiBasePath, path));
+    }
+
+    private <T> T randomElement(List<T> elements) {
+        return elements.get(random.nextInt(elements.size()));
+    }
+
+    private double randomOutputPower() {
+        return Math.round(random.nextDouble(0.0001, 1_000) * 10_000) / 10_000.0;
+    }
+
+    private static String installationName(int index) {
+        return "Installation " + (index % 100);
+    }
+
+    private static Operation pick(List<Operation> operations, int weight) {
+        for (Operation operation : operations) {
+            weight -= operation.weight;
+            if (weight < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Throughput(long requests, long errors, double seconds, double cpuSeconds) {
+    }
+
+    private static final class Operation {
+
+        private final String name;
+
+        private final int weight;
+
+        private final Function<SplittableRandom, HttpRequest> requestFactory;
+
+        /**
+         * Latencies measured from the intended start of each request.
+         */
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+
+        /**
+         * Latencies measured from the actual start of each request, i.e. subject to coordinated omission.
+         */
+        private final Histogram uncorrectedLatencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+
+        private final AtomicLong errors = new AtomicLong();
+
+        Operation(String name, int weight, Function<SplittableRandom, HttpRequest> requestFactory) {
+            this.name = name;
+            this.weight = weight;
+            this.requestFactory = requestFactory;
+        }
+
+        int weight() {
+            return weight;
+        }
+
+        void record(long intendedStart, long actualStart, boolean successful) {
+            long end = System.nanoTime();
+            latencies.recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_LATENCY));
+            uncorrectedLatencies.recordValue(Math.min(end - actualStart, HIGHEST_TRACKABLE_LATENCY));
+            if (!successful) {
+                errors.incrementAndGet();
+            }
+        }
+
+        void reset() {
+            latencies.reset();
+            uncorrectedLatencies.reset();
+            errors.set(0);
+        }
+
+    }
+
+}
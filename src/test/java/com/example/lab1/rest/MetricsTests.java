@@ -0,0 +1,76 @@
+package com.example.lab1.rest;
+
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "lab1.slow-query-log.threshold=0ms",
+        "lab1.slow-query-log.plan-interval=0s",
+        "spring.datasource.url=jdbc:h2:mem:metricsdb"
+})
+@AutoConfigureMetrics
+@ExtendWith(OutputCaptureExtension.class)
+class MetricsTests extends AbstractRepositoryTests {
+
+    @LocalServerPort
+    private int serverPort;
+
+    private long contactId;
+
+    @BeforeEach
+    void createContact() {
+        clearRepositories();
+        contactId = createValidContact()
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().jsonPath().getLong("id");
+    }
+
+    @Test
+    void testPrometheusEndpoint() {
+        buildRequestSpecification()
+                .get(ContactRepositoryTests.URI_BASE_PATH + "/" + contactId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        String metrics = RestAssured.given()
+                .port(serverPort)
+                .get("/actuator/prometheus")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract().asString();
+
+        assertThat(metrics)
+                .contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\","
+                        + "status=\"200\",uri=\"/api/contacts/{id}\"")
+                .contains("spring_data_repository_invocations_seconds_count{exception=\"None\",method=\"findById\","
+                        + "repository=\"ContactRepository\",state=\"SUCCESS\",}")
+                .contains("http_server_requests_statements_count{method=\"POST\",uri=\"/api/contacts\",}")
+                .contains("hibernate_statements_total{")
+                .contains("hibernate_entities_loads_total{")
+                .containsPattern("jdbc_queries_slow_total [1-9]");
+    }
+
+    @Test
+    void testSlowQueryLog(CapturedOutput output) {
+        buildRequestSpecification()
+                .get(ContactRepositoryTests.URI_BASE_PATH + "/" + contactId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        assertThat(output.getOut())
+                .containsPattern("Slow query \\(\\d+ ms\\): select .+ from contact .+ \\[" + contactId + "]")
+                .contains("Query plan: SELECT");
+    }
+
+}
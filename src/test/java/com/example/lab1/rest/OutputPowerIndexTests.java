@@ -0,0 +1,117 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.index.OutputPowerIndex;
+import com.example.lab1.model.ProductionInstallation;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+
+class OutputPowerIndexTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    private static final String JSON_BASE_PATH = "_embedded.productionInstallations";
+
+    @Autowired
+    private OutputPowerIndex outputPowerIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void waitForIndex() {
+        await().atMost(Duration.ofSeconds(10)).until(outputPowerIndex::isReady);
+    }
+
+    @Test
+    void testIndexFollowsRepositoryChanges() {
+        clearRepositories();
+        assertThat(outputPowerIndex.size()).isZero();
+
+        ProductionInstallation low = save("Low", 1.0);
+        ProductionInstallation middle = save("Middle", 5.0);
+        ProductionInstallation high = save("High", 10.0);
+
+        assertThat(outputPowerIndex.findIdsBetween(1.0, 5.0)).containsExactly(low.getId(), middle.getId());
+        assertThat(outputPowerIndex.findIdsBetween(0.0, 100.0)).containsExactly(low.getId(), middle.getId(), high.getId());
+        assertThat(outputPowerIndex.findIdsBetween(5.5, 9.5)).isEmpty();
+
+        middle.setOutputPower(20.0);
+        productionInstallationRepository.save(middle);
+        assertThat(outputPowerIndex.findIdsBetween(0.0, 100.0)).containsExactly(low.getId(), high.getId(), middle.getId());
+
+        productionInstallationRepository.delete(low);
+        assertThat(outputPowerIndex.findIdsBetween(0.0, 100.0)).containsExactly(high.getId(), middle.getId());
+    }
+
+    @Test
+    void testIndexFollowsTransactionChanges() {
+        clearRepositories();
+        ProductionInstallation kept = save("Kept", 2.0);
+        ProductionInstallation deleted = save("Deleted", 3.0);
+
+        ProductionInstallation created = transactionTemplate.execute(status -> {
+            ProductionInstallation installation = save("Created", 1.0);
+            installation.setOutputPower(4.0);
+            productionInstallationRepository.saveAndFlush(installation);
+            productionInstallationRepository.delete(deleted);
+            ProductionInstallation rolledBack = save("Rolled back", 5.0);
+            productionInstallationRepository.flush();
+            productionInstallationRepository.delete(rolledBack);
+            return installation;
+        });
+        assertThat(outputPowerIndex.findIdsBetween(0.0, 100.0)).containsExactly(kept.getId(), created.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            save("Rolled back", 5.0);
+            productionInstallationRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertThat(outputPowerIndex.findIdsBetween(0.0, 100.0)).containsExactly(kept.getId(), created.getId());
+    }
+
+    @Test
+    void testSearchFollowsRestChanges() {
+        clearRepositories();
+        ProductionInstallation installation = save(Fixtures.ProductionInstallation.NAME, 2.0);
+
+        buildRequestSpecification()
+                .body(Map.of("outputPower", 3.0))
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        buildRequestSpecification()
+                .queryParam("powerGreaterThan", 2.5)
+                .queryParam("powerLowerThan", 3.5)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH + ".id", contains(installation.getId().intValue()))
+                .body(JSON_BASE_PATH + ".outputPower", contains(3.0f));
+
+        assertThat(outputPowerIndex.findIdsBetween(1.5, 2.5)).isEmpty();
+        assertThat(outputPowerIndex.findIdsBetween(2.5, 3.5)).containsExactly(installation.getId());
+    }
+
+    private ProductionInstallation save(String name, double outputPower) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(name)
+                .outputPower(outputPower)
+                .build());
+    }
+
+}
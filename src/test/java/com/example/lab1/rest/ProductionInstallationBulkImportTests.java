@@ -0,0 +1,80 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.example.lab1.LambdaMatcher.matches;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+
+class ProductionInstallationBulkImportTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations/bulk";
+
+    @Test
+    void testBulkImportValidInstallations() {
+        clearRepositories();
+
+        String body = String.join("\n",
+                "{\"name\": \"Installation 1\", \"outputPower\": 1.5}",
+                "",
+                "{\"name\": \"Installation 2\", \"outputPower\": 2.5, \"contact\": {\"name\": \"" + Fixtures.Contact.NAME
+                        + "\", \"zipCode\": \"" + Fixtures.Contact.ZIP_CODE + "\", \"city\": \"" + Fixtures.Contact.CITY
+                        + "\", \"houseNumber\": \"" + Fixtures.Contact.HOUSE_NUMBER + "\"}}");
+
+        buildRequestSpecification()
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .post(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("imported", equalTo(2));
+
+        List<ProductionInstallation> installations = productionInstallationRepository.findAll();
+        assertThat(installations).extracting(ProductionInstallation::getName)
+                .containsExactlyInAnyOrder("Installation 1", "Installation 2");
+        assertThat(contactRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testBulkImportReportsRejectedLines() {
+        clearRepositories();
+        HttpStatus expectedStatus = HttpStatus.BAD_REQUEST;
+
+        String body = String.join("\n",
+                "{\"name\": \"Installation 1\", \"outputPower\": 1.5}",
+                "{\"name\": \"Installation 2\", \"outputPower\": 0.0}",
+                "{\"name\": \"Installation 3\", \"outputPower\": 2.5, \"contact\": {\"name\": \"\", \"zipCode\": \""
+                        + Fixtures.Contact.ZIP_CODE + "\", \"city\": \"" + Fixtures.Contact.CITY
+                        + "\", \"houseNumber\": \"" + Fixtures.Contact.HOUSE_NUMBER + "\"}}",
+                "{not json");
+
+        buildRequestSpecification()
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .post(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(expectedStatus.value())
+                .contentType(matches(contentType -> MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)))
+                .body("status", equalTo(expectedStatus.value()))
+                .body("error", equalTo(expectedStatus.getReasonPhrase()))
+                .body("imported", equalTo(1))
+                .body("problems", hasSize(3))
+                .body("problems[0]", equalTo("Line 2: Property \"outputPower\": must be greater than or equal to 0.0001."))
+                .body("problems[1]", equalTo("Line 3: Property \"contact.name\": must not be blank."))
+                .body("problems[2]", startsWith("Line 4: "));
+
+        assertThat(productionInstallationRepository.count()).isEqualTo(1);
+        assertThat(contactRepository.count()).isZero();
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static com.example.lab1.LambdaMatcher.matches;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductionInstallationExportTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations/export";
+
+    private Long installationId;
+
+    private Long contactId;
+
+    @BeforeEach
+    void createInstallations() {
+        clearRepositories();
+
+        Contact contact = contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+        contactId = contact.getId();
+
+        installationId = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(contact)
+                .build()).getId();
+        productionInstallationRepository.save(ProductionInstallation.builder()
+                .name("Installation, without contact")
+                .outputPower(1.0)
+                .build());
+    }
+
+    @Test
+    void testExportNdjson() {
+        String body = buildRequestSpecification()
+                .accept(MediaType.APPLICATION_NDJSON_VALUE)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(matches(contentType -> MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)))
+                .extract().asString();
+
+        assertThat(body.lines()).containsExactly(
+                String.format("{\"id\":%d,\"name\":\"%s\",\"outputPower\":%s,\"contactId\":%d,\"contactName\":\"%s\","
+                                + "\"contactZipCode\":\"%s\",\"contactCity\":\"%s\",\"contactHouseNumber\":\"%s\"}",
+                        installationId, Fixtures.ProductionInstallation.NAME, Fixtures.ProductionInstallation.OUTPUT_POWER,
+                        contactId, Fixtures.Contact.NAME, Fixtures.Contact.ZIP_CODE, Fixtures.Contact.CITY,
+                        Fixtures.Contact.HOUSE_NUMBER),
+                String.format("{\"id\":%d,\"name\":\"Installation, without contact\",\"outputPower\":1.0,\"contactId\":null,"
+                                + "\"contactName\":null,\"contactZipCode\":null,\"contactCity\":null,\"contactHouseNumber\":null}",
+                        installationId + 1));
+    }
+
+    @Test
+    void testExportCsv() {
+        String body = buildRequestSpecification()
+                .accept(ProductionInstallationExportController.TEXT_CSV_VALUE)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(matches(contentType -> contentType.startsWith(ProductionInstallationExportController.TEXT_CSV_VALUE)))
+                .extract().asString();
+
+        assertThat(body.lines()).containsExactly(
+                "id,name,outputPower,contactId,contactName,contactZipCode,contactCity,contactHouseNumber",
+                String.join(",", installationId.toString(), Fixtures.ProductionInstallation.NAME,
+                        Fixtures.ProductionInstallation.OUTPUT_POWER.toString(), contactId.toString(),
+                        Fixtures.Contact.NAME, Fixtures.Contact.ZIP_CODE, Fixtures.Contact.CITY,
+                        Fixtures.Contact.HOUSE_NUMBER),
+                (installationId + 1) + ",\"Installation, without contact\",1.0,,,,,");
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+class QueryCountTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    private static final String JSON_BASE_PATH = "_embedded.productionInstallations";
+
+    private static final int INSTALLATION_COUNT = 10;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createInstallationsWithContacts() {
+        clearRepositories();
+        IntStream.range(0, INSTALLATION_COUNT).forEach(index -> productionInstallationRepository.save(
+                ProductionInstallation.builder()
+                        .name(Fixtures.ProductionInstallation.NAME)
+                        .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                        .contact(contactRepository.save(Contact.builder()
+                                .name(Fixtures.Contact.NAME + " " + index)
+                                .zipCode(Fixtures.Contact.ZIP_CODE)
+                                .city(Fixtures.Contact.CITY)
+                                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                                .build()))
+                        .build()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testListInstallations() {
+        buildRequestSpecification()
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH, hasSize(INSTALLATION_COUNT))
+                .body(JSON_BASE_PATH + "[0].contact.city", equalTo(Fixtures.Contact.CITY));
+
+        // page query + count query
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testFindInstallationsByName() {
+        buildRequestSpecification()
+                .queryParam("name", Fixtures.ProductionInstallation.NAME)
+                .get(URI_BASE_PATH + "/search/findAllByName")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH, hasSize(INSTALLATION_COUNT))
+                .body(JSON_BASE_PATH + "[0].contact.city", equalTo(Fixtures.Contact.CITY));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindInstallationsByOutputPower() {
+        buildRequestSpecification()
+                .queryParam("powerGreaterThan", 0.1)
+                .queryParam("powerLowerThan", 0.9)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH, hasSize(INSTALLATION_COUNT))
+                .body(JSON_BASE_PATH + "[0].contact.city", equalTo(Fixtures.Contact.CITY));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testPaginateInstallationsWithCursor() {
+        buildRequestSpecification()
+                .queryParam("cursor", "")
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(JSON_BASE_PATH, hasSize(INSTALLATION_COUNT))
+                .body(JSON_BASE_PATH + "[0].contact.city", equalTo(Fixtures.Contact.CITY));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}
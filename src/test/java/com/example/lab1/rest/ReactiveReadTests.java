@@ -0,0 +1,132 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "lab1.reactive-reads.batch-size=3",
+        "spring.datasource.url=jdbc:h2:mem:reactivedb"
+})
+class ReactiveReadTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/reactive/production-installations";
+
+    @Test
+    void testGetById() {
+        clearRepositories();
+        Contact contact = contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+        ProductionInstallation installation = save(Fixtures.ProductionInstallation.NAME, 12.5, contact);
+
+        buildRequestSpecification()
+                .get(URI_BASE_PATH + "/" + installation.getId())
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(ContentType.JSON)
+                .body("id", equalTo(installation.getId().intValue()))
+                .body("name", equalTo(Fixtures.ProductionInstallation.NAME))
+                .body("outputPower", equalTo(12.5f))
+                .body("contactId", equalTo(contact.getId().intValue()));
+
+        buildRequestSpecification()
+                .get("/reactive/contacts/" + contact.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo(Fixtures.Contact.NAME))
+                .body("zipCode", equalTo(Fixtures.Contact.ZIP_CODE));
+
+        buildRequestSpecification()
+                .get(URI_BASE_PATH + "/" + (installation.getId() + 1000))
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testSearches() {
+        clearRepositories();
+        save("First", 10.0, null);
+        save("Second", 30.0, null);
+        save("First", 20.0, null);
+        IntStream.range(0, 5).forEach(i -> save("Other", 25.0, null));
+
+        buildRequestSpecification()
+                .queryParam("name", "First")
+                .get(URI_BASE_PATH + "/search/findAllByName")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("outputPower", contains(10.0f, 20.0f));
+
+        // More results than a batch, ordered by output power
+        buildRequestSpecification()
+                .queryParam("powerGreaterThan", 15.0)
+                .queryParam("powerLowerThan", 30.0)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", contains("First", "Other", "Other", "Other", "Other", "Other", "Second"));
+    }
+
+    @Test
+    void testPages() {
+        clearRepositories();
+        IntStream.range(0, 5).forEach(i -> save("Installation " + i, 1.0, null));
+
+        buildRequestSpecification()
+                .queryParam("size", 2)
+                .queryParam("page", 2)
+                .get(URI_BASE_PATH)
+                .prettyPeek()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("content.name", contains("Installation 4"))
+                .body("page.size", equalTo(2))
+                .body("page.number", equalTo(2))
+                .body("page.totalElements", equalTo(5))
+                .body("page.totalPages", equalTo(3));
+    }
+
+    @Test
+    void testStream() throws Exception {
+        clearRepositories();
+        IntStream.range(0, 10).forEach(i -> save("Installation " + i, i + 1, null));
+
+        String body = buildRequestSpecification()
+                .accept(MediaType.APPLICATION_NDJSON_VALUE)
+                .get(URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .extract().asString();
+
+        List<JsonNode> rows = new ObjectMapper().readerFor(JsonNode.class).<JsonNode>readValues(body).readAll();
+        assertThat(rows).extracting(row -> row.path("name").asText()).containsExactlyElementsOf(IntStream.range(0, 10).mapToObj(i -> "Installation " + i).toList());
+    }
+
+    private ProductionInstallation save(String name, double outputPower, Contact contact) {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(name)
+                .outputPower(outputPower)
+                .contact(contact)
+                .build());
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.replica.ReadReplica;
+import com.example.lab1.replica.ReadReplicas;
+import com.example.lab1.replica.ReadRoutingFilter;
+import com.example.lab1.replica.ReplicationLog;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+@TestPropertySource(properties = {
+        "lab1.read-replicas.enabled=true",
+        "lab1.read-replicas.urls=jdbc:h2:mem:replicadb-replica-1",
+        "lab1.read-replicas.max-staleness=1m",
+        "spring.datasource.url=jdbc:h2:mem:replicadb"
+})
+class ReadReplicaTests extends AbstractRepositoryTests {
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private ReplicationLog replicationLog;
+
+    private ReadReplica replica;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void waitForReplica() {
+        replica = readReplicas.replicas().get(0);
+        replicaJdbcTemplate = new JdbcTemplate(replica.dataSource());
+        clearRepositories();
+        awaitReplay();
+    }
+
+    @Test
+    void testWritesAreReplayed() {
+        String location = createValidContact()
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract()
+                .header(HttpHeaders.LOCATION);
+        long id = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+
+        awaitReplay();
+        assertThat(replicaJdbcTemplate.queryForObject("SELECT NAME FROM CONTACT WHERE ID = ?", String.class, id))
+                .isEqualTo(Fixtures.Contact.NAME);
+
+        contactRepository.deleteById(id);
+        awaitReplay();
+        assertThat(replicaJdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONTACT", Long.class)).isZero();
+    }
+
+    @Test
+    void testGetRequestsReadFromReplica() {
+        Contact contact = saveContact();
+        awaitReplay();
+        replicaJdbcTemplate.update("UPDATE CONTACT SET CITY = 'Replica' WHERE ID = ?", contact.getId());
+
+        getContact(contact, null).body("city", equalTo("Replica"));
+
+        // Other requests read from the primary
+        buildRequestSpecification()
+                .accept(ContentType.JSON)
+                .body(Map.of("name", "Renamed"))
+                .contentType(ContentType.JSON)
+                .patch(ContactRepositoryTests.URI_BASE_PATH + "/" + contact.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("city", equalTo(Fixtures.Contact.CITY));
+    }
+
+    @Test
+    void testReadYourWrites() throws Exception {
+        Contact contact = saveContact();
+        awaitReplay();
+
+        // Holds the replay of changes to the contact back
+        try (Connection connection = replica.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement("SELECT * FROM CONTACT WHERE ID = ? FOR UPDATE")) {
+                lock.setLong(1, contact.getId());
+                lock.executeQuery().close();
+            }
+
+            Response patch = buildRequestSpecification()
+                    .body(Map.of("name", "Renamed"))
+                    .contentType(ContentType.JSON)
+                    .patch(ContactRepositoryTests.URI_BASE_PATH + "/" + contact.getId());
+            patch.then().statusCode(HttpStatus.OK.value());
+            String lastWrite = patch.getCookie(ReadRoutingFilter.COOKIE_NAME);
+            assertThat(lastWrite).isNotNull();
+
+            getContact(contact, null).body("name", equalTo(Fixtures.Contact.NAME));
+            getContact(contact, lastWrite).body("name", equalTo("Renamed"));
+            // Collections read from a lagging replica are not tagged
+            buildRequestSpecification()
+                    .get(ContactRepositoryTests.URI_BASE_PATH)
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .header(HttpHeaders.ETAG, nullValue());
+
+            connection.rollback();
+        }
+
+        awaitReplay();
+        getContact(contact, null).body("name", equalTo("Renamed"));
+        buildRequestSpecification()
+                .get(ContactRepositoryTests.URI_BASE_PATH)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, notNullValue());
+    }
+
+    private Contact saveContact() {
+        return contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+    }
+
+    private ValidatableResponse getContact(Contact contact, String lastWrite) {
+        RequestSpecification request = buildRequestSpecification();
+        if (lastWrite != null) {
+            request.cookie(ReadRoutingFilter.COOKIE_NAME, lastWrite);
+        }
+        return request
+                .get(ContactRepositoryTests.URI_BASE_PATH + "/" + contact.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private void awaitReplay() {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> replica.appliedLsn() == replicationLog.lastLsn());
+    }
+
+}
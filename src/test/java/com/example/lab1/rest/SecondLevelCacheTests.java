@@ -0,0 +1,176 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.SecondLevelCacheConfiguration;
+import com.example.lab1.config.SecondLevelCacheProperties;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.rest.webmvc.RestMediaTypes;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+@TestPropertySource(properties = {
+        "lab1.cache.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:cachedb"
+})
+class SecondLevelCacheTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    private static final String JSON_BASE_PATH = "_embedded.productionInstallations";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Autowired
+    private SecondLevelCacheProperties secondLevelCacheProperties;
+
+    private Statistics statistics;
+
+    private Contact contact;
+
+    private ProductionInstallation installation;
+
+    @BeforeEach
+    void createInstallationWithContact() {
+        clearRepositories();
+        contact = contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME)
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+        installation = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(contact)
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testCacheManagerIsOwnedByTheContext() {
+        assertThat(hibernateCacheManager.getURI())
+                .isNotEqualTo(Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getDefaultURI());
+
+        // As another application context of the same JVM would
+        try (GenericApplicationContext otherContext = new GenericApplicationContext()) {
+            new SecondLevelCacheConfiguration().hibernateCacheManager(secondLevelCacheProperties, otherContext).close();
+        }
+        assertThat(hibernateCacheManager.isClosed()).isFalse();
+        assertThat(hibernateCacheManager.getCache(Contact.class.getName())).isNotNull();
+    }
+
+    @Test
+    void testEntityCacheInvalidatedOnUpdate() {
+        getContact().body("name", equalTo(Fixtures.Contact.NAME));
+        getContact().body("name", equalTo(Fixtures.Contact.NAME));
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        buildRequestSpecification()
+                .body(Contact.builder()
+                        .name(Fixtures.Contact.NAME.toUpperCase())
+                        .zipCode(Fixtures.Contact.ZIP_CODE)
+                        .city(Fixtures.Contact.CITY)
+                        .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                        .build())
+                .contentType(ContentType.JSON)
+                .put(ContactRepositoryTests.URI_BASE_PATH + "/" + contact.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        getContact().body("name", equalTo(Fixtures.Contact.NAME.toUpperCase()));
+
+        assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("result", "hit")
+                .functionCounter()
+                .count()).isPositive();
+    }
+
+    @Test
+    void testQueryCacheInvalidatedOnInsert() {
+        findAllByName().body(JSON_BASE_PATH, hasSize(1));
+        findAllByName().body(JSON_BASE_PATH, hasSize(1));
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build());
+
+        findAllByName().body(JSON_BASE_PATH, hasSize(2));
+    }
+
+    @Test
+    void testAssociationChangeInvalidatesCache() {
+        Contact otherContact = contactRepository.save(Contact.builder()
+                .name(Fixtures.Contact.NAME + " 2")
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+        String installationContactUri = URI_BASE_PATH + "/" + installation.getId() + "/contact";
+
+        buildRequestSpecification()
+                .get(installationContactUri)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo(Fixtures.Contact.NAME));
+
+        buildRequestSpecification()
+                .body(ContactRepositoryTests.URI_BASE_PATH + "/" + otherContact.getId())
+                .contentType(RestMediaTypes.TEXT_URI_LIST.toString())
+                .put(installationContactUri)
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+
+        buildRequestSpecification()
+                .get(installationContactUri)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo(otherContact.getName()));
+        findAllByName().body(JSON_BASE_PATH + "[0].contact.name", equalTo(otherContact.getName()));
+    }
+
+    private ValidatableResponse getContact() {
+        return buildRequestSpecification()
+                .get(ContactRepositoryTests.URI_BASE_PATH + "/" + contact.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    private ValidatableResponse findAllByName() {
+        return buildRequestSpecification()
+                .queryParam("name", Fixtures.ProductionInstallation.NAME)
+                .get(URI_BASE_PATH + "/search/findAllByName")
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+}
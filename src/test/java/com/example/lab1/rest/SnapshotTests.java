@@ -0,0 +1,103 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.config.SnapshotProperties;
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.repository.InstallationContactAndOutputPower;
+import com.example.lab1.snapshot.SnapshotDatabaseInitializer;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "lab1.snapshot.enabled=true",
+        "lab1.snapshot.path=${java.io.tmpdir}/lab1-${random.uuid}.snapshot",
+        "lab1.snapshot.batch-size=2",
+        "spring.datasource.url=jdbc:h2:mem:snapshotdb"
+})
+class SnapshotTests extends AbstractRepositoryTests {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @Autowired
+    private SnapshotProperties snapshotProperties;
+
+    @Autowired
+    private SnapshotDatabaseInitializer snapshotDatabaseInitializer;
+
+    @AfterEach
+    void deleteSnapshot() throws IOException {
+        Files.deleteIfExists(snapshotProperties.getPath());
+    }
+
+    @Test
+    void testSnapshotIsDumpedAndLoaded() {
+        // Started without a snapshot, hence from data.sql
+        assertThat(contactRepository.findAll()).extracting(Contact::getName).contains("Bruce Wayne");
+
+        clearRepositories();
+        Contact contact = contactRepository.save(Contact.builder()
+                .name("Zoë Müller")
+                .zipCode(Fixtures.Contact.ZIP_CODE)
+                .city(Fixtures.Contact.CITY)
+                .houseNumber(Fixtures.Contact.HOUSE_NUMBER)
+                .build());
+        ProductionInstallation first = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .contact(contact)
+                .build());
+        first.setName("Renamed");
+        first = productionInstallationRepository.save(first);
+        ProductionInstallation second = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name("Without output power")
+                .build());
+
+        RestAssured.given()
+                .port(serverPort)
+                .contentType(ContentType.JSON)
+                .post("/actuator/snapshot")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("rows.CONTACT", equalTo(1))
+                .body("rows.PRODUCTION_INSTALLATION", equalTo(2));
+
+        clearRepositories();
+        snapshotDatabaseInitializer.load();
+
+        assertThat(contactRepository.findAll()).singleElement()
+                .usingRecursiveComparison()
+                .isEqualTo(contact);
+        assertThat(productionInstallationRepository.findAll())
+                .extracting(ProductionInstallation::getId, ProductionInstallation::getVersion,
+                        ProductionInstallation::getName, ProductionInstallation::getOutputPower)
+                .containsExactlyInAnyOrder(
+                        tuple(first.getId(), 1L, "Renamed", Fixtures.ProductionInstallation.OUTPUT_POWER),
+                        tuple(second.getId(), 0L, "Without output power", null));
+        assertThat(productionInstallationRepository.findContactsAndOutputPowersByContactIdIn(List.of(contact.getId())))
+                .extracting(InstallationContactAndOutputPower::getId)
+                .containsExactly(first.getId());
+
+        // New IDs follow the loaded ones
+        String location = createValidContact()
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .extract().header("Location");
+        assertThat(Long.parseLong(location.substring(location.lastIndexOf('/') + 1))).isGreaterThan(contact.getId());
+    }
+
+}
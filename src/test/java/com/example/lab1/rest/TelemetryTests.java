@@ -0,0 +1,169 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.telemetry.PowerReading;
+import com.example.lab1.telemetry.Resolution;
+import com.example.lab1.telemetry.TelemetryStore;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+
+class TelemetryTests extends AbstractRepositoryTests {
+
+    @Autowired
+    private TelemetryStore telemetryStore;
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    /**
+     * One hour before midnight, so that the readings span two daily partitions.
+     */
+    private static final Instant BASE = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant()
+            .minus(Duration.ofHours(1));
+
+    @Test
+    void testReadingsAreDownsampled() {
+        clearRepositories();
+        long installationId = createInstallation();
+
+        String readings = String.join("\n",
+                reading(installationId, BASE, 1.0),
+                reading(installationId, BASE.plusSeconds(30), 3.0),
+                reading(installationId, BASE.plusSeconds(60), 2.0),
+                reading(installationId, BASE.plusSeconds(3600), 4.0));
+        ingest(readings).statusCode(HttpStatus.OK.value()).body("imported", equalTo(4));
+        // Readings already stored are ignored, leaving the rollups untouched
+        ingest(readings).statusCode(HttpStatus.OK.value()).body("imported", equalTo(0));
+
+        query(installationId, BASE, BASE.plus(Duration.ofHours(2)), "raw")
+                .statusCode(HttpStatus.OK.value())
+                .body("resolution", equalTo("raw"))
+                .body("points.average", contains(1.0f, 3.0f, 2.0f, 4.0f))
+                .body("points[3].timestamp", equalTo(BASE.plusSeconds(3600).toString()));
+
+        query(installationId, BASE, BASE.plus(Duration.ofHours(2)), "minute")
+                .statusCode(HttpStatus.OK.value())
+                .body("points.count", contains(2, 1, 1))
+                .body("points[0].average", equalTo(2.0f))
+                .body("points[0].min", equalTo(1.0f))
+                .body("points[0].max", equalTo(3.0f));
+
+        query(installationId, BASE, BASE.plus(Duration.ofHours(2)), "hour")
+                .statusCode(HttpStatus.OK.value())
+                .body("points.timestamp", contains(BASE.toString(), BASE.plusSeconds(3600).toString()))
+                .body("points.count", contains(3, 1))
+                .body("points.average", contains(2.0f, 4.0f));
+    }
+
+    @Test
+    void testResolutionFollowsRange() {
+        clearRepositories();
+        long installationId = createInstallation();
+        ingest(reading(installationId, BASE, 1.0)).statusCode(HttpStatus.OK.value());
+
+        query(installationId, BASE, BASE.plus(Duration.ofHours(1)), null)
+                .statusCode(HttpStatus.OK.value())
+                .body("resolution", equalTo("raw"));
+        query(installationId, BASE, BASE.plus(Duration.ofDays(1)), null)
+                .statusCode(HttpStatus.OK.value())
+                .body("resolution", equalTo("minute"))
+                .body("points", hasSize(1));
+        query(installationId, BASE, BASE.plus(Duration.ofDays(30)), null)
+                .statusCode(HttpStatus.OK.value())
+                .body("resolution", equalTo("hour"));
+        // Raw readings past their retention
+        query(installationId, BASE.minus(Duration.ofDays(30)), BASE.minus(Duration.ofDays(30)).plusSeconds(60), null)
+                .statusCode(HttpStatus.OK.value())
+                .body("resolution", equalTo("minute"));
+
+        query(installationId, BASE, BASE.plus(Duration.ofDays(1)), "raw")
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+        query(installationId, BASE, BASE.plus(Duration.ofDays(1)), "second")
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+        query(installationId + 1000, BASE, BASE.plus(Duration.ofHours(1)), null)
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    void testIngestionReportsRejectedLines() {
+        clearRepositories();
+        long installationId = createInstallation();
+
+        ingest(String.join("\n",
+                reading(installationId, BASE, 1.0),
+                reading(installationId, BASE, -1.0),
+                reading(installationId + 1000, BASE, 1.0),
+                reading(installationId, BASE.minus(Duration.ofDays(30)), 1.0)))
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .body("imported", equalTo(1))
+                .body("problems", hasSize(3))
+                .body("problems[0]", equalTo("Line 2: Property \"power\": must be greater than or equal to 0."))
+                .body("problems[1]", startsWith("Line 4: Reading older than "))
+                .body("problems[2]", equalTo("Line 3: Unknown installation " + (installationId + 1000) + "."));
+    }
+
+    @Test
+    void testReadingsOfDeletedInstallationsAreDropped() {
+        clearRepositories();
+        long installationId = createInstallation();
+        long deletedId = createInstallation();
+        productionInstallationRepository.deleteById(deletedId);
+
+        assertThat(telemetryStore.store(List.of(
+                new PowerReading(installationId, BASE, 1.0),
+                new PowerReading(deletedId, BASE, 1.0)))).isEqualTo(1);
+        assertThat(telemetryStore.find(deletedId, BASE, BASE.plusSeconds(1), Resolution.RAW)).isEmpty();
+        assertThat(telemetryStore.find(deletedId, BASE, BASE.plusSeconds(1), Resolution.HOUR)).isEmpty();
+        assertThat(telemetryStore.find(installationId, BASE, BASE.plusSeconds(1), Resolution.RAW)).hasSize(1);
+    }
+
+    private long createInstallation() {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build()).getId();
+    }
+
+    private static String reading(long installationId, Instant timestamp, double power) {
+        return String.format("{\"installationId\": %d, \"timestamp\": \"%s\", \"power\": %s}", installationId,
+                timestamp, power);
+    }
+
+    private ValidatableResponse ingest(String readings) {
+        return buildRequestSpecification()
+                .body(readings.getBytes(StandardCharsets.UTF_8))
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .post(URI_BASE_PATH + "/telemetry")
+                .prettyPeek()
+                .then();
+    }
+
+    private ValidatableResponse query(long installationId, Instant from, Instant to, String resolution) {
+        RequestSpecification request = buildRequestSpecification()
+                .queryParam("from", from.toString())
+                .queryParam("to", to.toString());
+        if (resolution != null) {
+            request.queryParam("resolution", resolution);
+        }
+        return request.get(URI_BASE_PATH + "/" + installationId + "/telemetry")
+                .prettyPeek()
+                .then();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.writebehind.OutputPowerWriteBuffer;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+@TestPropertySource(properties = {
+        "lab1.write-behind.enabled=true",
+        // Flushed by the tests themselves
+        "lab1.write-behind.flush-interval=1h",
+        "lab1.cache.enabled=true",
+        // Searches by output power are served by the cacheable query
+        "lab1.output-power-index.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:writebehindcachedb"
+})
+class WriteBehindQueryCacheTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private OutputPowerWriteBuffer writeBuffer;
+
+    @Test
+    void testFlushInvalidatesCachedSearches() {
+        clearRepositories();
+        ProductionInstallation installation = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build());
+
+        // Cached as matching no installation
+        searchByOutputPower().body("_embedded.productionInstallations", empty());
+
+        buildRequestSpecification()
+                .body("{\"outputPower\": 500}")
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        writeBuffer.flush();
+
+        searchByOutputPower().body("_embedded.productionInstallations.id", contains(installation.getId().intValue()));
+    }
+
+    private ValidatableResponse searchByOutputPower() {
+        return buildRequestSpecification()
+                .queryParam("powerGreaterThan", 400)
+                .queryParam("powerLowerThan", 600)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+}
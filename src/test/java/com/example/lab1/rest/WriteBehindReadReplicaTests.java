@@ -0,0 +1,88 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.replica.ReadReplica;
+import com.example.lab1.replica.ReadReplicas;
+import com.example.lab1.replica.ReadRoutingFilter;
+import com.example.lab1.replica.ReplicationLog;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "lab1.write-behind.enabled=true",
+        // Flushed by the requests themselves
+        "lab1.write-behind.flush-interval=1h",
+        "lab1.read-replicas.enabled=true",
+        "lab1.read-replicas.urls=jdbc:h2:mem:writebehindreplicadb-replica-1",
+        "lab1.read-replicas.max-staleness=1m",
+        "spring.datasource.url=jdbc:h2:mem:writebehindreplicadb"
+})
+class WriteBehindReadReplicaTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private ReplicationLog replicationLog;
+
+    @Test
+    void testFlushOnBehalfOfReadIsReadYourWrites() throws Exception {
+        clearRepositories();
+        ProductionInstallation installation = productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build());
+        ReadReplica replica = readReplicas.replicas().get(0);
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> replica.appliedLsn() == replicationLog.lastLsn());
+
+        // Holds the replay of changes to the installation back
+        try (Connection connection = replica.dataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "SELECT * FROM PRODUCTION_INSTALLATION WHERE ID = ? FOR UPDATE")) {
+                lock.setLong(1, installation.getId());
+                lock.executeQuery().close();
+            }
+
+            buildRequestSpecification()
+                    .body("{\"outputPower\": 500}")
+                    .contentType(ContentType.JSON)
+                    .patch(URI_BASE_PATH + "/" + installation.getId())
+                    .then()
+                    .statusCode(HttpStatus.ACCEPTED.value());
+
+            // Flushed, then read from the primary database
+            Response get = buildRequestSpecification().get(URI_BASE_PATH + "/" + installation.getId());
+            get.then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("outputPower", equalTo(500.0f));
+            String lastWrite = get.getCookie(ReadRoutingFilter.COOKIE_NAME);
+            assertThat(lastWrite).isNotNull();
+
+            buildRequestSpecification()
+                    .cookie(ReadRoutingFilter.COOKIE_NAME, lastWrite)
+                    .get(URI_BASE_PATH + "/" + installation.getId())
+                    .then()
+                    .statusCode(HttpStatus.OK.value())
+                    .body("outputPower", equalTo(500.0f));
+
+            connection.rollback();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.example.lab1.rest;
+
+import com.example.lab1.model.ProductionInstallation;
+import com.example.lab1.writebehind.OutputPowerWriteBuffer;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+@TestPropertySource(properties = {
+        "lab1.write-behind.enabled=true",
+        // Flushed by the tests themselves
+        "lab1.write-behind.flush-interval=1h",
+        "spring.datasource.url=jdbc:h2:mem:writebehinddb"
+})
+class WriteBehindTests extends AbstractRepositoryTests {
+
+    private static final String URI_BASE_PATH = "/production-installations";
+
+    @Autowired
+    private OutputPowerWriteBuffer writeBuffer;
+
+    @Test
+    void testPatchesAreCoalesced() {
+        clearRepositories();
+        ProductionInstallation installation = save();
+        long version = installation.getVersion();
+
+        for (double outputPower : new double[]{10.0, 20.0, 30.0}) {
+            patch(installation.getId(), String.format("{\"outputPower\": %s}", outputPower))
+                    .then()
+                    .statusCode(HttpStatus.ACCEPTED.value());
+        }
+        assertThat(writeBuffer.isPending(installation.getId())).isTrue();
+        assertThat(productionInstallationRepository.findVersionById(installation.getId())).contains(version);
+
+        // Written once, before being read
+        buildRequestSpecification()
+                .get(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("outputPower", equalTo(30.0f));
+        assertThat(writeBuffer.isPending(installation.getId())).isFalse();
+        assertThat(productionInstallationRepository.findVersionById(installation.getId())).contains(version + 1);
+    }
+
+    @Test
+    void testFlushUpdatesSearches() {
+        clearRepositories();
+        ProductionInstallation installation = save();
+
+        patch(installation.getId(), "{\"outputPower\": 500}")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        writeBuffer.flush();
+
+        assertThat(writeBuffer.size()).isZero();
+        buildRequestSpecification()
+                .queryParam("powerGreaterThan", 400)
+                .queryParam("powerLowerThan", 600)
+                .get(URI_BASE_PATH + "/search/findAllByOutputPowerBetween")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("_embedded.productionInstallations.id", contains(installation.getId().intValue()));
+    }
+
+    @Test
+    void testOtherPatchesAreNotBuffered() {
+        clearRepositories();
+        ProductionInstallation installation = save();
+
+        patch(installation.getId(), "{\"outputPower\": 0}")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+        patch(installation.getId() + 1000, "{\"outputPower\": 10}")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+
+        // A pending output power is written before a PATCH of other properties
+        patch(installation.getId(), "{\"outputPower\": 10}")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value());
+        patch(installation.getId(), "{\"name\": \"Renamed\"}")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("name", equalTo("Renamed"))
+                .body("outputPower", equalTo(10.0f));
+
+        long version = productionInstallationRepository.findVersionById(installation.getId()).orElseThrow();
+        buildRequestSpecification()
+                .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                .body("{\"outputPower\": 20}")
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + installation.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("outputPower", equalTo(20.0f));
+        assertThat(writeBuffer.size()).isZero();
+    }
+
+    private Response patch(long id, String body) {
+        return buildRequestSpecification()
+                .body(body)
+                .contentType(ContentType.JSON)
+                .patch(URI_BASE_PATH + "/" + id);
+    }
+
+    private ProductionInstallation save() {
+        return productionInstallationRepository.save(ProductionInstallation.builder()
+                .name(Fixtures.ProductionInstallation.NAME)
+                .outputPower(Fixtures.ProductionInstallation.OUTPUT_POWER)
+                .build());
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.example.lab1.shard;
+
+/**
+ * Shard-aware identifiers: the shard of an installation, and of its contact, is the remainder of its ID divided by the
+ * number of shards, and each shard draws the IDs it assigns from a sequence of its own, scaled so that they all fall
+ * back on it. Changing the number of shards therefore requires moving data.
+ */
+final class ShardIds {
+
+    private final int shardCount;
+
+    ShardIds(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is needed, got " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    /**
+     * @param sequenceValue next value of the sequence of the shard
+     */
+    long idOf(int shard, long sequenceValue) {
+        return Math.multiplyExact(sequenceValue, (long) shardCount) + shard;
+    }
+
+}
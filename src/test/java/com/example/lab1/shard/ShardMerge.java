@@ -0,0 +1,50 @@
+package com.example.lab1.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of the results of a scatter-gather query, each sorted the same way on its shard.
+ */
+final class ShardMerge {
+
+    private ShardMerge() {
+    }
+
+    /**
+     * @param offset number of merged elements to skip
+     * @param limit  maximum number of merged elements to return
+     */
+    static <T> List<T> merge(List<List<T>> sortedResults, Comparator<? super T> comparator, long offset, int limit) {
+        PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>(Math.max(1, sortedResults.size()),
+                (left, right) -> comparator.compare(left.head(), right.head()));
+        for (List<T> result : sortedResults) {
+            Iterator<T> iterator = result.iterator();
+            if (iterator.hasNext()) {
+                cursors.add(new Cursor<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(limit, sortedResults.stream().mapToInt(List::size).sum()));
+        long skipped = 0;
+        while (!cursors.isEmpty() && merged.size() < limit) {
+            Cursor<T> cursor = cursors.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(cursor.head());
+            }
+            if (cursor.tail().hasNext()) {
+                cursors.add(new Cursor<>(cursor.tail().next(), cursor.tail()));
+            }
+        }
+        return merged;
+    }
+
+    private record Cursor<T>(T head, Iterator<T> tail) {
+    }
+
+}
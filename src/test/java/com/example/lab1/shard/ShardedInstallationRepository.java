@@ -0,0 +1,347 @@
+package com.example.lab1.shard;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Production installations spread over several databases, partitioned by {@link ShardIds installation ID}, each
+ * contact being stored along with its installations. New installations go to the shard of their contact, or to the
+ * shards in turn along with a new contact.
+ * <p>
+ * Lookups by ID go to a single shard; the finders of {@link com.example.lab1.repository.ProductionInstallationRepository}
+ * run on all shards in parallel, their sorted results being merged, and paged, on the way back.
+ * <p>
+ * A prototype of sharded storage, exercised by its tests only: the application keeps installations in its single data
+ * source until the rest of its features (indexes, change feed, counts, etc.) can follow installations over shards.
+ */
+public class ShardedInstallationRepository implements Closeable {
+
+    private static final String SELECT = "SELECT I.ID, I.VERSION, I.NAME, I.OUTPUT_POWER, C.ID AS CONTACT_ID,"
+            + " C.VERSION AS CONTACT_VERSION, C.NAME AS CONTACT_NAME, C.ZIP_CODE, C.CITY, C.HOUSE_NUMBER"
+            + " FROM PRODUCTION_INSTALLATION I LEFT JOIN CONTACT C ON C.ID = I.CONTACT_ID";
+
+    /**
+     * Columns installations can be sorted on, by property name.
+     */
+    private static final Map<String, SortColumn<?>> SORT_COLUMNS = Map.of(
+            "id", new SortColumn<>("I.ID", ProductionInstallation::getId),
+            "name", new SortColumn<>("I.NAME", ProductionInstallation::getName),
+            "outputPower", new SortColumn<>("I.OUTPUT_POWER", ProductionInstallation::getOutputPower));
+
+    private static final RowMapper<ProductionInstallation> ROW_MAPPER = ShardedInstallationRepository::mapRow;
+
+    private final List<DataSource> dataSources;
+
+    private final List<Shard> shards;
+
+    private final ShardIds ids;
+
+    private final Executor executor;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public ShardedInstallationRepository(List<DataSource> dataSources, Executor executor) {
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = dataSources.stream()
+                .map(dataSource -> new Shard(new JdbcTemplate(dataSource),
+                        new TransactionTemplate(new DataSourceTransactionManager(dataSource))))
+                .toList();
+        this.ids = new ShardIds(dataSources.size());
+        this.executor = executor;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(long id) {
+        return ids.shardOf(id);
+    }
+
+    /**
+     * Creates the tables of every shard, if they do not exist yet.
+     */
+    public void createSchema() {
+        for (Shard shard : shards) {
+            shard.jdbcTemplate().execute("CREATE SEQUENCE IF NOT EXISTS SHARD_SEQ");
+            shard.jdbcTemplate().execute("CREATE TABLE IF NOT EXISTS CONTACT (ID BIGINT PRIMARY KEY,"
+                    + " VERSION BIGINT NOT NULL, NAME VARCHAR(255) NOT NULL, ZIP_CODE VARCHAR(255) NOT NULL,"
+                    + " CITY VARCHAR(255) NOT NULL, HOUSE_NUMBER VARCHAR(255) NOT NULL)");
+            shard.jdbcTemplate().execute("CREATE TABLE IF NOT EXISTS PRODUCTION_INSTALLATION (ID BIGINT PRIMARY KEY,"
+                    + " VERSION BIGINT NOT NULL, NAME VARCHAR(255) NOT NULL, OUTPUT_POWER DOUBLE PRECISION,"
+                    + " CONTACT_ID BIGINT REFERENCES CONTACT (ID))");
+            shard.jdbcTemplate().execute("CREATE INDEX IF NOT EXISTS PRODUCTION_INSTALLATION_NAME"
+                    + " ON PRODUCTION_INSTALLATION (NAME, ID)");
+            shard.jdbcTemplate().execute("CREATE INDEX IF NOT EXISTS PRODUCTION_INSTALLATION_OUTPUT_POWER"
+                    + " ON PRODUCTION_INSTALLATION (OUTPUT_POWER, ID)");
+        }
+    }
+
+    /**
+     * Inserts a new installation, along with its contact if new, into the shard of its contact if existing, or else
+     * into the next shard, or updates an existing one in its shard, provided its version, and that of its contact, did
+     * not change in the meantime.
+     *
+     * @return the saved installation, with its ID and version, and those of its contact, set
+     * @throws IllegalArgumentException if the contact of the installation is stored on another shard
+     */
+    public ProductionInstallation save(ProductionInstallation installation) {
+        Contact contact = installation.getContact();
+        int shardIndex;
+        if (installation.getId() != null) {
+            shardIndex = ids.shardOf(installation.getId());
+        } else if (contact != null && contact.getId() != null) {
+            shardIndex = ids.shardOf(contact.getId());
+        } else {
+            shardIndex = Math.floorMod(nextShard.getAndIncrement(), shards.size());
+        }
+        if (contact != null && contact.getId() != null && ids.shardOf(contact.getId()) != shardIndex) {
+            throw new IllegalArgumentException("Contact " + contact.getId() + " is not stored along with installation "
+                    + installation.getId());
+        }
+
+        Shard shard = shards.get(shardIndex);
+        return shard.transactionTemplate().execute(status -> {
+            Contact savedContact = contact != null ? save(shard, shardIndex, contact) : null;
+            ProductionInstallation saved = ProductionInstallation.builder()
+                    .id(installation.getId())
+                    .version(installation.getVersion())
+                    .name(installation.getName())
+                    .outputPower(installation.getOutputPower())
+                    .contact(savedContact)
+                    .build();
+            if (saved.getId() == null) {
+                saved.setId(nextId(shard, shardIndex));
+                saved.setVersion(0L);
+                shard.jdbcTemplate().update("INSERT INTO PRODUCTION_INSTALLATION (ID, VERSION, NAME, OUTPUT_POWER,"
+                                + " CONTACT_ID) VALUES (?, ?, ?, ?, ?)", saved.getId(), saved.getVersion(),
+                        saved.getName(), saved.getOutputPower(), contactId(savedContact));
+            } else {
+                long version = saved.getVersion() != null ? saved.getVersion() : 0;
+                int updated = shard.jdbcTemplate().update("UPDATE PRODUCTION_INSTALLATION SET VERSION = ?, NAME = ?,"
+                                + " OUTPUT_POWER = ?, CONTACT_ID = ? WHERE ID = ? AND VERSION = ?", version + 1,
+                        saved.getName(), saved.getOutputPower(), contactId(savedContact), saved.getId(), version);
+                if (updated == 0) {
+                    throw new OptimisticLockingFailureException("Installation " + saved.getId()
+                            + " was changed or removed in the meantime");
+                }
+                saved.setVersion(version + 1);
+            }
+            return saved;
+        });
+    }
+
+    public Optional<ProductionInstallation> findById(long id) {
+        return shards.get(ids.shardOf(id)).jdbcTemplate.query(SELECT + " WHERE I.ID = ?", ROW_MAPPER, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Deletes an installation; its contact is kept, even without installations left.
+     */
+    public void deleteById(long id) {
+        shards.get(ids.shardOf(id)).jdbcTemplate().update("DELETE FROM PRODUCTION_INSTALLATION WHERE ID = ?", id);
+    }
+
+    /**
+     * @return the installations with the given name, by ID
+     */
+    public List<ProductionInstallation> findAllByName(String name) {
+        return ShardMerge.merge(scatter(shard -> shard.jdbcTemplate().query(SELECT + " WHERE I.NAME = ? ORDER BY I.ID",
+                ROW_MAPPER, name)), Comparator.comparing(ProductionInstallation::getId), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the installations with an output power within the given limits, inclusive, by output power then ID
+     */
+    public List<ProductionInstallation> findAllByOutputPowerBetween(double lowerLimit, double upperLimit) {
+        return ShardMerge.merge(scatter(shard -> shard.jdbcTemplate().query(SELECT
+                                + " WHERE I.OUTPUT_POWER BETWEEN ? AND ? ORDER BY I.OUTPUT_POWER, I.ID", ROW_MAPPER,
+                        lowerLimit, upperLimit)),
+                Comparator.comparing(ProductionInstallation::getOutputPower).thenComparing(ProductionInstallation::getId),
+                0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Each shard returns its first {@code offset + size} installations in the requested order, of which the page is
+     * merged, along with its count of installations, which are summed into the total.
+     *
+     * @throws IllegalArgumentException if sorting on a property other than {@code id}, {@code name} or
+     *                                  {@code outputPower}
+     */
+    public Page<ProductionInstallation> findAll(Pageable pageable) {
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        StringBuilder orderBy = new StringBuilder();
+        Comparator<ProductionInstallation> comparator = null;
+        List<String> sortedProperties = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (sortedProperties.contains(order.getProperty())) {
+                continue;
+            }
+            sortedProperties.add(order.getProperty());
+            SortColumn<?> column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Installations cannot be sorted on " + order.getProperty());
+            }
+            orderBy.append(orderBy.length() == 0 ? " ORDER BY " : ", ").append(column.name())
+                    .append(order.isAscending() ? " ASC NULLS FIRST" : " DESC NULLS LAST");
+            Comparator<ProductionInstallation> columnComparator = column.comparator(order.isAscending());
+            comparator = comparator == null ? columnComparator : comparator.thenComparing(columnComparator);
+        }
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ShardMerge.merge(
+                    scatter(shard -> shard.jdbcTemplate().query(SELECT + orderBy, ROW_MAPPER)),
+                    comparator, 0, Integer.MAX_VALUE));
+        }
+
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        List<ShardPage> shardPages = scatter(shard -> new ShardPage(
+                shard.jdbcTemplate().query(SELECT + orderBy + " LIMIT ?", ROW_MAPPER, limit),
+                shard.jdbcTemplate().queryForObject("SELECT COUNT(*) FROM PRODUCTION_INSTALLATION", Long.class)));
+        List<ProductionInstallation> content = ShardMerge.merge(
+                shardPages.stream().map(ShardPage::content).toList(),
+                comparator, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, shardPages.stream().mapToLong(ShardPage::total).sum());
+    }
+
+    /**
+     * Closes the data sources of the shards.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Runs a query on every shard in parallel. The query must not wait for other tasks of the executor, which might all
+     * be waiting for it in turn.
+     */
+    private <T> List<T> scatter(Function<Shard, T> query) {
+        List<CompletableFuture<T>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        return results.stream().map(ShardedInstallationRepository::join).collect(Collectors.toList());
+    }
+
+    private Contact save(Shard shard, int shardIndex, Contact contact) {
+        Contact saved = Contact.builder()
+                .id(contact.getId())
+                .version(contact.getVersion())
+                .name(contact.getName())
+                .zipCode(contact.getZipCode())
+                .city(contact.getCity())
+                .houseNumber(contact.getHouseNumber())
+                .build();
+        if (saved.getId() == null) {
+            saved.setId(nextId(shard, shardIndex));
+            saved.setVersion(0L);
+            shard.jdbcTemplate().update("INSERT INTO CONTACT (ID, VERSION, NAME, ZIP_CODE, CITY, HOUSE_NUMBER)"
+                            + " VALUES (?, ?, ?, ?, ?, ?)", saved.getId(), saved.getVersion(), saved.getName(),
+                    saved.getZipCode(), saved.getCity(), saved.getHouseNumber());
+            return saved;
+        }
+        long version = saved.getVersion() != null ? saved.getVersion() : 0;
+        int updated = shard.jdbcTemplate().update("UPDATE CONTACT SET VERSION = ?, NAME = ?, ZIP_CODE = ?, CITY = ?,"
+                        + " HOUSE_NUMBER = ? WHERE ID = ? AND VERSION = ?", version + 1, saved.getName(),
+                saved.getZipCode(), saved.getCity(), saved.getHouseNumber(), saved.getId(), version);
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Contact " + saved.getId()
+                    + " was changed or removed in the meantime");
+        }
+        saved.setVersion(version + 1);
+        return saved;
+    }
+
+    private long nextId(Shard shard, int shardIndex) {
+        Long sequenceValue = shard.jdbcTemplate().queryForObject("VALUES NEXT VALUE FOR SHARD_SEQ", Long.class);
+        return ids.idOf(shardIndex, sequenceValue);
+    }
+
+    private static Long contactId(Contact contact) {
+        return contact != null ? contact.getId() : null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exc;
+        }
+    }
+
+    private static ProductionInstallation mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        long contactId = resultSet.getLong("CONTACT_ID");
+        Contact contact = resultSet.wasNull() ? null : Contact.builder()
+                .id(contactId)
+                .version(resultSet.getLong("CONTACT_VERSION"))
+                .name(resultSet.getString("CONTACT_NAME"))
+                .zipCode(resultSet.getString("ZIP_CODE"))
+                .city(resultSet.getString("CITY"))
+                .houseNumber(resultSet.getString("HOUSE_NUMBER"))
+                .build();
+        double outputPower = resultSet.getDouble("OUTPUT_POWER");
+        boolean outputPowerNull = resultSet.wasNull();
+        return ProductionInstallation.builder()
+                .id(resultSet.getLong("ID"))
+                .version(resultSet.getLong("VERSION"))
+                .name(resultSet.getString("NAME"))
+                .outputPower(outputPowerNull ? null : outputPower)
+                .contact(contact)
+                .build();
+    }
+
+    private record Shard(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    }
+
+    private record ShardPage(List<ProductionInstallation> content, long total) {
+    }
+
+    private record SortColumn<T extends Comparable<? super T>>(String name,
+                                                              Function<ProductionInstallation, T> property) {
+
+        /**
+         * @return the order of the column in SQL, with nulls first when ascending and last when descending
+         */
+        Comparator<ProductionInstallation> comparator(boolean ascending) {
+            Comparator<T> values = Comparator.nullsFirst(Comparator.<T>naturalOrder());
+            return Comparator.comparing(property, ascending ? values : values.reversed());
+        }
+
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.example.lab1.shard;
+
+import com.example.lab1.model.Contact;
+import com.example.lab1.model.ProductionInstallation;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedInstallationRepositoryTests {
+
+    private static final int SHARD_COUNT = 3;
+
+    private final List<DataSource> shards = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private ShardedInstallationRepository repository;
+
+    @BeforeEach
+    void createShards() {
+        String prefix = "jdbc:h2:mem:shard-" + UUID.randomUUID() + "-";
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            JdbcDataSource shard = new JdbcDataSource();
+            shard.setURL(prefix + i + ";DB_CLOSE_DELAY=-1");
+            shards.add(shard);
+        }
+        executor = Executors.newFixedThreadPool(SHARD_COUNT);
+        repository = new ShardedInstallationRepository(shards, executor);
+        repository.createSchema();
+    }
+
+    @AfterEach
+    void dropShards() {
+        shards.forEach(shard -> new JdbcTemplate(shard).execute("DROP ALL OBJECTS"));
+        executor.shutdown();
+    }
+
+    @Test
+    void testInstallationsAreSpreadWithTheirContact() {
+        List<ProductionInstallation> saved = IntStream.range(0, 6)
+                .mapToObj(i -> repository.save(installation("Installation " + i, (double) i, contact("Contact " + i))))
+                .toList();
+
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            assertThat(count(shard, "PRODUCTION_INSTALLATION")).isEqualTo(2);
+            assertThat(count(shard, "CONTACT")).isEqualTo(2);
+        }
+        for (ProductionInstallation installation : saved) {
+            int shard = repository.shardOf(installation.getId());
+            assertThat(repository.shardOf(installation.getContact().getId())).isEqualTo(shard);
+            assertThat(new JdbcTemplate(shards.get(shard)).queryForObject(
+                    "SELECT NAME FROM PRODUCTION_INSTALLATION WHERE ID = ?", String.class, installation.getId()))
+                    .isEqualTo(installation.getName());
+            assertThat(repository.findById(installation.getId())).contains(installation);
+        }
+    }
+
+    @Test
+    void testNewInstallationsJoinTheShardOfTheirExistingContact() {
+        Contact contact = repository.save(installation("First", 1.0, contact("Contact"))).getContact();
+
+        for (int i = 0; i < 2 * SHARD_COUNT; i++) {
+            ProductionInstallation saved = repository.save(installation("Installation " + i, (double) i, contact));
+            assertThat(repository.shardOf(saved.getId())).isEqualTo(repository.shardOf(contact.getId()));
+            assertThat(saved.getContact().getId()).isEqualTo(contact.getId());
+            contact = saved.getContact();
+        }
+        assertThat(count(repository.shardOf(contact.getId()), "PRODUCTION_INSTALLATION")).isEqualTo(1 + 2 * SHARD_COUNT);
+    }
+
+    @Test
+    void testFindersMergeShards() {
+        List<ProductionInstallation> saved = IntStream.range(0, 20)
+                .mapToObj(i -> repository.save(installation(i % 2 == 0 ? "Even" : "Odd", (double) (i * 7 % 20), null)))
+                .toList();
+
+        assertThat(repository.findAllByName("Even"))
+                .extracting(ProductionInstallation::getId)
+                .containsExactlyElementsOf(saved.stream()
+                        .filter(installation -> installation.getName().equals("Even"))
+                        .map(ProductionInstallation::getId)
+                        .sorted()
+                        .toList());
+        assertThat(repository.findAllByOutputPowerBetween(5, 12))
+                .extracting(ProductionInstallation::getOutputPower)
+                .containsExactly(5.0, 6.0, 7.0, 8.0, 9.0, 10.0, 11.0, 12.0);
+    }
+
+    @Test
+    void testFindAllIsPagedAcrossShards() {
+        List<ProductionInstallation> saved = new ArrayList<>(IntStream.range(0, 25)
+                .mapToObj(i -> repository.save(installation("Installation " + i, i % 4 == 0 ? null : (double) (i % 5), null)))
+                .toList());
+        saved.sort(Comparator.comparing(ProductionInstallation::getOutputPower,
+                        Comparator.nullsFirst(Comparator.<Double>naturalOrder()).reversed())
+                .thenComparing(ProductionInstallation::getId));
+
+        List<ProductionInstallation> pages = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<ProductionInstallation> result = repository.findAll(
+                    PageRequest.of(page, 10, Sort.by(Sort.Order.desc("outputPower"))));
+            assertThat(result.getTotalElements()).isEqualTo(25);
+            pages.addAll(result.getContent());
+        }
+        assertThat(pages).containsExactlyElementsOf(saved);
+
+        assertThatThrownBy(() -> repository.findAll(PageRequest.of(0, 10, Sort.by("contact"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testConcurrentFindAllOutnumberingTheExecutorThreads() throws Exception {
+        IntStream.range(0, 6).forEach(i -> repository.save(installation("Installation " + i, (double) i, null)));
+
+        ExecutorService callers = Executors.newFixedThreadPool(4 * SHARD_COUNT);
+        try {
+            List<Future<Page<ProductionInstallation>>> results = IntStream.range(0, 4 * SHARD_COUNT)
+                    .mapToObj(i -> callers.submit(() -> repository.findAll(PageRequest.of(0, 2))))
+                    .toList();
+            for (Future<Page<ProductionInstallation>> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS).getTotalElements()).isEqualTo(6);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUpdatesAreVersioned() {
+        ProductionInstallation saved = repository.save(installation("Installation", 1.0, contact("Contact")));
+
+        saved.setOutputPower(2.0);
+        saved.getContact().setCity("Utrecht");
+        ProductionInstallation updated = repository.save(saved);
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(repository.findById(saved.getId())).contains(updated);
+
+        saved.setVersion(0L);
+        assertThatThrownBy(() -> repository.save(saved)).isInstanceOf(OptimisticLockingFailureException.class);
+
+        ProductionInstallation other = repository.save(installation("Other", 1.0, null));
+        other.setContact(updated.getContact());
+        assertThatThrownBy(() -> repository.save(other)).isInstanceOf(IllegalArgumentException.class);
+
+        repository.deleteById(saved.getId());
+        assertThat(repository.findById(saved.getId())).isEmpty();
+        // The contact is kept, as through the rest of the API
+        assertThat(count(repository.shardOf(saved.getId()), "CONTACT")).isEqualTo(1);
+    }
+
+    private long count(int shard, String table) {
+        return new JdbcTemplate(shards.get(shard)).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static ProductionInstallation installation(String name, Double outputPower, Contact contact) {
+        return ProductionInstallation.builder()
+                .name(name)
+                .outputPower(outputPower)
+                .contact(contact)
+                .build();
+    }
+
+    private static Contact contact(String name) {
+        return Contact.builder()
+                .name(name)
+                .zipCode("6811 AB")
+                .city("Arnhem")
+                .houseNumber("1")
+                .build();
+    }
+
+}